@@ -0,0 +1,53 @@
+package com.redhat.kb.benchmark;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchResponseDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Per-article string building: {@code toSearchSummary} and {@code toDetailedString}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ArticleFormattingBenchmark {
+
+    private KnowledgeBaseArticleDto summary;
+    private KnowledgeBaseArticleDto detail;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        summary = objectMapper.readValue(HydraPayloads.searchResponse(1), KnowledgeBaseSearchResponseDto.class)
+                .getResponse().getDocs().get(0);
+        detail = objectMapper.readValue(HydraPayloads.detailResponse(1), KnowledgeBaseSearchResponseDto.class)
+                .getResponse().getDocs().get(0);
+    }
+
+    @Benchmark
+    public String toSearchSummary() {
+        return summary.toSearchSummary();
+    }
+
+    @Benchmark
+    public String toDetailedString() {
+        return detail.toDetailedString();
+    }
+}
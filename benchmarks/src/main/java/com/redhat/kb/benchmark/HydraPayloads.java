@@ -0,0 +1,111 @@
+package com.redhat.kb.benchmark;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Synthetic Hydra {@code search/kcs} responses shaped like the real ones:
+ * search rows carry the SEARCH_FIELDS, detail rows the DETAIL_FIELDS with multi-paragraph
+ * solution sections, and every fifth detail row is "subscriber_only".
+ * Content is generated from a fixed seed so runs are reproducible.
+ */
+public final class HydraPayloads {
+
+    private static final String[] WORDS = {
+        "pod", "node", "etcd", "operator", "cluster", "container", "CrashLoopBackOff", "kubelet", "namespace",
+        "OpenShift", "route", "ingress", "certificate", "timeout", "fsync", "latency", "disk", "network",
+        "deployment", "image", "registry", "authentication", "oauth", "memory", "OOMKilled", "restart"
+    };
+
+    private static final List<String> PRODUCTS = List.of(
+            "Red Hat OpenShift Container Platform", "Red Hat Enterprise Linux", "Red Hat OpenShift Data Foundation");
+
+    private HydraPayloads() {
+        // Utility class
+    }
+
+    public static byte[] searchResponse(int rows) {
+        Random random = new Random(42);
+        List<Map<String, Object>> docs = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            docs.add(searchDoc(random, i));
+        }
+        return write(docs);
+    }
+
+    public static byte[] detailResponse(int rows) {
+        Random random = new Random(42);
+        List<Map<String, Object>> docs = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            Map<String, Object> doc = searchDoc(random, i);
+            doc.put("issue", paragraphs(random, 2, 40));
+            if (i % 5 == 4) {
+                doc.put("solution_environment", "subscriber_only");
+                doc.put("solution_rootcause", "subscriber_only");
+                doc.put("solution_resolution", "subscriber_only");
+                doc.put("solution_diagnosticsteps", "subscriber_only");
+            } else {
+                doc.put("solution_environment", paragraphs(random, 1, 20));
+                doc.put("solution_rootcause", paragraphs(random, 2, 60));
+                doc.put("solution_resolution", paragraphs(random, 4, 120));
+                doc.put("solution_diagnosticsteps", paragraphs(random, 3, 80));
+            }
+            doc.put("createdDate", "2021-03-14T09:26:53Z");
+            docs.add(doc);
+        }
+        return write(docs);
+    }
+
+    private static Map<String, Object> searchDoc(Random random, int index) {
+        Map<String, Object> doc = new LinkedHashMap<>();
+        String id = Integer.toString(5_000_000 + index * 17);
+        doc.put("id", id);
+        doc.put("title", sentence(random, 10));
+        doc.put("abstract", sentence(random, 45));
+        doc.put("documentKind", index % 3 == 0 ? "Documentation" : "Solution");
+        doc.put("view_uri", "https://access.redhat.com/solutions/" + id);
+        doc.put("product", PRODUCTS.subList(0, 1 + index % PRODUCTS.size()));
+        doc.put("lastModifiedDate", "2024-0" + (1 + index % 9) + "-12T10:15:30Z");
+        return doc;
+    }
+
+    private static List<String> paragraphs(Random random, int count, int words) {
+        List<String> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            result.add("<p>" + sentence(random, words) + "</p>");
+        }
+        return result;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sb = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.append('.').toString();
+    }
+
+    private static byte[] write(List<Map<String, Object>> docs) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("numFound", docs.size() * 20);
+        response.put("start", 0);
+        response.put("docs", docs);
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("responseHeader", Map.of("status", 0, "QTime", 12));
+        root.put("response", response);
+        try {
+            return new ObjectMapper().writeValueAsBytes(root);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
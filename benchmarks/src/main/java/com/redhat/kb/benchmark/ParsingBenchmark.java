@@ -0,0 +1,72 @@
+package com.redhat.kb.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.kb.infrastructure.client.HydraResponseReader;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchResponseDto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Deserialization of Hydra responses for search and detail queries:
+ * full data binding into {@link KnowledgeBaseSearchResponseDto} from bytes and from a buffered String body,
+ * and the streaming {@link HydraResponseReader} used by KnowledgeBaseClient.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParsingBenchmark {
+
+    @Param({"10", "50"})
+    int rows;
+
+    @Param({"search", "detail"})
+    String fields;
+
+    private ObjectMapper objectMapper;
+    private HydraResponseReader responseReader;
+    private byte[] payload;
+
+    @Setup
+    public void setup() {
+        objectMapper = new ObjectMapper();
+        responseReader = new HydraResponseReader(objectMapper);
+        payload = "detail".equals(fields) ? HydraPayloads.detailResponse(rows) : HydraPayloads.searchResponse(rows);
+    }
+
+    @Benchmark
+    public KnowledgeBaseSearchResponseDto readValue() throws IOException {
+        return objectMapper.readValue(payload, KnowledgeBaseSearchResponseDto.class);
+    }
+
+    /**
+     * The former client path: body decoded into a String, then bound.
+     */
+    @Benchmark
+    public KnowledgeBaseSearchResponseDto readValueFromString() throws IOException {
+        String body = new String(payload, StandardCharsets.UTF_8);
+        return objectMapper.readValue(body, KnowledgeBaseSearchResponseDto.class);
+    }
+
+    @Benchmark
+    public KnowledgeBaseSearchResponseDto.Response streaming() throws IOException {
+        return responseReader.read(new ByteArrayInputStream(payload));
+    }
+}
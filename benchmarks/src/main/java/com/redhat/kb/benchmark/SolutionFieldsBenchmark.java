@@ -0,0 +1,62 @@
+package com.redhat.kb.benchmark;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.dto.StringListDeserializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Binding of one article's solution fields through {@link StringListDeserializer},
+ * fed with both shapes Hydra returns (a list of paragraphs or "subscriber_only").
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SolutionFieldsBenchmark {
+
+    private ObjectReader articleReader;
+    private byte[] paragraphs;
+    private byte[] subscriberOnly;
+
+    @Setup
+    public void setup() {
+        articleReader = new ObjectMapper().readerFor(KnowledgeBaseArticleDto.class);
+        String list = "[\"<p>Restart the kubelet.</p>\",\"<p>Verify etcd disk latency.</p>\"]";
+        paragraphs = article(list);
+        subscriberOnly = article("\"subscriber_only\"");
+    }
+
+    private static byte[] article(String value) {
+        return ("{\"id\":\"5049001\",\"solution_environment\":" + value + ",\"solution_rootcause\":" + value
+                + ",\"solution_resolution\":" + value + ",\"solution_diagnosticsteps\":" + value + "}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public KnowledgeBaseArticleDto listValues() throws IOException {
+        return articleReader.readValue(paragraphs);
+    }
+
+    @Benchmark
+    public KnowledgeBaseArticleDto subscriberOnlyValues() throws IOException {
+        return articleReader.readValue(subscriberOnly);
+    }
+}
@@ -0,0 +1,61 @@
+package com.redhat.kb.mcp;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.kb.benchmark.HydraPayloads;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchResponseDto;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.redhat.kb.infrastructure.tracing.KnowledgeBaseTracing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.OpenTelemetry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Rendering of a result list by {@code KnowledgeBaseTools.formatResults}.
+ * Lives in the tools package to reach the package-private formatter.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FormatResultsBenchmark {
+
+    @Param({"10", "50"})
+    int rows;
+
+    private KnowledgeBaseTools tools;
+    private List<KnowledgeBaseArticleDto> summaries;
+
+    @Setup
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        summaries = objectMapper.readValue(HydraPayloads.searchResponse(rows), KnowledgeBaseSearchResponseDto.class)
+                .getResponse().getDocs();
+
+        tools = new KnowledgeBaseTools();
+        tools.metrics = new KnowledgeBaseMetrics(new SimpleMeterRegistry());
+        tools.tracing = new KnowledgeBaseTracing(OpenTelemetry.noop().getTracer("benchmark"));
+    }
+
+    @Benchmark
+    public String formatResults() {
+        return tools.formatResults(summaries, "Alert", "KubePodCrashLooping");
+    }
+}
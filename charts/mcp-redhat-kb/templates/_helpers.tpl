@@ -73,6 +73,14 @@ Create the image path
 {{/*
 Create the name of the secret to use for Red Hat token
 */}}
+{{- define "mcp-redhat-kb.clusterSecretName" -}}
+{{- if .Values.cluster.existingSecret }}
+{{- .Values.cluster.existingSecret }}
+{{- else }}
+{{- include "mcp-redhat-kb.fullname" . }}-cluster
+{{- end }}
+{{- end }}
+
 {{- define "mcp-redhat-kb.secretName" -}}
 {{- if .Values.redhat.existingSecret }}
 {{- .Values.redhat.existingSecret }}
@@ -0,0 +1,55 @@
+#!/usr/bin/env bash
+# =============================================================================
+# Runs a load test against a local server wired to the upstream stub: starts
+# the stub, starts the server with its Hydra and SSO URLs pointing at it,
+# drives load through the MCP HTTP endpoint, and stops both.
+#
+# Usage:
+#   loadtest/run.sh <server jar> [driver options...]
+#
+# Environment:
+#   STUB_OPTS     stub faults, e.g. "--latency 300ms --error-rate 0.02"
+#   SERVER_OPTS   JVM options and -D properties for the server
+#   SERVER_PORT   MCP port of the server (default 9081)
+#   STUB_PORT     port of the stub (default 18090)
+#
+# The server log is written to loadtest/target/server.log.
+# =============================================================================
+set -euo pipefail
+
+DIR=$(cd "$(dirname "$0")" && pwd)
+JAR=$1
+shift
+SERVER_PORT=${SERVER_PORT:-9081}
+STUB_PORT=${STUB_PORT:-18090}
+LOADTEST_JAR="$DIR/target/loadtest.jar"
+
+if [ ! -f "$LOADTEST_JAR" ]; then
+    (cd "$DIR" && ../mvnw -q package)
+fi
+
+# shellcheck disable=SC2086
+java -jar "$LOADTEST_JAR" stub --port "$STUB_PORT" ${STUB_OPTS:-} &
+STUB=$!
+# shellcheck disable=SC2086
+REDHAT_TOKEN=loadtest-offline-token java ${SERVER_OPTS:-} \
+    -Dquarkus.http.port="$SERVER_PORT" \
+    -Dquarkus.http.host=127.0.0.1 \
+    -Dquarkus.log.level=WARN \
+    -Dquarkus.mcp.server.traffic-logging.enabled=false \
+    -Dredhat.api.hydra.search-url="http://127.0.0.1:$STUB_PORT/hydra/rest/search/kcs" \
+    -Dredhat.api.sso.token-url="http://127.0.0.1:$STUB_PORT/token" \
+    -Dredhat.api.http.warm-up.enabled=false \
+    -jar "$JAR" >"$DIR/target/server.log" 2>&1 &
+SERVER=$!
+trap 'kill $SERVER $STUB 2>/dev/null || true' EXIT
+
+for _ in $(seq 1 120); do
+    if curl -s -o /dev/null "http://127.0.0.1:$SERVER_PORT/mcp"; then
+        break
+    fi
+    sleep 0.5
+done
+
+java -jar "$LOADTEST_JAR" run --url "http://127.0.0.1:$SERVER_PORT/mcp" \
+    --stub "http://127.0.0.1:$STUB_PORT" "$@"
@@ -0,0 +1,56 @@
+package com.redhat.kb.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Collects the latencies of one tool, or of all, and summarizes them.
+ * <p>
+ * Every sample is kept, so percentiles are exact; at microsecond resolution a million calls take 8 MB.
+ */
+final class LatencyRecorder {
+
+    private long[] micros = new long[4096];
+    private int count;
+    private long errors;
+
+    synchronized void record(long nanos, boolean error) {
+        if (count == micros.length) {
+            micros = Arrays.copyOf(micros, count * 2);
+        }
+        micros[count++] = nanos / 1000;
+        if (error) {
+            errors++;
+        }
+    }
+
+    /**
+     * Summary of the samples recorded over the given measurement time.
+     */
+    synchronized Summary summarize(double seconds) {
+        long[] sorted = Arrays.copyOf(micros, count);
+        Arrays.sort(sorted);
+        double sum = 0;
+        for (long sample : sorted) {
+            sum += sample;
+        }
+        return new Summary(count, errors, count / seconds,
+                count > 0 ? sum / count / 1000 : 0,
+                percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99),
+                percentile(sorted, 0.999), count > 0 ? sorted[count - 1] / 1000.0 : 0);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    /**
+     * Latencies in milliseconds; calls that failed are included.
+     */
+    record Summary(long calls, long errors, double throughput, double mean, double p50, double p90, double p99,
+                   double p999, double max) {
+    }
+}
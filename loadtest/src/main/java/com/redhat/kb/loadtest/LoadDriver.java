@@ -0,0 +1,341 @@
+package com.redhat.kb.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Load driver for the MCP streamable HTTP endpoint.
+ * <p>
+ * Each of {@code concurrency} sessions initializes like an MCP client, then sends tool calls from the
+ * {@link Workload}. Without {@code rate} every session sends its next call as soon as the previous one is answered
+ * (closed loop). With {@code rate} calls are started on a fixed schedule across the sessions (open loop) and
+ * latency is measured from the scheduled start, so a slow server is not hidden by the driver slowing down.
+ * <p>
+ * Calls during the warm-up are not counted. The report gives throughput and latency percentiles per tool; it can
+ * be written as JSON and compared with a previous report, in which case the exit status is 2 if throughput dropped
+ * or p99 latency rose by more than the tolerance.
+ */
+public final class LoadDriver {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String ALL = "all";
+
+    private final URI url;
+    private final int concurrency;
+    private final double rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration timeout;
+    private final String header;
+    private final URI stub;
+    private final Workload workload;
+    private final long seed;
+    private final HttpClient client;
+    private final AtomicLong requestIds = new AtomicLong(1);
+    private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+
+    private LoadDriver(Options options) {
+        this.url = URI.create(options.string("url", "http://127.0.0.1:9081/mcp"));
+        this.concurrency = options.integer("concurrency", 16);
+        this.rate = options.decimal("rate", 0);
+        this.warmup = options.duration("warmup", Duration.ofSeconds(10));
+        this.duration = options.duration("duration", Duration.ofSeconds(60));
+        this.timeout = options.duration("timeout", Duration.ofSeconds(30));
+        this.header = options.string("header", null);
+        String stubUrl = options.string("stub", null);
+        this.stub = stubUrl != null ? URI.create(stubUrl.replaceAll("/+$", "")) : null;
+        this.workload = new Workload(options.string("mix", Workload.DEFAULT_MIX),
+                options.integer("distinct", 500), options.decimal("skew", 1.0));
+        this.seed = options.integer("seed", 42);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        recorders.put(ALL, new LatencyRecorder());
+        for (String tool : workload.tools()) {
+            recorders.put(tool, new LatencyRecorder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        LoadDriver driver = new LoadDriver(options);
+        String out = options.string("out", null);
+        String baseline = options.string("baseline", null);
+        double tolerance = options.decimal("tolerance", 0.2);
+        options.checkAllRead();
+
+        ObjectNode report = driver.run();
+        if (out != null) {
+            MAPPER.writeValue(Path.of(out).toFile(), report);
+            System.out.println("Report written to " + out);
+        }
+        if (baseline != null) {
+            List<String> regressions = compare(MAPPER.readTree(Files.readAllBytes(Path.of(baseline))), report,
+                    tolerance);
+            if (!regressions.isEmpty()) {
+                System.out.println("Regressions against " + baseline + ":");
+                regressions.forEach(regression -> System.out.println("  " + regression));
+                System.exit(2);
+            }
+            System.out.printf("No regression against %s (tolerance %.0f%%)%n", baseline, tolerance * 100);
+        }
+        System.exit(0);
+    }
+
+    private ObjectNode run() throws Exception {
+        List<McpSession> sessions = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            sessions.add(McpSession.open(client, url, header, timeout));
+        }
+        System.out.printf("%d sessions on %s, %s, warm-up %ds, measuring %ds%n", concurrency, url,
+                rate > 0 ? "open loop at " + rate + " calls/s" : "closed loop", warmup.toSeconds(),
+                duration.toSeconds());
+
+        long startNanos = System.nanoTime();
+        long measureFrom = startNanos + warmup.toNanos();
+        long endNanos = measureFrom + duration.toNanos();
+        Thread reset = Thread.ofVirtual().start(() -> {
+            LockSupport.parkNanos(measureFrom - System.nanoTime());
+            stubRequest("POST", "/stub/reset");
+        });
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            if (rate > 0) {
+                runOpenLoop(executor, sessions, startNanos, measureFrom, endNanos);
+            } else {
+                for (int i = 0; i < sessions.size(); i++) {
+                    McpSession session = sessions.get(i);
+                    Random random = new Random(seed + i);
+                    executor.submit(() -> {
+                        while (System.nanoTime() < endNanos) {
+                            long start = System.nanoTime();
+                            call(session, random, start, measureFrom);
+                        }
+                    });
+                }
+            }
+        }
+        reset.join();
+
+        double seconds = duration.toNanos() / 1e9;
+        ObjectNode report = MAPPER.createObjectNode();
+        ObjectNode settings = report.putObject("settings");
+        settings.put("url", url.toString());
+        settings.put("concurrency", concurrency);
+        settings.put("rate", rate);
+        settings.put("durationSeconds", duration.toSeconds());
+        ObjectNode tools = report.putObject("tools");
+        System.out.printf("%n%-22s %8s %7s %8s %8s %8s %8s %8s %8s%n", "tool", "calls", "errors", "calls/s",
+                "p50 ms", "p90 ms", "p99 ms", "p999 ms", "max ms");
+        for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+            LatencyRecorder.Summary summary = entry.getValue().summarize(seconds);
+            tools.set(entry.getKey(), MAPPER.valueToTree(summary));
+            System.out.printf("%-22s %8d %7d %8.1f %8.1f %8.1f %8.1f %8.1f %8.1f%n", entry.getKey(),
+                    summary.calls(), summary.errors(), summary.throughput(), summary.p50(), summary.p90(),
+                    summary.p99(), summary.p999(), summary.max());
+        }
+
+        String upstream = stubRequest("GET", "/stub/stats");
+        if (upstream != null) {
+            JsonNode stats = MAPPER.readTree(upstream);
+            report.set("upstream", stats);
+            long calls = recorders.get(ALL).summarize(seconds).calls();
+            long hydra = stats.path("searches").asLong() + stats.path("details").asLong();
+            System.out.printf("%nUpstream: %d Hydra searches, %d detail requests, %d token requests, "
+                            + "%.2f Hydra requests per tool call%n", stats.path("searches").asLong(),
+                    stats.path("details").asLong(), stats.path("tokens").asLong(),
+                    calls > 0 ? (double) hydra / calls : 0);
+        }
+        return report;
+    }
+
+    /**
+     * Starts calls at fixed intervals; each waits for a free session, and that wait counts as latency.
+     * A call that finds no free session within the timeout is counted as failed.
+     */
+    private void runOpenLoop(ExecutorService executor, List<McpSession> sessions, long startNanos,
+                             long measureFrom, long endNanos) throws InterruptedException {
+        BlockingQueue<McpSession> idle = new ArrayBlockingQueue<>(sessions.size(), false, sessions);
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        Random random = new Random(seed);
+        for (long i = 0; ; i++) {
+            long scheduled = startNanos + i * intervalNanos;
+            if (scheduled >= endNanos) {
+                break;
+            }
+            LockSupport.parkNanos(scheduled - System.nanoTime());
+            Random callRandom = new Random(random.nextLong());
+            executor.submit(() -> {
+                McpSession session = idle.poll(scheduled + timeout.toNanos() - System.nanoTime(),
+                        TimeUnit.NANOSECONDS);
+                if (session == null) {
+                    record(callRandom, scheduled, measureFrom);
+                    return null;
+                }
+                try {
+                    call(session, callRandom, scheduled, measureFrom);
+                } finally {
+                    idle.put(session);
+                }
+                return null;
+            });
+        }
+    }
+
+    private void call(McpSession session, Random random, long startNanos, long measureFrom) {
+        Workload.Call call = workload.next(random);
+        boolean error;
+        try {
+            error = !session.callTool(requestIds.getAndIncrement(), call);
+        } catch (IOException e) {
+            error = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        record(call.tool(), startNanos, measureFrom, error);
+    }
+
+    private void record(Random random, long startNanos, long measureFrom) {
+        record(workload.next(random).tool(), startNanos, measureFrom, true);
+    }
+
+    private void record(String tool, long startNanos, long measureFrom, boolean error) {
+        if (startNanos >= measureFrom) {
+            long elapsed = System.nanoTime() - startNanos;
+            recorders.get(ALL).record(elapsed, error);
+            recorders.get(tool).record(elapsed, error);
+        }
+    }
+
+    private String stubRequest(String method, String path) {
+        if (stub == null) {
+            return null;
+        }
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(stub + path))
+                    .method(method, HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofSeconds(5))
+                    .build();
+            return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        } catch (IOException e) {
+            System.err.println("Cannot reach the stub at " + stub + ": " + e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Lists the tools whose throughput dropped or whose p99 latency rose by more than the tolerance.
+     */
+    static List<String> compare(JsonNode baseline, JsonNode current, double tolerance) {
+        List<String> regressions = new ArrayList<>();
+        current.path("tools").fields().forEachRemaining(entry -> {
+            JsonNode before = baseline.path("tools").path(entry.getKey());
+            if (before.isMissingNode() || before.path("calls").asLong() == 0) {
+                return;
+            }
+            JsonNode after = entry.getValue();
+            double throughputBefore = before.path("throughput").asDouble();
+            double throughputAfter = after.path("throughput").asDouble();
+            if (throughputAfter < throughputBefore * (1 - tolerance)) {
+                regressions.add("%s: throughput %.1f -> %.1f calls/s".formatted(entry.getKey(), throughputBefore,
+                        throughputAfter));
+            }
+            double p99Before = before.path("p99").asDouble();
+            double p99After = after.path("p99").asDouble();
+            if (p99After > p99Before * (1 + tolerance)) {
+                regressions.add("%s: p99 %.1f -> %.1f ms".formatted(entry.getKey(), p99Before, p99After));
+            }
+        });
+        return regressions;
+    }
+
+    /**
+     * One MCP session over streamable HTTP.
+     */
+    private static final class McpSession {
+
+        private final HttpClient client;
+        private final URI url;
+        private final String header;
+        private final Duration timeout;
+        private String sessionId;
+
+        private McpSession(HttpClient client, URI url, String header, Duration timeout) {
+            this.client = client;
+            this.url = url;
+            this.header = header;
+            this.timeout = timeout;
+        }
+
+        static McpSession open(HttpClient client, URI url, String header, Duration timeout)
+                throws IOException, InterruptedException {
+            McpSession session = new McpSession(client, url, header, timeout);
+            HttpResponse<String> response = session.post("""
+                    {"jsonrpc":"2.0","id":0,"method":"initialize","params":{"protocolVersion":"2025-06-18",\
+                    "capabilities":{},"clientInfo":{"name":"mcp-redhat-kb-loadtest","version":"1"}}}""");
+            if (response.statusCode() != 200) {
+                throw new IOException("Initialize answered " + response.statusCode() + ": " + response.body());
+            }
+            session.sessionId = response.headers().firstValue("Mcp-Session-Id").orElse(null);
+            session.post("{\"jsonrpc\":\"2.0\",\"method\":\"notifications/initialized\"}");
+            return session;
+        }
+
+        /**
+         * Calls a tool and returns whether it succeeded.
+         */
+        boolean callTool(long id, Workload.Call call) throws IOException, InterruptedException {
+            ObjectNode message = MAPPER.createObjectNode().put("jsonrpc", "2.0").put("id", id)
+                    .put("method", "tools/call");
+            message.putObject("params").put("name", call.tool()).set("arguments", call.arguments());
+            HttpResponse<String> response = post(MAPPER.writeValueAsString(message));
+            String body = response.body();
+            return response.statusCode() == 200 && body.contains("\"result\"") && !body.contains("\"isError\":true");
+        }
+
+        private HttpResponse<String> post(String body) throws IOException, InterruptedException {
+            HttpRequest.Builder request = HttpRequest.newBuilder(url)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json, text/event-stream")
+                    .POST(HttpRequest.BodyPublishers.ofString(body));
+            if (sessionId != null) {
+                request.header("Mcp-Session-Id", sessionId);
+            }
+            if (header != null) {
+                int colon = header.indexOf(':');
+                request.header(header.substring(0, colon).trim(), header.substring(colon + 1).trim());
+            }
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.redhat.kb.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Entry point of the load test jar: {@code stub} starts the upstream stand-in, {@code run} the load driver.
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String command = args.length > 0 ? args[0] : "";
+        String[] options = Arrays.copyOfRange(args, Math.min(1, args.length), args.length);
+        switch (command) {
+            case "stub" -> UpstreamStub.main(options);
+            case "run" -> LoadDriver.main(options);
+            default -> {
+                System.err.println("Usage: java -jar loadtest.jar stub|run [--option value...]");
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.redhat.kb.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Command line options given as {@code --name value} or {@code --name=value}.
+ */
+final class Options {
+
+    private final Map<String, String> values = new HashMap<>();
+    private final Set<String> read = new TreeSet<>();
+
+    Options(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+                values.put(arg.substring(2), args[++i]);
+            } else {
+                values.put(arg.substring(2), "true");
+            }
+        }
+    }
+
+    String string(String name, String defaultValue) {
+        read.add(name);
+        return values.getOrDefault(name, defaultValue);
+    }
+
+    int integer(String name, int defaultValue) {
+        String value = string(name, null);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    double decimal(String name, double defaultValue) {
+        String value = string(name, null);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+
+    boolean flag(String name) {
+        return Boolean.parseBoolean(string(name, "false"));
+    }
+
+    /**
+     * Duration such as {@code 500ms}, {@code 30s} or {@code 5m}; a bare number is in seconds.
+     */
+    Duration duration(String name, Duration defaultValue) {
+        String value = string(name, null);
+        return value != null ? parseDuration(value) : defaultValue;
+    }
+
+    /**
+     * Fails on options that were given but never read, which are most likely typos.
+     */
+    void checkAllRead() {
+        Set<String> unknown = new TreeSet<>(values.keySet());
+        unknown.removeAll(read);
+        if (!unknown.isEmpty()) {
+            throw new IllegalArgumentException("Unknown options: " + unknown + ", expected some of " + read);
+        }
+    }
+
+    static Duration parseDuration(String value) {
+        String v = value.trim();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofMillis((long) (Double.parseDouble(v.substring(0, v.length() - 1)) * 1000));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)) * 60);
+        }
+        return Duration.ofMillis((long) (Double.parseDouble(v) * 1000));
+    }
+}
@@ -0,0 +1,336 @@
+package com.redhat.kb.loadtest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Stand-in for the Red Hat upstreams: the Hydra search ({@code /hydra/rest/search/kcs}) and SSO token
+ * ({@code /token}) endpoints, with injectable latency, failures and payload sizes.
+ * <p>
+ * Searches return {@code rows} articles from a result set of {@code num-found}, with IDs derived from the query so
+ * different queries return different articles. {@code id:} queries return the requested articles, with the solution
+ * sections when the field list asks for them. The faults can be changed while a test runs with
+ * {@code POST /stub/config?name=value...}; {@code GET /stub/stats} returns request counters and
+ * {@code POST /stub/reset} clears them.
+ */
+public final class UpstreamStub {
+
+    private static final Pattern ID = Pattern.compile("\\d+");
+
+    private final HttpServer server;
+    private volatile Faults faults;
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder details = new LongAdder();
+    private final LongAdder tokens = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+
+    public UpstreamStub(String host, int port, Faults faults) throws IOException {
+        this.faults = faults;
+        this.server = HttpServer.create(new InetSocketAddress(host, port), 1024);
+        server.createContext("/hydra/rest/search/kcs", exchange -> handle(exchange, false, this::search));
+        server.createContext("/token", exchange -> handle(exchange, true, this::token));
+        server.createContext("/stub/", this::admin);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public static void main(String[] args) throws IOException {
+        Options options = new Options(args);
+        String host = options.string("host", "127.0.0.1");
+        int port = options.integer("port", 18090);
+        Faults faults = Faults.DEFAULT.with(options);
+        options.checkAllRead();
+
+        UpstreamStub stub = new UpstreamStub(host, port, faults);
+        stub.start();
+        System.out.printf("Upstream stub on http://%s:%d%n", host, port);
+        System.out.printf("  redhat.api.hydra.search-url=http://%s:%d/hydra/rest/search/kcs%n", host, port);
+        System.out.printf("  redhat.api.sso.token-url=http://%s:%d/token%n", host, port);
+        System.out.println("  " + faults);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+    }
+
+    private interface Handler {
+        String respond(Map<String, String> params, Faults faults);
+    }
+
+    private void handle(HttpExchange exchange, boolean token, Handler handler) throws IOException {
+        try (exchange) {
+            Faults current = faults;
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            sleep(current.delayMillis(random, token));
+
+            double roll = random.nextDouble();
+            double errorRate = token ? current.tokenErrorRate() : current.errorRate();
+            if (roll < errorRate) {
+                errors.increment();
+                exchange.sendResponseHeaders(current.errorStatus(), -1);
+                return;
+            }
+            if (!token && roll < errorRate + current.throttleRate()) {
+                throttled.increment();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                exchange.sendResponseHeaders(429, -1);
+                return;
+            }
+
+            String body = handler.respond(parseQuery(exchange.getRequestURI().getRawQuery()), current);
+            respond(exchange, 200, body);
+        }
+    }
+
+    private String token(Map<String, String> params, Faults current) {
+        tokens.increment();
+        return "{\"access_token\":\"stub-" + System.nanoTime() + "\",\"expires_in\":"
+                + current.tokenExpiresSeconds() + ",\"token_type\":\"Bearer\"}";
+    }
+
+    private String search(Map<String, String> params, Faults current) {
+        String query = params.getOrDefault("q", "");
+        String fields = params.getOrDefault("fl", "");
+        boolean withContent = fields.contains("solution_resolution");
+
+        StringBuilder body = new StringBuilder(4096).append("{\"response\":{\"numFound\":");
+        if (query.startsWith("id:")) {
+            details.increment();
+            Matcher ids = ID.matcher(query);
+            StringBuilder docs = new StringBuilder();
+            int count = 0;
+            while (ids.find()) {
+                appendArticle(docs.append(count++ > 0 ? "," : ""), ids.group(), withContent, current);
+            }
+            body.append(count).append(",\"docs\":[").append(docs);
+        } else {
+            searches.increment();
+            int rows = Integer.parseInt(params.getOrDefault("rows", "10"));
+            int start = Integer.parseInt(params.getOrDefault("start", "0"));
+            int count = Math.max(0, Math.min(rows, current.numFound() - start));
+            int base = 5_000_000 + Math.floorMod(query.hashCode(), 90_000) * 10;
+            body.append(current.numFound()).append(",\"docs\":[");
+            for (int i = 0; i < count; i++) {
+                appendArticle(body.append(i > 0 ? "," : ""), String.valueOf(base + start + i), withContent, current);
+            }
+        }
+        return body.append("]}}").toString();
+    }
+
+    private static void appendArticle(StringBuilder sb, String id, boolean withContent, Faults faults) {
+        sb.append("{\"id\":\"").append(id)
+                .append("\",\"title\":\"Pods fail with CrashLoopBackOff after upgrade (").append(id)
+                .append(")\",\"abstract\":\"").append(faults.abstractText())
+                .append("\",\"documentKind\":\"Solution\",\"view_uri\":\"https://access.redhat.com/solutions/")
+                .append(id)
+                .append("\",\"product\":[\"Red Hat OpenShift Container Platform\"]")
+                .append(",\"lastModifiedDate\":\"2024-01-01T00:00:00Z\",\"createdDate\":\"2023-01-01T00:00:00Z\"");
+        if (withContent) {
+            String section = faults.sectionText();
+            sb.append(",\"issue\":[\"<p>Pods restart with <code>CrashLoopBackOff</code>.</p>\"]")
+                    .append(",\"solution_environment\":[\"<ul><li>OpenShift 4</li></ul>\"]")
+                    .append(",\"solution_rootcause\":[\"").append(section).append("\"]")
+                    .append(",\"solution_resolution\":[\"").append(section).append("\"]")
+                    .append(",\"solution_diagnosticsteps\":\"subscriber_only\"");
+        }
+        sb.append('}');
+    }
+
+    private void admin(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            String method = exchange.getRequestMethod();
+            if (path.equals("/stub/stats") && method.equals("GET")) {
+                respond(exchange, 200, stats());
+            } else if (path.equals("/stub/reset") && method.equals("POST")) {
+                for (LongAdder counter : new LongAdder[] {searches, details, tokens, errors, throttled, bytes}) {
+                    counter.reset();
+                }
+                respond(exchange, 200, stats());
+            } else if (path.equals("/stub/config") && method.equals("POST")) {
+                Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+                try {
+                    faults = faults.with(params);
+                } catch (IllegalArgumentException e) {
+                    String message = String.valueOf(e.getMessage()).replace('"', '\'');
+                    respond(exchange, 400, "{\"error\":\"" + message + "\"}");
+                    return;
+                }
+                respond(exchange, 200, "{\"faults\":\"" + faults + "\"}");
+            } else {
+                exchange.sendResponseHeaders(404, -1);
+            }
+        }
+    }
+
+    String stats() {
+        return "{\"searches\":" + searches.sum() + ",\"details\":" + details.sum() + ",\"tokens\":" + tokens.sum()
+                + ",\"errors\":" + errors.sum() + ",\"throttled\":" + throttled.sum()
+                + ",\"responseBytes\":" + bytes.sum() + "}";
+    }
+
+    private void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] payload = body.getBytes(StandardCharsets.UTF_8);
+        bytes.add(payload.length);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, payload.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(payload);
+        }
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Injected latency, failures and payload sizes. Durations are given with a unit, e.g. {@code 150ms}.
+     *
+     * @param latencyMillis Base latency of every Hydra response
+     * @param jitterMillis Uniformly distributed extra latency, 0 to this value
+     * @param tailRate Fraction of Hydra responses delayed by tailMillis instead
+     * @param tailMillis Latency of the slow tail
+     * @param errorRate Fraction of Hydra responses failed with errorStatus
+     * @param errorStatus HTTP status of failed responses
+     * @param throttleRate Fraction of Hydra responses refused with 429 and Retry-After
+     * @param numFound Size of every search result set
+     * @param abstractChars Length of each article abstract
+     * @param sectionBytes Length of each solution section in detail responses
+     * @param tokenLatencyMillis Latency of SSO token responses
+     * @param tokenErrorRate Fraction of SSO token responses failed with errorStatus
+     * @param tokenExpiresSeconds Lifetime of issued access tokens
+     */
+    public record Faults(long latencyMillis, long jitterMillis, double tailRate, long tailMillis,
+                         double errorRate, int errorStatus, double throttleRate,
+                         int numFound, int abstractChars, int sectionBytes,
+                         long tokenLatencyMillis, double tokenErrorRate, int tokenExpiresSeconds) {
+
+        public static final Faults DEFAULT = new Faults(150, 50, 0.01, 2000, 0, 503, 0, 120, 300, 4000, 80, 0, 900);
+
+        private static final List<String> NAMES = List.of("latency", "jitter", "tail-rate", "tail", "error-rate",
+                "error-status", "throttle-rate", "num-found", "abstract-chars", "section-bytes", "token-latency",
+                "token-error-rate", "token-expires-seconds");
+
+        long delayMillis(ThreadLocalRandom random, boolean token) {
+            if (token) {
+                return tokenLatencyMillis;
+            }
+            if (random.nextDouble() < tailRate) {
+                return tailMillis;
+            }
+            return latencyMillis + (jitterMillis > 0 ? random.nextLong(jitterMillis + 1) : 0);
+        }
+
+        String abstractText() {
+            return repeat("Pods restart repeatedly after the upgrade. ", abstractChars);
+        }
+
+        String sectionText() {
+            return repeat("<p>The liveness probe fails before the application starts; increase "
+                    + "<code>initialDelaySeconds</code>.</p>", sectionBytes);
+        }
+
+        private static String repeat(String text, int length) {
+            return text.repeat(length / text.length() + 1).substring(0, length);
+        }
+
+        Faults with(Options options) {
+            Map<String, String> values = new HashMap<>();
+            for (String name : NAMES) {
+                String value = options.string(name, null);
+                if (value != null) {
+                    values.put(name, value);
+                }
+            }
+            return with(values);
+        }
+
+        Faults with(Map<String, String> values) {
+            for (String name : values.keySet()) {
+                if (!NAMES.contains(name)) {
+                    throw new IllegalArgumentException("Unknown fault " + name + ", expected one of " + NAMES);
+                }
+            }
+            return new Faults(
+                    millis(values, "latency", latencyMillis), millis(values, "jitter", jitterMillis),
+                    rate(values, "tail-rate", tailRate), millis(values, "tail", tailMillis),
+                    rate(values, "error-rate", errorRate), integer(values, "error-status", errorStatus),
+                    rate(values, "throttle-rate", throttleRate), integer(values, "num-found", numFound),
+                    integer(values, "abstract-chars", abstractChars), integer(values, "section-bytes", sectionBytes),
+                    millis(values, "token-latency", tokenLatencyMillis),
+                    rate(values, "token-error-rate", tokenErrorRate),
+                    integer(values, "token-expires-seconds", tokenExpiresSeconds));
+        }
+
+        private static long millis(Map<String, String> values, String name, long current) {
+            String value = values.get(name);
+            return value != null ? Options.parseDuration(value).toMillis() : current;
+        }
+
+        private static int integer(Map<String, String> values, String name, int current) {
+            String value = values.get(name);
+            return value != null ? Integer.parseInt(value) : current;
+        }
+
+        private static double rate(Map<String, String> values, String name, double current) {
+            String value = values.get(name);
+            if (value == null) {
+                return current;
+            }
+            double rate = Double.parseDouble(value);
+            if (rate < 0 || rate > 1) {
+                throw new IllegalArgumentException(name + " must be between 0 and 1");
+            }
+            return rate;
+        }
+
+        @Override
+        public String toString() {
+            return "latency=" + latencyMillis + "ms jitter=" + jitterMillis + "ms tail-rate=" + tailRate
+                    + " tail=" + tailMillis + "ms error-rate=" + errorRate + " error-status=" + errorStatus
+                    + " throttle-rate=" + throttleRate + " num-found=" + numFound + " abstract-chars="
+                    + abstractChars + " section-bytes=" + sectionBytes + " token-latency=" + tokenLatencyMillis
+                    + "ms token-error-rate=" + tokenErrorRate + " token-expires-seconds=" + tokenExpiresSeconds;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.redhat.kb.loadtest;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Tool calls resembling the traffic of assistants troubleshooting OpenShift clusters.
+ * <p>
+ * Tools are picked by weight from the mix. Each tool draws its arguments from a fixed number of distinct keys
+ * with a Zipf distribution, so a few queries, alerts and articles are much more popular than the rest, as in real
+ * traffic; the number of keys and the skew set the cache hit rate. Error messages carry a random pod name, UID and
+ * timestamp on every call, like messages pasted from different pods.
+ */
+final class Workload {
+
+    static final String DEFAULT_MIX = "searchKnowledgeBase=35,getSolution=20,troubleshootError=15,"
+            + "findSolutionForAlert=10,investigateError=5,getSolutions=5,searchDocumentation=10";
+
+    private static final List<String> TOPICS = List.of(
+            "pod CrashLoopBackOff", "ImagePullBackOff", "node NotReady", "etcd slow", "OOMKilled",
+            "router 503", "ingress certificate expired", "PVC pending", "cluster upgrade stuck",
+            "machine config pool degraded", "kubelet high CPU", "DNS resolution timeout",
+            "OVN-Kubernetes pod network", "operator degraded", "oauth login fails", "registry storage full",
+            "must-gather", "monitoring stack Prometheus OOM", "SCC permission denied", "route timeout");
+
+    private static final List<String> QUALIFIERS = List.of(
+            "", "OpenShift 4.14", "after upgrade", "on bare metal", "on AWS", "disconnected cluster",
+            "OpenShift 4.16", "with proxy", "single node", "on vSphere");
+
+    private static final List<String> ALERTS = List.of(
+            "KubePodCrashLooping", "KubePodNotReady", "KubeNodeNotReady", "etcdHighFsyncDurations",
+            "etcdMembersDown", "KubeAPIErrorBudgetBurn", "ClusterOperatorDegraded", "KubePersistentVolumeFillingUp",
+            "NodeFilesystemSpaceFillingUp", "TargetDown", "KubeDeploymentReplicasMismatch", "KubeletDown",
+            "AlertmanagerFailedToSendAlerts", "MCDDrainError", "KubeContainerWaiting", "NodeClockNotSynchronising");
+
+    // Arguments: pod name, namespace, UID, timestamp
+    private static final List<String> ERRORS = List.of(
+            "Back-off restarting failed container app in pod %1$s_%2$s(%3$s)",
+            "%4$s E0501 10:22:33.123456 1 reflector.go:138] failed to watch *v1.Pod: failed to list pods in "
+                    + "namespace %2$s: Get \"https://172.30.0.1:443/api/v1/pods\": dial tcp 172.30.0.1:443: "
+                    + "i/o timeout",
+            "Failed to pull image \"quay.io/example/app@sha256:%3$s\": rpc error: code = Unknown desc = unauthorized",
+            "x509: certificate signed by unknown authority (pod %1$s, namespace %2$s, at %4$s)",
+            "etcdserver: request timed out, waited 7.5s for request %3$s at %4$s",
+            "0/6 nodes are available: 3 Insufficient memory. pod %1$s in namespace %2$s",
+            "MountVolume.SetUp failed for volume \"pvc-%3$s\" : rpc error: code = DeadlineExceeded pod %1$s",
+            "container app OOMKilled in pod %1$s, namespace %2$s, restart count 5 at %4$s");
+
+    private static final String POD_NAME_CHARS = "bcdfghjklmnpqrstvwxz2456789";
+
+    private static final String STACK_TRACE = """
+            %s ERROR [io.example.Service] (executor-%s) Request %s failed
+            java.net.SocketTimeoutException: Connect timed out
+                at java.base/sun.nio.ch.NioSocketImpl.timedFinishConnect(NioSocketImpl.java:546)
+                at java.base/java.net.Socket.connect(Socket.java:751)
+                at io.example.Client.call(Client.java:%s)
+            Caused by: %s""";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<String> tools = new ArrayList<>();
+    private final double[] toolCdf;
+    private final double[] keyCdf;
+
+    Workload(String mix, int distinctKeys, double skew) {
+        Map<String, Double> weights = parseMix(mix);
+        toolCdf = new double[weights.size()];
+        double total = weights.values().stream().mapToDouble(Double::doubleValue).sum();
+        double cumulative = 0;
+        for (Map.Entry<String, Double> tool : weights.entrySet()) {
+            cumulative += tool.getValue() / total;
+            toolCdf[tools.size()] = cumulative;
+            tools.add(tool.getKey());
+        }
+
+        keyCdf = new double[distinctKeys];
+        double sum = 0;
+        for (int k = 0; k < distinctKeys; k++) {
+            sum += 1 / Math.pow(k + 1, skew);
+            keyCdf[k] = sum;
+        }
+        for (int k = 0; k < distinctKeys; k++) {
+            keyCdf[k] /= sum;
+        }
+    }
+
+    List<String> tools() {
+        return tools;
+    }
+
+    /**
+     * One tool call.
+     *
+     * @param tool Tool name
+     * @param arguments JSON object of the tool arguments
+     */
+    record Call(String tool, ObjectNode arguments) {
+    }
+
+    Call next(Random random) {
+        String tool = tools.get(sample(toolCdf, random));
+        int key = sample(keyCdf, random);
+        ObjectNode arguments = objectMapper.createObjectNode();
+        switch (tool) {
+            case "searchKnowledgeBase" -> arguments.put("query", query(key));
+            case "searchDocumentation" -> arguments.put("topic", "configure " + query(key));
+            case "getSolution" -> arguments.put("solutionId", articleId(key));
+            case "getSolutions" -> arguments.put("solutionIds",
+                    articleId(key) + "," + articleId(key + 1) + "," + articleId(key + 2));
+            case "findSolutionForAlert" -> arguments.put("alertName", alert(key));
+            case "troubleshootError" -> arguments.put("errorMessage", error(key, random));
+            case "investigateError" -> arguments.put("errorText",
+                    STACK_TRACE.formatted(timestamp(random), random.nextInt(64), uid(random),
+                            random.nextInt(900) + 100, error(key, random)));
+            default -> throw new IllegalArgumentException("Unknown tool in mix: " + tool);
+        }
+        return new Call(tool, arguments);
+    }
+
+    private static String query(int key) {
+        String qualifier = QUALIFIERS.get(key / TOPICS.size() % QUALIFIERS.size());
+        String query = TOPICS.get(key % TOPICS.size()) + (qualifier.isEmpty() ? "" : " " + qualifier);
+        int round = key / (TOPICS.size() * QUALIFIERS.size());
+        return round > 0 ? query + " " + round : query;
+    }
+
+    private static String alert(int key) {
+        String alert = ALERTS.get(key % ALERTS.size());
+        int round = key / ALERTS.size();
+        return round > 0 ? alert + round : alert;
+    }
+
+    private static String articleId(int key) {
+        return String.valueOf(5_049_000 + key);
+    }
+
+    /**
+     * The key selects the error; pod names, namespaces, UIDs and times are random, as they differ between pods.
+     */
+    private static String error(int key, Random random) {
+        String message = ERRORS.get(key % ERRORS.size()).formatted(
+                "web-" + podNamePart(random, 9) + "-" + podNamePart(random, 5),
+                "team-" + podNamePart(random, 4), uid(random), timestamp(random));
+        int round = key / ERRORS.size();
+        return round > 0 ? message + " (" + TOPICS.get(round % TOPICS.size()) + ")" : message;
+    }
+
+    private static String podNamePart(Random random, int length) {
+        StringBuilder part = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            part.append(POD_NAME_CHARS.charAt(random.nextInt(POD_NAME_CHARS.length())));
+        }
+        return part.toString();
+    }
+
+    private static String uid(Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static String timestamp(Random random) {
+        return "2024-05-%02dT%02d:%02d:%02d.%03dZ".formatted(random.nextInt(28) + 1, random.nextInt(24),
+                random.nextInt(60), random.nextInt(60), random.nextInt(1000));
+    }
+
+    private static int sample(double[] cdf, Random random) {
+        double u = random.nextDouble();
+        int low = 0;
+        int high = cdf.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cdf[mid] < u) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static Map<String, Double> parseMix(String mix) {
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] pair = entry.trim().split("=", 2);
+            double weight = pair.length == 2 ? Double.parseDouble(pair[1]) : 1;
+            if (weight > 0) {
+                weights.put(pair[0].trim(), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("Empty tool mix: " + mix);
+        }
+        return weights;
+    }
+}
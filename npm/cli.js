@@ -228,6 +228,14 @@ async function main() {
     // Build Java arguments based on mode
     const javaArgs = [];
 
+    // Class data sharing: the first session records the classes it loads into an archive next to
+    // the JAR, later sessions map them instead of loading them again. The JVM recreates the archive
+    // when the JAR or the JDK changes.
+    javaArgs.push('-XX:+AutoCreateSharedArchive');
+    javaArgs.push(`-XX:SharedArchiveFile=${path.join(CACHE_DIR, 'mcp-redhat-kb.jsa')}`);
+    // JVM warnings go to stderr, where they cannot corrupt the stdio transport
+    javaArgs.push('-Xlog:disable', '-Xlog:all=warning:stderr');
+
     if (options.port) {
       // SSE mode
       javaArgs.push(`-Dquarkus.http.port=${options.port}`);
@@ -14,11 +14,16 @@ public final class KnowledgeBaseConstants {
 
     // Input limits
     public static final int MAX_QUERY_LENGTH = 1000;
+    public static final int MAX_ERROR_TEXT_LENGTH = 20000;
 
     // Result limits
     public static final int DEFAULT_MAX_RESULTS = 10;
     public static final int MIN_RESULTS = 1;
     public static final int MAX_RESULTS = 50;
+    public static final int MAX_BATCH_IDS = 20;
+    public static final int MAX_PAGES = 5;
+    // Hydra (Solr) slows down on deep offsets; refine the query instead of paging further
+    public static final int MAX_SEARCH_OFFSET = 1000;
 
     // Default values
     public static final String DEFAULT_PRODUCT = "Red Hat OpenShift Container Platform";
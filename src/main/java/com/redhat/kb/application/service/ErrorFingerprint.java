@@ -0,0 +1,101 @@
+package com.redhat.kb.application.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Stable signature of an error message, used as both the Hydra query and the cache key of error searches.
+ * <p>
+ * The same failure reported by different pods, nodes or runs differs only in volatile tokens: timestamps,
+ * UUIDs, IP addresses, URLs and file paths, hashes, long numeric IDs, durations and sizes, generated pod name
+ * suffixes and namespaces. The signature drops them along with log prefixes and query syntax and lowercases
+ * the rest, so that identical incidents share one upstream call and one cache entry. Error codes and status
+ * numbers ({@code ORA-01017}, {@code exit code 137}, {@code 503}) are what articles are indexed by, so they
+ * are kept, as are repeated words.
+ */
+final class ErrorFingerprint {
+
+    static final int MAX_TOKENS = 32;
+
+    // klog header (E0501 10:22:33.123456 1 file.go:138]), log levels and [thread] markers
+    private static final Pattern LOG_PREFIX = Pattern.compile(
+            "(?:^|(?<=\\s))[IWEF]\\d{4}\\s+[\\d:.]+\\s+\\d+\\s+[\\w.-]+:\\d+]"
+            + "|\\b(?:TRACE|DEBUG|INFO|WARN|WARNING|ERROR|FATAL|SEVERE)\\b|\\[[^]\\s]*]");
+
+    // namespace: x, namespace="x", ns=x, namespace "x", in namespace x, and kubelet's pod_namespace(pod uid)
+    private static final Pattern NAMESPACE = Pattern.compile(
+            "\\b(?:namespace|ns)\\s*[=:]\\s*[\"']?[a-z0-9][a-z0-9.-]*[\"']?"
+            + "|(?<=[a-z0-9-])_[a-z0-9-]+(?=\\([0-9a-f-]{36}\\))"
+            + "|\\bnamespace\\s+[\"'][^\"']*[\"']"
+            + "|\\bin\\s+namespace\\s+[a-z0-9][a-z0-9.-]*");
+
+    // Generated pod names: <name>-<replica set hash>-<suffix> for deployments,
+    // <name>-<suffix> with a letter and a digit in the suffix for daemon sets and jobs, so that codes such as
+    // ora-01017 are not taken for one; the name is kept
+    private static final Pattern POD_NAME = Pattern.compile("\\b([a-z][a-z0-9]*(?:-[a-z][a-z0-9]*)*?)"
+            + "(?:-(?=[a-z]*\\d)[a-z0-9]{6,10}-[a-z0-9]{5}|-(?=[a-z]*\\d)(?=\\d*[a-z])[a-z0-9]{5})(?![\\w-])");
+
+    // Dates and times, UUIDs, URLs, absolute and relative paths and source files (a/b/c.go:12), IPv4 addresses,
+    // hex IDs and hashes, numbers of six or more digits (PIDs, epochs, resource versions), durations and sizes.
+    // Shorter bare numbers are error codes or statuses and are kept; a/b without a leading slash is not a path
+    private static final Pattern NOISE = Pattern.compile(
+            "\\b\\d{4}[-/]\\d{2}[-/]\\d{2}(?:[T ][\\d:.,]+Z?)?|\\b\\d{1,2}:\\d{2}:\\d{2}(?:[.,]\\d+)?Z?"
+            + "|\\b[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\b"
+            + "|\\b[a-z][a-z0-9+.-]*://\\S+"
+            + "|(?<![\\w.~/])(?:~|\\.{1,2})?/[\\w.@%+~-]+(?:/[\\w.@%+~-]*)*(?::\\d+)?"
+            + "|\\b[\\w.-]+(?:/[\\w.-]+)*\\.(?:go|java|py|js|ts|c|cc|cpp|h|rs|rb|sh|ya?ml|json|xml|conf|log|so)"
+            + "(?::\\d+)*(?![\\w.-])"
+            + "|\\b(?:\\d{1,3}\\.){3}\\d{1,3}(?::\\d+)?\\b"
+            + "|\\b0x[0-9a-fA-F]+\\b|\\b[0-9a-f]{12,}\\b|\\b\\d{6,}\\b"
+            + "|\\b(?:\\d+(?:\\.\\d+)?(?:ns|us|µs|ms|s|m|h))+\\b"
+            + "|\\b\\d+(?:\\.\\d+)?(?:[kmgt]i?b?|bytes)\\b"
+            + "|\\b\\d+(?:\\.\\d+)?\\s+(?:(?:milli)?seconds?|minutes?|hours?|bytes)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    // Characters with a meaning in Hydra (Solr) query syntax; a hyphen only at the start or end of a word
+    private static final Pattern QUERY_SYNTAX =
+            Pattern.compile("[\\\\+!(){}\\[\\]^\"'`~*?:/|&=<>,;]+|(?<!\\w)-+|-+(?!\\w)");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private ErrorFingerprint() {
+        // Utility class
+    }
+
+    /**
+     * @return the signature of the message, or the message with collapsed whitespace if nothing but noise remains
+     */
+    static String of(String errorMessage) {
+        if (errorMessage == null || errorMessage.isBlank()) {
+            return "";
+        }
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : WHITESPACE.split(clean(errorMessage).toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+                if (tokens.size() == MAX_TOKENS) {
+                    break;
+                }
+            }
+        }
+        if (tokens.isEmpty()) {
+            return WHITESPACE.matcher(errorMessage.strip()).replaceAll(" ");
+        }
+        return String.join(" ", tokens);
+    }
+
+    /**
+     * Removes log prefixes, volatile tokens and query syntax, keeping case and word order.
+     */
+    static String clean(String text) {
+        String withoutPrefix = LOG_PREFIX.matcher(text).replaceAll(" ");
+        String withoutNamespace = NAMESPACE.matcher(withoutPrefix).replaceAll(" namespace ");
+        String withoutPodSuffix = POD_NAME.matcher(withoutNamespace).replaceAll("$1");
+        String withoutNoise = NOISE.matcher(withoutPodSuffix).replaceAll(" ");
+        String withoutSyntax = QUERY_SYNTAX.matcher(withoutNoise).replaceAll(" ");
+        return WHITESPACE.matcher(withoutSyntax).replaceAll(" ").strip();
+    }
+}
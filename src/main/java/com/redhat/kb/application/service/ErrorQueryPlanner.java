@@ -0,0 +1,164 @@
+package com.redhat.kb.application.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Derives several short Hydra queries from a raw error message or stack trace.
+ * <p>
+ * Used as a single query, a long error matches poorly: timestamps, IDs, addresses and stack frames drown
+ * the few words KCS articles are written around. Noise is removed as for {@link ErrorFingerprint}.
+ * The planner returns, in order and without duplicates:
+ * <ol>
+ *     <li>the headline (first line that is not a stack frame), cleaned of noise</li>
+ *     <li>the root-cause exception class with its message tokens</li>
+ *     <li>the operator or component named in the error with the message tokens</li>
+ *     <li>the message tokens alone</li>
+ *     <li>the root-cause line of a {@code Caused by:} chain</li>
+ * </ol>
+ */
+final class ErrorQueryPlanner {
+
+    static final int MAX_QUERIES = 5;
+
+    private static final int MAX_HEADLINE_TOKENS = 20;
+    private static final int MAX_MESSAGE_TOKENS = 8;
+    private static final int MIN_SEGMENT_TOKENS = 3;
+
+    private static final Pattern EXCEPTION =
+            Pattern.compile("\\b(?:[a-z_$][\\w$]*\\.)*([A-Z][\\w$]*(?:Exception|Error|Fault))\\b");
+    private static final Pattern CAUSED_BY = Pattern.compile("^\\s*Caused by:\\s*(.+)$", Pattern.MULTILINE);
+    private static final Pattern STACK_FRAME =
+            Pattern.compile("^\\s*(?:at\\s|\\.\\.\\.\\s*\\d+\\s+more|goroutine\\s+\\d+|Caused by:|[\\w/.-]+\\.go:\\d+)");
+    private static final Pattern COMPONENT = Pattern.compile("\\b(?:openshift-[a-z0-9-]+|[a-z0-9-]+-operator"
+            + "|etcd|kube-apiserver|kube-controller-manager|kube-scheduler|kubelet|cri-o|crio|ovn-kubernetes|ovnkube"
+            + "|machine-config-daemon|oauth-openshift|haproxy|coredns|multus|image-registry|prometheus|alertmanager)\\b",
+            Pattern.CASE_INSENSITIVE);
+
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "are", "as", "at", "be", "by", "for",
+            "from", "has", "have", "in", "is", "it", "of", "on", "or", "the", "this", "to", "was", "were", "with",
+            "error", "exception", "caused");
+
+    private ErrorQueryPlanner() {
+        // Utility class
+    }
+
+    /**
+     * @return up to {@link #MAX_QUERIES} distinct queries, most specific to the original text first
+     */
+    static List<String> plan(String errorText) {
+        if (errorText == null || errorText.isBlank()) {
+            return List.of();
+        }
+
+        String headline = headline(errorText);
+        String rootCause = rootCause(errorText);
+        String exception = exceptionName(rootCause != null ? rootCause : headline);
+        List<String> messageTokens = messageTokens(rootCause != null ? rootCause : headline);
+        String message = String.join(" ", messageTokens);
+
+        // Keyed by lowercase query so variants differing only in case are run once
+        Map<String, String> queries = new LinkedHashMap<>();
+        add(queries, limitTokens(ErrorFingerprint.clean(headline), MAX_HEADLINE_TOKENS));
+        if (exception != null) {
+            add(queries, exception + " " + message);
+        }
+        String component = component(errorText);
+        if (component != null && !message.toLowerCase(Locale.ROOT).contains(component)) {
+            add(queries, component + " " + message);
+        }
+        add(queries, message);
+        if (rootCause != null) {
+            add(queries, limitTokens(ErrorFingerprint.clean(rootCause), MAX_HEADLINE_TOKENS));
+        }
+        return queries.values().stream().limit(MAX_QUERIES).toList();
+    }
+
+    private static void add(Map<String, String> queries, String query) {
+        String trimmed = query.strip();
+        if (!trimmed.isEmpty()) {
+            queries.putIfAbsent(trimmed.toLowerCase(Locale.ROOT), trimmed);
+        }
+    }
+
+    /**
+     * First line that is not part of a stack trace, or the first line if all are.
+     */
+    private static String headline(String errorText) {
+        String[] lines = errorText.strip().split("\\R");
+        for (String line : lines) {
+            if (!line.isBlank() && !STACK_FRAME.matcher(line).find()) {
+                return line.strip();
+            }
+        }
+        return lines[0].strip();
+    }
+
+    /**
+     * Last {@code Caused by:} line, which names the underlying failure in Java stack traces.
+     */
+    private static String rootCause(String errorText) {
+        Matcher matcher = CAUSED_BY.matcher(errorText);
+        String last = null;
+        while (matcher.find()) {
+            last = matcher.group(1).strip();
+        }
+        return last;
+    }
+
+    private static String component(String errorText) {
+        Matcher matcher = COMPONENT.matcher(errorText);
+        return matcher.find() ? matcher.group().toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static String exceptionName(String line) {
+        Matcher matcher = EXCEPTION.matcher(line);
+        return matcher.find() ? matcher.group(1) : null;
+    }
+
+    /**
+     * Distinctive words of the message part of a line, without noise or stop words.
+     * The message is the text after the exception class or, for {@code a: b: c} error chains (as in Go),
+     * the innermost segment with a few words, keeping a one-word prefix such as {@code x509:}.
+     */
+    private static List<String> messageTokens(String line) {
+        Matcher matcher = EXCEPTION.matcher(line);
+        String message = matcher.find() ? line.substring(matcher.end()) : innermostSegment(line);
+        List<String> tokens = new ArrayList<>();
+        for (String token : ErrorFingerprint.clean(message).split("\\s+")) {
+            if (token.length() > 1 && !STOP_WORDS.contains(token.toLowerCase(Locale.ROOT))
+                    && !tokens.contains(token)) {
+                tokens.add(token);
+                if (tokens.size() == MAX_MESSAGE_TOKENS) {
+                    break;
+                }
+            }
+        }
+        return tokens;
+    }
+
+    private static String innermostSegment(String line) {
+        String[] segments = line.split(":\\s+");
+        for (int i = segments.length - 1; i >= 0; i--) {
+            if (ErrorFingerprint.clean(segments[i]).split(" ").length >= MIN_SEGMENT_TOKENS) {
+                String prefix = i > 0 ? ErrorFingerprint.clean(segments[i - 1]) : "";
+                if (!prefix.isEmpty() && !prefix.contains(" ")) {
+                    return segments[i - 1] + " " + segments[i];
+                }
+                return segments[i];
+            }
+        }
+        return line;
+    }
+
+    private static String limitTokens(String text, int maxTokens) {
+        String[] tokens = text.split(" ");
+        return tokens.length <= maxTokens ? text : String.join(" ", List.of(tokens).subList(0, maxTokens));
+    }
+}
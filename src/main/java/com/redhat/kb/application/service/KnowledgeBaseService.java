@@ -1,35 +1,88 @@
 package com.redhat.kb.application.service;
 
+import com.redhat.kb.infrastructure.cache.ArticleCache;
+import com.redhat.kb.infrastructure.cache.SearchResultCache;
 import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.client.CallerToken;
+import com.redhat.kb.infrastructure.client.UpstreamAuthenticationException;
 import com.redhat.kb.infrastructure.client.KnowledgeBaseClient;
 import com.redhat.kb.infrastructure.client.RedHatAuthClient;
 import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchPage;
+import com.redhat.kb.infrastructure.index.LocalSearchIndex;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.redhat.kb.infrastructure.tracing.KnowledgeBaseTracing;
 
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.context.Context;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 import static com.redhat.kb.KnowledgeBaseConstants.DEFAULT_MAX_RESULTS;
 
 /**
  * Application service for Red Hat Knowledge Base operations.
  * Provides search and retrieval of technical articles, solutions, and documentation.
+ * Each operation runs in a span recording its arguments, result count and whether it was served from cache.
  */
 @ApplicationScoped
 public class KnowledgeBaseService {
 
+    private static final Logger LOG = Logger.getLogger(KnowledgeBaseService.class);
+
+    private static final String DOCUMENT_KIND_SOLUTION = "Solution";
+    private static final String DOCUMENT_KIND_DOCUMENTATION = "Documentation";
+
+    // Reciprocal rank fusion constant; 60 damps the weight of top ranks as in the original RRF paper
+    private static final int RRF_K = 60;
+
     private final RedHatApiConfig config;
     private final KnowledgeBaseClient kbClient;
     private final RedHatAuthClient authClient;
+    private final SearchResultCache searchCache;
+    private final ArticleCache articleCache;
+    private final LocalSearchIndex localIndex;
+    private final KnowledgeBaseMetrics metrics;
+    private final KnowledgeBaseTracing tracing;
+    private final int raceTimeoutMillis;
+    private final ExecutorService searchExecutor;
 
     @Inject
-    public KnowledgeBaseService(RedHatApiConfig config, KnowledgeBaseClient kbClient, RedHatAuthClient authClient) {
+    public KnowledgeBaseService(RedHatApiConfig config, KnowledgeBaseClient kbClient, RedHatAuthClient authClient,
+                                SearchResultCache searchCache, ArticleCache articleCache,
+                                LocalSearchIndex localIndex, KnowledgeBaseMetrics metrics,
+                                KnowledgeBaseTracing tracing) {
         this.config = config;
         this.kbClient = kbClient;
         this.authClient = authClient;
+        this.searchCache = searchCache;
+        this.articleCache = articleCache;
+        this.localIndex = localIndex;
+        this.metrics = metrics;
+        this.tracing = tracing;
+        this.raceTimeoutMillis = config.localIndex().raceTimeoutMillis();
+        this.searchExecutor = Context.taskWrapping(Executors.newVirtualThreadPerTaskExecutor());
     }
 
     /**
@@ -41,6 +94,8 @@ public class KnowledgeBaseService {
 
     /**
      * Searches the Knowledge Base for articles matching the query.
+     * Repeated searches are served from the search result cache until their TTL expires.
+     * If Hydra fails, or is slower than the configured race timeout, matches from the local index are returned.
      *
      * @param query Search terms (e.g., "CrashLoopBackOff OpenShift")
      * @param maxResults Maximum number of results to return (default: 10)
@@ -49,16 +104,193 @@ public class KnowledgeBaseService {
      * @return List of matching articles
      */
     public List<KnowledgeBaseArticleDto> search(String query, int maxResults, String product, String documentType) {
-        if (!isConfigured()) {
-            return Collections.emptyList();
+        return searchPage(query, maxResults, 0, product, documentType).articles();
+    }
+
+    /**
+     * Gets one page of search results with the total number of matches.
+     * The first page is searched like {@link #search}; later pages come from the cache or Hydra only, since
+     * the local index ranks differently and its matches cannot continue a Hydra result list.
+     *
+     * @param query Search terms
+     * @param pageSize Results per page (default: 10)
+     * @param start Offset of the first result, from {@link KnowledgeBaseSearchPage#nextStart()} of the previous page
+     * @param product Filter by product name (optional)
+     * @param documentType Filter by type: Solution, Documentation, Article (optional)
+     * @return The page; answers from the local index report only their own matches, so they have no next page
+     */
+    public KnowledgeBaseSearchPage searchPage(String query, int pageSize, int start, String product,
+                                              String documentType) {
+        return tracing.inSpan("KnowledgeBaseService.searchPage", span -> {
+            KnowledgeBaseTracing.recordSearch(span, query, pageSize, start, product, documentType);
+            KnowledgeBaseSearchPage page = findPage(query, pageSize, start, product, documentType);
+            span.setAttribute(KnowledgeBaseTracing.RESULTS, (long) page.articles().size());
+            span.setAttribute(KnowledgeBaseTracing.NUM_FOUND, (long) page.numFound());
+            return page;
+        });
+    }
+
+    private KnowledgeBaseSearchPage findPage(String query, int pageSize, int start, String product,
+                                             String documentType) {
+        if (!isConfigured() || query == null || query.isBlank()) {
+            return new KnowledgeBaseSearchPage(List.of(), Math.max(0, start), 0);
         }
 
-        if (query == null || query.isBlank()) {
-            return Collections.emptyList();
+        int limit = pageSize > 0 ? pageSize : DEFAULT_MAX_RESULTS;
+        if (start > 0) {
+            return remotePage(query, limit, start, product, documentType);
+        }
+        Supplier<KnowledgeBaseSearchPage> remote = () -> remotePage(query, limit, 0, product, documentType);
+        // The local index holds articles fetched with the configured token, which a caller's token may not see
+        if (!localIndex.isEnabled() || CallerToken.isPresent()) {
+            return remote.get();
+        }
+        if (raceTimeoutMillis <= 0) {
+            try {
+                return remote.get();
+            } catch (RuntimeException e) {
+                return searchLocally(query, limit, product, documentType, e);
+            }
         }
 
-        int limit = maxResults > 0 ? maxResults : DEFAULT_MAX_RESULTS;
-        return kbClient.search(query, limit, product, documentType);
+        // Hydra keeps running after a local answer, so its result still reaches the cache and the index
+        CompletableFuture<KnowledgeBaseSearchPage> pending =
+                CompletableFuture.supplyAsync(CallerToken.propagate(remote), searchExecutor);
+        try {
+            return pending.get(raceTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            List<KnowledgeBaseArticleDto> local = localIndex.search(query, limit, product, documentType);
+            if (!local.isEmpty()) {
+                metrics.recordLocalSearch(KnowledgeBaseMetrics.LOCAL_SEARCH_RACE);
+                Span.current().setAttribute(KnowledgeBaseTracing.LOCAL_SEARCH, KnowledgeBaseMetrics.LOCAL_SEARCH_RACE);
+                return localPage(local);
+            }
+            return awaitRemote(pending, query, limit, product, documentType);
+        } catch (ExecutionException e) {
+            return searchLocally(query, limit, product, documentType, unwrap(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Search interrupted", e);
+        }
+    }
+
+    /**
+     * Gets up to {@code pages} consecutive pages of search results. Once the first page has arrived, the
+     * following ones are fetched concurrently; {@code onPage} is called with each page in order as soon as it
+     * and the pages before it are available. A failed later page ends the run with the pages received so far.
+     * When the client is paging and prefetch is enabled, the page after the last one is then loaded into the
+     * cache in the background.
+     *
+     * @param query Search terms
+     * @param pageSize Results per page (default: 10)
+     * @param start Offset of the first result
+     * @param pages Number of pages to fetch (at least 1)
+     * @param product Filter by product name (optional)
+     * @param documentType Filter by type (optional)
+     * @param onPage Called on the caller thread with each page, in order
+     * @return The pages fetched, in order; never empty
+     */
+    public List<KnowledgeBaseSearchPage> searchPages(String query, int pageSize, int start, int pages,
+                                                     String product, String documentType,
+                                                     Consumer<KnowledgeBaseSearchPage> onPage) {
+        int limit = pageSize > 0 ? pageSize : DEFAULT_MAX_RESULTS;
+        KnowledgeBaseSearchPage first = searchPage(query, limit, start, product, documentType);
+        onPage.accept(first);
+
+        List<CompletableFuture<KnowledgeBaseSearchPage>> pending = new ArrayList<>();
+        for (int offset = first.nextStart(); offset >= 0 && offset < first.numFound() && pending.size() < pages - 1;
+                offset += limit) {
+            int pageStart = offset;
+            pending.add(CompletableFuture.supplyAsync(CallerToken.propagate(
+                    () -> remotePage(query, limit, pageStart, product, documentType)), searchExecutor));
+        }
+
+        List<KnowledgeBaseSearchPage> result = new ArrayList<>(pending.size() + 1);
+        result.add(first);
+        for (int i = 0; i < pending.size(); i++) {
+            try {
+                KnowledgeBaseSearchPage page = pending.get(i).join();
+                onPage.accept(page);
+                result.add(page);
+                if (page.nextStart() < 0) {
+                    break;
+                }
+            } catch (CompletionException e) {
+                LOG.debugf("Search page %d of %d failed, returning %d: %s", i + 2, pending.size() + 1,
+                        result.size(), e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                pending.subList(i + 1, pending.size()).forEach(page -> page.cancel(false));
+                break;
+            }
+        }
+
+        KnowledgeBaseSearchPage last = result.get(result.size() - 1);
+        if (config.pagination().prefetchNextPage() && last.nextStart() >= 0 && (start > 0 || pages > 1)
+                && !CallerToken.isPresent()) {
+            prefetchPage(query, limit, last.nextStart(), product, documentType);
+        }
+        return result;
+    }
+
+    private KnowledgeBaseSearchPage remotePage(String query, int limit, int start, String product,
+                                               String documentType) {
+        return tracing.inSpan("KnowledgeBaseService.remotePage", span -> {
+            span.setAttribute(KnowledgeBaseTracing.START, (long) start);
+            return searchCache.get(query, limit, start, product, documentType,
+                    () -> kbClient.searchPage(query, limit, start, product, documentType));
+        });
+    }
+
+    /**
+     * Loads a page into the search cache without waiting for it. A client following with the cursor meanwhile
+     * joins the in-flight load instead of starting another.
+     */
+    private void prefetchPage(String query, int limit, int start, String product, String documentType) {
+        CompletableFuture.runAsync(CallerToken.propagate(() -> {
+                    remotePage(query, limit, start, product, documentType);
+                }), searchExecutor)
+                .exceptionally(e -> {
+                    LOG.debugf("Prefetch of search page at %d failed: %s", start, e.getMessage());
+                    return null;
+                });
+    }
+
+    private KnowledgeBaseSearchPage awaitRemote(CompletableFuture<KnowledgeBaseSearchPage> pending,
+                                                String query, int limit, String product, String documentType) {
+        try {
+            return pending.get();
+        } catch (ExecutionException e) {
+            return searchLocally(query, limit, product, documentType, unwrap(e));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Search interrupted", e);
+        }
+    }
+
+    /**
+     * Answers a search whose Hydra call failed from the local index, or rethrows the failure if nothing matches.
+     * A rejected token is always rethrown, since the index must not answer callers Hydra has turned away.
+     */
+    private KnowledgeBaseSearchPage searchLocally(String query, int limit, String product, String documentType,
+                                                  RuntimeException failure) {
+        if (failure instanceof UpstreamAuthenticationException) {
+            throw failure;
+        }
+        List<KnowledgeBaseArticleDto> local = localIndex.search(query, limit, product, documentType);
+        if (local.isEmpty()) {
+            throw failure;
+        }
+        LOG.warnf("Hydra search failed, answering from local index: %s", failure.getMessage());
+        metrics.recordLocalSearch(KnowledgeBaseMetrics.LOCAL_SEARCH_FALLBACK);
+        Span.current().setAttribute(KnowledgeBaseTracing.LOCAL_SEARCH, KnowledgeBaseMetrics.LOCAL_SEARCH_FALLBACK);
+        return localPage(local);
+    }
+
+    private static KnowledgeBaseSearchPage localPage(List<KnowledgeBaseArticleDto> local) {
+        return new KnowledgeBaseSearchPage(local, 0, local.size());
+    }
+
+    private static RuntimeException unwrap(ExecutionException e) {
+        return e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException(e.getCause());
     }
 
     /**
@@ -77,6 +309,7 @@ public class KnowledgeBaseService {
 
     /**
      * Gets the full content of a Knowledge Base article by its ID.
+     * Served from the article cache, which revalidates stale entries in the background.
      *
      * @param articleId The article/solution ID (e.g., "5049001")
      * @return The article with full content, or empty if not found
@@ -90,19 +323,194 @@ public class KnowledgeBaseService {
             return Optional.empty();
         }
 
-        return kbClient.getSolution(articleId);
+        return tracing.inSpan("KnowledgeBaseService.getArticle", span -> {
+            span.setAttribute(KnowledgeBaseTracing.ARTICLE_ID, articleId);
+            Optional<KnowledgeBaseArticleDto> article = articleCache.get(articleId);
+            span.setAttribute(KnowledgeBaseTracing.RESULTS, article.isPresent() ? 1L : 0L);
+            return article;
+        });
+    }
+
+    /**
+     * Gets the full content of several articles, fetching all uncached ones in a single Hydra request.
+     * If that request fails, stale cached or stored copies are served when all of them have one.
+     * Duplicate IDs are ignored.
+     *
+     * @param articleIds The article/solution IDs, in the order results should be returned
+     * @return Found articles in requested order, and the IDs that were not found
+     */
+    public ArticleBatch getArticles(List<String> articleIds) {
+        if (!isConfigured() || articleIds == null || articleIds.isEmpty()) {
+            return new ArticleBatch(List.of(), List.of());
+        }
+        return tracing.inSpan("KnowledgeBaseService.getArticles", span -> fetchArticles(articleIds, span));
+    }
+
+    private ArticleBatch fetchArticles(List<String> articleIds, Span span) {
+        List<String> requested = new ArrayList<>(new LinkedHashSet<>(articleIds));
+        Map<String, KnowledgeBaseArticleDto> found = new HashMap<>();
+        List<String> uncached = new ArrayList<>();
+        for (String id : requested) {
+            articleCache.getIfPresent(id).ifPresentOrElse(article -> found.put(id, article), () -> uncached.add(id));
+        }
+        span.setAttribute(KnowledgeBaseTracing.ARTICLES_REQUESTED, (long) requested.size());
+        span.setAttribute(KnowledgeBaseTracing.ARTICLES_CACHED, (long) found.size());
+
+        try {
+            for (KnowledgeBaseArticleDto article : kbClient.getSolutions(uncached)) {
+                found.put(article.id(), article);
+                articleCache.put(article);
+            }
+        } catch (RuntimeException e) {
+            found.putAll(staleArticles(uncached, e));
+        }
+
+        List<KnowledgeBaseArticleDto> articles = new ArrayList<>(requested.size());
+        List<String> missing = new ArrayList<>();
+        for (String id : requested) {
+            KnowledgeBaseArticleDto article = found.get(id);
+            if (article != null) {
+                articles.add(article);
+            } else {
+                missing.add(id);
+            }
+        }
+        span.setAttribute(KnowledgeBaseTracing.ARTICLES_MISSING, (long) missing.size());
+        return new ArticleBatch(articles, missing);
+    }
+
+    /**
+     * Answers a batch whose Hydra call failed from stale cached or stored copies.
+     * Rethrows the failure unless every ID has one, so an article is never reported missing just because Hydra is down.
+     * A rejected token is always rethrown.
+     */
+    private Map<String, KnowledgeBaseArticleDto> staleArticles(List<String> articleIds, RuntimeException failure) {
+        if (failure instanceof UpstreamAuthenticationException) {
+            throw failure;
+        }
+        Map<String, KnowledgeBaseArticleDto> stale = new HashMap<>();
+        for (String id : articleIds) {
+            KnowledgeBaseArticleDto article = articleCache.getStale(id).orElseThrow(() -> failure);
+            stale.put(id, article);
+        }
+        LOG.warnf("Hydra batch lookup failed, serving %d stale articles: %s", stale.size(), failure.getMessage());
+        return stale;
     }
 
     /**
      * Searches for solutions related to a specific error message.
-     * Optimized for troubleshooting scenarios.
+     * Optimized for troubleshooting scenarios: the search runs on the message's {@link ErrorFingerprint},
+     * so the same error from different pods, nodes or runs shares one Hydra call and one cache entry.
      *
      * @param errorMessage The error message to search for
      * @param product Optional product filter
      * @return List of solutions that may help resolve the error
      */
     public List<KnowledgeBaseArticleDto> searchForError(String errorMessage, String product) {
-        return search(errorMessage, DEFAULT_MAX_RESULTS, product, "Solution");
+        return search(ErrorFingerprint.of(errorMessage), DEFAULT_MAX_RESULTS, product, DOCUMENT_KIND_SOLUTION);
+    }
+
+    /**
+     * Searches for solutions to a long error message or stack trace with several derived queries at once.
+     * The queries from {@link ErrorQueryPlanner} run concurrently through {@link #search}, so caching and
+     * the local index fallback apply to each. Results are deduplicated by article ID and ranked by
+     * reciprocal rank fusion: an article scores {@code 1 / (60 + rank)} summed over the queries that returned it.
+     * Fails only if every query fails.
+     *
+     * @param errorText The error message or stack trace
+     * @param maxResults Maximum number of merged results (also fetched per query)
+     * @param product Optional product filter
+     * @return Merged results with the queries that were run
+     */
+    public FanOutSearch searchForErrorFanOut(String errorText, int maxResults, String product) {
+        if (!isConfigured()) {
+            return new FanOutSearch(List.of(), List.of(), List.of());
+        }
+        List<String> queries = ErrorQueryPlanner.plan(errorText);
+        if (queries.isEmpty()) {
+            return new FanOutSearch(List.of(), List.of(), List.of());
+        }
+        return tracing.inSpan("KnowledgeBaseService.searchForErrorFanOut", span -> {
+            span.setAttribute(KnowledgeBaseTracing.QUERY_LENGTH, (long) errorText.length());
+            span.setAttribute(KnowledgeBaseTracing.QUERIES, (long) queries.size());
+            FanOutSearch search = fanOut(queries, maxResults, product);
+            span.setAttribute(KnowledgeBaseTracing.QUERIES_FAILED, (long) search.failedQueries().size());
+            span.setAttribute(KnowledgeBaseTracing.RESULTS, (long) search.articles().size());
+            return search;
+        });
+    }
+
+    private FanOutSearch fanOut(List<String> queries, int maxResults, String product) {
+        int limit = maxResults > 0 ? maxResults : DEFAULT_MAX_RESULTS;
+        List<CompletableFuture<List<KnowledgeBaseArticleDto>>> pending = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            pending.add(CompletableFuture.supplyAsync(CallerToken.propagate(
+                    () -> search(query, limit, product, DOCUMENT_KIND_SOLUTION)), searchExecutor));
+        }
+
+        List<List<KnowledgeBaseArticleDto>> results = new ArrayList<>(queries.size());
+        List<String> failedQueries = new ArrayList<>();
+        RuntimeException failure = null;
+        for (int i = 0; i < queries.size(); i++) {
+            try {
+                results.add(pending.get(i).join());
+            } catch (CompletionException e) {
+                failedQueries.add(queries.get(i));
+                if (failure == null) {
+                    failure = e.getCause() instanceof RuntimeException cause ? cause : e;
+                }
+            }
+        }
+        if (failedQueries.size() == queries.size()) {
+            throw failure;
+        }
+        if (!failedQueries.isEmpty()) {
+            LOG.debugf("%d of %d error queries failed: %s", failedQueries.size(), queries.size(), failure.getMessage());
+        }
+        return new FanOutSearch(fuse(results, limit), queries, failedQueries);
+    }
+
+    /**
+     * Merges ranked result lists by reciprocal rank fusion, deduplicating by article ID.
+     *
+     * @param results Results of each query, best first
+     * @param limit Maximum number of merged results
+     * @return Merged results, best first
+     */
+    static List<KnowledgeBaseArticleDto> fuse(List<List<KnowledgeBaseArticleDto>> results, int limit) {
+        Map<String, Double> scores = new HashMap<>();
+        Map<String, KnowledgeBaseArticleDto> articles = new LinkedHashMap<>();
+        for (List<KnowledgeBaseArticleDto> ranked : results) {
+            for (int rank = 0; rank < ranked.size(); rank++) {
+                KnowledgeBaseArticleDto article = ranked.get(rank);
+                scores.merge(article.id(), 1.0 / (RRF_K + rank + 1), Double::sum);
+                articles.putIfAbsent(article.id(), article);
+            }
+        }
+
+        // Stable sort: ties keep the order in which articles were first returned
+        List<KnowledgeBaseArticleDto> merged = new ArrayList<>(articles.values());
+        merged.sort(Comparator.comparingDouble((KnowledgeBaseArticleDto a) -> scores.get(a.id())).reversed());
+        return List.copyOf(merged.subList(0, Math.min(limit, merged.size())));
+    }
+
+    /**
+     * Re-runs {@link #searchForError} against Hydra and replaces its cached results, restarting their TTL.
+     * Used by the prefetch job to keep common incident searches warm.
+     */
+    public List<KnowledgeBaseArticleDto> refreshSearchForError(String errorMessage, String product) {
+        if (!isConfigured() || errorMessage == null || errorMessage.isBlank()) {
+            return Collections.emptyList();
+        }
+        String query = ErrorFingerprint.of(errorMessage);
+        return tracing.inSpan("KnowledgeBaseService.refreshSearchForError", span -> {
+            KnowledgeBaseTracing.recordSearch(span, query, DEFAULT_MAX_RESULTS, 0, product, DOCUMENT_KIND_SOLUTION);
+            KnowledgeBaseSearchPage page =
+                    kbClient.searchPage(query, DEFAULT_MAX_RESULTS, 0, product, DOCUMENT_KIND_SOLUTION);
+            searchCache.put(query, DEFAULT_MAX_RESULTS, product, DOCUMENT_KIND_SOLUTION, page);
+            span.setAttribute(KnowledgeBaseTracing.RESULTS, (long) page.articles().size());
+            return page.articles();
+        });
     }
 
     /**
@@ -113,6 +521,31 @@ public class KnowledgeBaseService {
      * @return List of documentation articles
      */
     public List<KnowledgeBaseArticleDto> searchDocumentation(String topic, String product) {
-        return search(topic, DEFAULT_MAX_RESULTS, product, "Documentation");
+        return search(topic, DEFAULT_MAX_RESULTS, product, DOCUMENT_KIND_DOCUMENTATION);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        searchExecutor.shutdownNow();
+    }
+
+    /**
+     * Result of a batch article lookup.
+     *
+     * @param articles Found articles, in requested order
+     * @param missingIds Requested IDs that Hydra did not return
+     */
+    public record ArticleBatch(List<KnowledgeBaseArticleDto> articles, List<String> missingIds) {
+    }
+
+    /**
+     * Result of a fan-out error search.
+     *
+     * @param articles Merged results, best first
+     * @param queries Queries derived from the error, in the order they were planned
+     * @param failedQueries Queries whose search failed and did not contribute
+     */
+    public record FanOutSearch(List<KnowledgeBaseArticleDto> articles, List<String> queries,
+                               List<String> failedQueries) {
     }
 }
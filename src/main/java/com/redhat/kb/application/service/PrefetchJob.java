@@ -0,0 +1,181 @@
+package com.redhat.kb.application.service;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the searches on-call agents run most often warm.
+ * At startup and then periodically, every catalog entry is run through
+ * {@link KnowledgeBaseService#refreshSearchForError} for each configured product, and the top articles
+ * of each result are prefetched into the article cache.
+ * <p>
+ * Runs on a single background thread with at most one upstream request in flight,
+ * paced to the configured request rate so live traffic is not starved.
+ */
+@ApplicationScoped
+public class PrefetchJob {
+
+    private static final Logger LOG = Logger.getLogger(PrefetchJob.class);
+
+    private static final String CLASSPATH_PREFIX = "classpath:";
+
+    private final RedHatApiConfig.Prefetch config;
+    private final KnowledgeBaseService kbService;
+    private final ScheduledExecutorService scheduler;
+    private final long pauseNanos;
+    private long lastRequestNanos;
+
+    @Inject
+    public PrefetchJob(RedHatApiConfig config, KnowledgeBaseService kbService) {
+        this.config = config.prefetch();
+        this.kbService = kbService;
+        this.pauseNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(0.01, this.config.requestsPerSecond()));
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "kb-prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    void schedule(@Observes StartupEvent event) {
+        if (!config.enabled()) {
+            return;
+        }
+        if (!kbService.isConfigured()) {
+            LOG.info("Prefetch skipped: REDHAT_TOKEN not configured");
+            return;
+        }
+
+        List<String> entries = loadEntries();
+        if (entries.isEmpty()) {
+            LOG.warn("Prefetch enabled but the catalog is empty");
+            return;
+        }
+        if (config.intervalSeconds() > 0) {
+            scheduler.scheduleWithFixedDelay(() -> run(entries),
+                    config.initialDelaySeconds(), config.intervalSeconds(), TimeUnit.SECONDS);
+        } else {
+            scheduler.schedule(() -> run(entries), config.initialDelaySeconds(), TimeUnit.SECONDS);
+        }
+        LOG.infof("Prefetch scheduled for %d entries x %d products", entries.size(), config.products().size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void run(List<String> entries) {
+        long start = System.nanoTime();
+        int searches = 0;
+        int articles = 0;
+        int failures = 0;
+
+        for (String product : config.products()) {
+            for (String entry : entries) {
+                try {
+                    pace();
+                    List<KnowledgeBaseArticleDto> results = kbService.refreshSearchForError(entry, product);
+                    searches++;
+
+                    List<String> ids = results.stream()
+                            .limit(config.topArticles())
+                            .map(KnowledgeBaseArticleDto::id)
+                            .filter(Objects::nonNull)
+                            .toList();
+                    if (!ids.isEmpty()) {
+                        pace();
+                        articles += kbService.getArticles(ids).articles().size();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (RuntimeException e) {
+                    failures++;
+                    LOG.debugf("Prefetch of '%s' (%s) failed: %s", entry, product, e.getMessage());
+                }
+            }
+        }
+
+        LOG.infof("Prefetched %d searches and %d articles in %d s (%d failed)",
+                searches, articles, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start), failures);
+    }
+
+    /**
+     * Sleeps until at least one request interval has passed since the previous request.
+     */
+    private void pace() throws InterruptedException {
+        long wait = lastRequestNanos + pauseNanos - System.nanoTime();
+        if (lastRequestNanos != 0 && wait > 0) {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+        lastRequestNanos = System.nanoTime();
+    }
+
+    /**
+     * Catalog lines followed by the configured queries, without duplicates.
+     */
+    private List<String> loadEntries() {
+        Set<String> entries = new LinkedHashSet<>();
+        config.catalog().ifPresent(catalog -> entries.addAll(readCatalog(catalog)));
+        config.queries().ifPresent(queries -> queries.stream()
+                .map(String::trim)
+                .filter(query -> !query.isEmpty())
+                .forEach(entries::add));
+        return List.copyOf(entries);
+    }
+
+    private List<String> readCatalog(String location) {
+        try (InputStream in = open(location)) {
+            if (in == null) {
+                LOG.warnf("Prefetch catalog not found: %s", location);
+                return List.of();
+            }
+            List<String> lines = new ArrayList<>();
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                String entry = line.trim();
+                if (!entry.isEmpty() && !entry.startsWith("#")) {
+                    lines.add(entry);
+                }
+            }
+            return lines;
+        } catch (IOException e) {
+            LOG.warnf("Cannot read prefetch catalog %s: %s", location, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private static InputStream open(String location) throws IOException {
+        if (location.startsWith(CLASSPATH_PREFIX)) {
+            return Thread.currentThread().getContextClassLoader()
+                    .getResourceAsStream(location.substring(CLASSPATH_PREFIX.length()));
+        }
+        Path path = Path.of(location);
+        return Files.exists(path) ? Files.newInputStream(path) : null;
+    }
+}
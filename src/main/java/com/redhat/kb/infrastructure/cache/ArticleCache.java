@@ -0,0 +1,271 @@
+package com.redhat.kb.infrastructure.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.github.benmanes.caffeine.cache.AsyncCacheLoader;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.redhat.kb.infrastructure.client.CallerToken;
+import com.redhat.kb.infrastructure.client.UpstreamAuthenticationException;
+import com.redhat.kb.infrastructure.client.KnowledgeBaseClient;
+import com.redhat.kb.infrastructure.cluster.SharedCache;
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.redhat.kb.infrastructure.store.ArticleStore;
+import com.redhat.kb.infrastructure.tracing.KnowledgeBaseTracing;
+
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.opentelemetry.context.Context;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+/**
+ * Cache for full article details, keyed by article ID.
+ * Hits are served locally. Entries older than the refresh interval are revalidated in the background:
+ * a cheap probe compares lastModifiedDate and the full body is only refetched when the article changed.
+ * <p>
+ * Misses are served from the {@link ArticleStore} when it is enabled. Stored copies older than the refresh
+ * interval are revalidated first, and served as they are if Hydra cannot be reached.
+ * <p>
+ * Articles neither cached nor stored are looked up in the {@link SharedCache} before calling Hydra. Fetched
+ * articles are shared, and a revalidation that finds a change replaces the shared copy on all replicas.
+ */
+@ApplicationScoped
+public class ArticleCache {
+
+    private static final Logger LOG = Logger.getLogger(ArticleCache.class);
+
+    private static final String REGION = "article";
+
+    private final KnowledgeBaseClient kbClient;
+    private final ArticleStore store;
+    private final SharedCache sharedCache;
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration refreshAge;
+    private final ExecutorService refreshExecutor;
+    private final AsyncLoadingCache<String, KnowledgeBaseArticleDto> cache;
+
+    @Inject
+    public ArticleCache(RedHatApiConfig config, KnowledgeBaseClient kbClient, ArticleStore store,
+                        SharedCache sharedCache, KnowledgeBaseMetrics metrics) {
+        RedHatApiConfig.ArticleCache cacheConfig = config.cache().article();
+        this.kbClient = kbClient;
+        this.store = store;
+        this.sharedCache = sharedCache;
+        this.enabled = cacheConfig.enabled();
+        this.ttl = Duration.ofSeconds(cacheConfig.ttlSeconds());
+        this.refreshAge = Duration.ofSeconds(cacheConfig.refreshSeconds());
+        this.refreshExecutor = Context.taskWrapping(Executors.newVirtualThreadPerTaskExecutor());
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheConfig.maxEntries())
+                .expireAfterWrite(ttl)
+                .refreshAfterWrite(Duration.ofSeconds(cacheConfig.refreshSeconds()))
+                .executor(refreshExecutor)
+                .recordStats()
+                .buildAsync(new RevalidatingLoader());
+        CaffeineCacheMetrics.monitor(metrics.registry(), cache, "kb.article");
+        sharedCache.onEviction(REGION, articleId -> {
+            cache.synchronous().invalidate(articleId);
+            store.remove(articleId);
+        });
+    }
+
+    /**
+     * Returns the article, loading it from Hydra on a miss.
+     * Articles that do not exist are not cached. Where the article came from is recorded on the current span.
+     * Lookups made with a {@link CallerToken} always go to Hydra and are neither cached nor stored.
+     */
+    public Optional<KnowledgeBaseArticleDto> get(String articleId) {
+        if (!enabled || CallerToken.isPresent()) {
+            return kbClient.getSolution(articleId);
+        }
+        // Set before the lookup, so that a load overrides it with the store or shared cache it was served from.
+        // The map view does not record a hit or miss, which the lookup below already does.
+        KnowledgeBaseTracing.recordCache(cache.asMap().containsKey(articleId)
+                ? KnowledgeBaseTracing.CACHE_HIT : KnowledgeBaseTracing.CACHE_MISS);
+        try {
+            return Optional.ofNullable(cache.get(articleId).join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the article if it is cached and loaded, stored on disk and still fresh, or shared by another replica,
+     * without calling Hydra.
+     */
+    public Optional<KnowledgeBaseArticleDto> getIfPresent(String articleId) {
+        if (!enabled || CallerToken.isPresent()) {
+            return Optional.empty();
+        }
+        CompletableFuture<KnowledgeBaseArticleDto> cached = cache.getIfPresent(articleId);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally()) {
+            return Optional.ofNullable(cached.join());
+        }
+
+        Optional<KnowledgeBaseArticleDto> found = store.get(articleId)
+                .filter(entry -> isFresh(entry.storedAt()))
+                .map(ArticleStore.StoredArticle::article)
+                .or(() -> sharedCache.get(REGION, articleId, KnowledgeBaseArticleDto.class));
+        found.ifPresent(article -> cache.put(articleId, CompletableFuture.completedFuture(article)));
+        return found;
+    }
+
+    /**
+     * Returns the cached or stored copy of the article, however old, without calling Hydra.
+     * Used when Hydra is failing and a stale article beats none.
+     */
+    public Optional<KnowledgeBaseArticleDto> getStale(String articleId) {
+        if (!enabled || CallerToken.isPresent()) {
+            return Optional.empty();
+        }
+        CompletableFuture<KnowledgeBaseArticleDto> cached = cache.getIfPresent(articleId);
+        if (cached != null && cached.isDone() && !cached.isCompletedExceptionally() && cached.join() != null) {
+            return Optional.of(cached.join());
+        }
+        return store.get(articleId).map(ArticleStore.StoredArticle::article);
+    }
+
+    /**
+     * Stores an article fetched outside of the cache, e.g. by a batch query.
+     */
+    public void put(KnowledgeBaseArticleDto article) {
+        if (enabled && article.id() != null && !CallerToken.isPresent()) {
+            cache.put(article.id(), CompletableFuture.completedFuture(article));
+            store.put(article);
+            sharedCache.put(REGION, article.id(), article, ttl);
+        }
+    }
+
+    /**
+     * Hit, miss, load and eviction counters since startup.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    /**
+     * Number of entries currently held.
+     */
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public void invalidate(String articleId) {
+        cache.synchronous().invalidate(articleId);
+        store.remove(articleId);
+        sharedCache.invalidate(REGION, articleId);
+    }
+
+    private boolean isFresh(Instant storedAt) {
+        return storedAt.plus(refreshAge).isAfter(Instant.now());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private final class RevalidatingLoader implements AsyncCacheLoader<String, KnowledgeBaseArticleDto> {
+
+        @Override
+        public CompletableFuture<KnowledgeBaseArticleDto> asyncLoad(String articleId, Executor executor) {
+            return CompletableFuture.supplyAsync(CallerToken.propagate(() -> load(articleId)), executor);
+        }
+
+        @Override
+        public CompletableFuture<KnowledgeBaseArticleDto> asyncReload(String articleId,
+                                                                      KnowledgeBaseArticleDto cached,
+                                                                      Executor executor) {
+            return CompletableFuture.supplyAsync(CallerToken.propagate(() -> revalidate(articleId, cached)),
+                    executor);
+        }
+
+        private KnowledgeBaseArticleDto load(String articleId) {
+            Optional<ArticleStore.StoredArticle> stored = store.get(articleId);
+            if (stored.isEmpty()) {
+                return loadShared(articleId);
+            }
+
+            KnowledgeBaseArticleDto article = stored.get().article();
+            if (isFresh(stored.get().storedAt())) {
+                KnowledgeBaseTracing.recordCache(KnowledgeBaseTracing.CACHE_STORE);
+                return article;
+            }
+            try {
+                return revalidate(articleId, article);
+            } catch (UpstreamAuthenticationException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                LOG.debugf("Cannot revalidate stored article %s, serving stored copy: %s", articleId, e.getMessage());
+                return article;
+            }
+        }
+
+        /**
+         * Keeps the cached article if its lastModifiedDate is unchanged, otherwise refetches the full body.
+         * On failure Caffeine keeps serving the cached value until the next refresh attempt.
+         */
+        private KnowledgeBaseArticleDto revalidate(String articleId, KnowledgeBaseArticleDto cached) {
+            Optional<KnowledgeBaseArticleDto> probe = kbClient.probeSolution(articleId);
+            if (probe.isEmpty()) {
+                LOG.debugf("Article %s no longer found, evicting", articleId);
+                store.remove(articleId);
+                sharedCache.invalidate(REGION, articleId);
+                return null;
+            }
+
+            String lastModified = probe.get().lastModifiedDate();
+            if (lastModified != null && Objects.equals(lastModified, cached.lastModifiedDate())) {
+                store.touch(articleId);
+                return cached;
+            }
+
+            LOG.debugf("Article %s changed upstream, refetching details", articleId);
+            KnowledgeBaseArticleDto article = fetch(articleId);
+            if (article != null) {
+                sharedCache.replace(REGION, articleId, article, ttl);
+            } else {
+                sharedCache.invalidate(REGION, articleId);
+            }
+            return article;
+        }
+
+        private KnowledgeBaseArticleDto loadShared(String articleId) {
+            Optional<KnowledgeBaseArticleDto> shared =
+                    sharedCache.get(REGION, articleId, KnowledgeBaseArticleDto.class);
+            if (shared.isPresent()) {
+                KnowledgeBaseTracing.recordCache(KnowledgeBaseTracing.CACHE_SHARED);
+                store.put(shared.get());
+                return shared.get();
+            }
+            KnowledgeBaseArticleDto article = fetch(articleId);
+            if (article != null) {
+                sharedCache.put(REGION, articleId, article, ttl);
+            }
+            return article;
+        }
+
+        private KnowledgeBaseArticleDto fetch(String articleId) {
+            Optional<KnowledgeBaseArticleDto> article = kbClient.getSolution(articleId);
+            article.ifPresentOrElse(store::put, () -> store.remove(articleId));
+            return article.orElse(null);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.redhat.kb.infrastructure.cache;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Registers for native images the generated Caffeine classes that the caches here use
+ * and the Quarkus Caffeine extension does not register itself.
+ * <p>
+ * Caffeine loads a cache and a node class by name from the builder's features: statistics, maximum size or
+ * weight, expiry after access or write, and refresh. A cache built with a new combination needs its classes
+ * added here; run the JVM build with {@code -Xlog:class+load} to list them.
+ */
+@RegisterForReflection(classNames = {
+        // Search results: statistics, maximum size or weight, expiry after write
+        "com.github.benmanes.caffeine.cache.SSSMW",
+        "com.github.benmanes.caffeine.cache.SSSMWW",
+        "com.github.benmanes.caffeine.cache.PSWMW",
+        // Articles: as above, with refresh after write
+        "com.github.benmanes.caffeine.cache.SSSMSWR",
+        "com.github.benmanes.caffeine.cache.PSWR",
+        "com.github.benmanes.caffeine.cache.PSWRMW",
+        // Caller tokens: maximum size, expiry after access
+        "com.github.benmanes.caffeine.cache.PSAMS",
+        // Shared cache entries owned by this replica: statistics, maximum weight, variable expiry
+        "com.github.benmanes.caffeine.cache.SSSMWA"
+})
+final class CaffeineReflection {
+
+    private CaffeineReflection() {
+    }
+}
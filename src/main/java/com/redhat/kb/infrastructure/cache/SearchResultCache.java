@@ -0,0 +1,230 @@
+package com.redhat.kb.infrastructure.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.redhat.kb.infrastructure.client.CallerToken;
+import com.redhat.kb.infrastructure.cluster.SharedCache;
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchPage;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.redhat.kb.infrastructure.tracing.KnowledgeBaseTracing;
+
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Bounded in-process cache for Knowledge Base search results.
+ * Entries are keyed on the normalized (query, rows, start, product, documentKind) tuple,
+ * expire after a fixed TTL and are evicted by Caffeine's W-TinyLFU policy.
+ * <p>
+ * Local misses are looked up in the {@link SharedCache} before calling Hydra, and fetched pages are shared,
+ * so replicas serve each other's results.
+ */
+@ApplicationScoped
+public class SearchResultCache {
+
+    private static final String REGION = "search";
+
+    // Boolean operators, which Hydra only recognizes in upper case
+    private static final Set<String> OPERATORS = Set.of("AND", "OR", "NOT");
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final SharedCache sharedCache;
+    private final AsyncCache<SearchKey, KnowledgeBaseSearchPage> cache;
+
+    @Inject
+    public SearchResultCache(RedHatApiConfig config, SharedCache sharedCache, KnowledgeBaseMetrics metrics) {
+        RedHatApiConfig.SearchCache cacheConfig = config.cache().search();
+        this.enabled = cacheConfig.enabled();
+        this.ttl = Duration.ofSeconds(cacheConfig.ttlSeconds());
+        this.sharedCache = sharedCache;
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .recordStats();
+
+        if (cacheConfig.maxBytes().isPresent()) {
+            builder.maximumWeight(cacheConfig.maxBytes().get())
+                    .weigher((SearchKey key, KnowledgeBaseSearchPage value) -> estimateBytes(key, value.articles()));
+        } else {
+            builder.maximumSize(cacheConfig.maxEntries());
+        }
+        this.cache = builder.buildAsync();
+        CaffeineCacheMetrics.monitor(metrics.registry(), cache, "kb.search");
+        sharedCache.onEviction(REGION, id -> cache.synchronous().invalidate(SearchKey.parse(id)));
+    }
+
+    /**
+     * Returns the cached page of results for the search, invoking the loader on a miss.
+     * Concurrent misses for the same key wait for the first loader instead of loading again.
+     * Whether the page was cached is recorded on the current span.
+     * Searches made with a {@link CallerToken} bypass the cache, as their results may differ by entitlement.
+     */
+    public KnowledgeBaseSearchPage get(String query, int rows, int start, String product, String documentKind,
+                                       Supplier<KnowledgeBaseSearchPage> loader) {
+        if (!enabled || CallerToken.isPresent()) {
+            return loader.get();
+        }
+
+        SearchKey key = SearchKey.of(query, rows, start, product, documentKind);
+        CompletableFuture<KnowledgeBaseSearchPage> pending = new CompletableFuture<>();
+        CompletableFuture<KnowledgeBaseSearchPage> cached = cache.get(key, (k, executor) -> pending);
+        if (cached != pending) {
+            KnowledgeBaseTracing.recordCache(KnowledgeBaseTracing.CACHE_HIT);
+            return join(cached);
+        }
+
+        // The loader runs on the caller thread, outside of any cache lock
+        try {
+            pending.complete(loadShared(key, loader));
+        } catch (Throwable e) {
+            // Errors too, or the callers waiting on this entry would never return.
+            // Failed futures are removed by Caffeine, so the next call retries the upstream
+            pending.completeExceptionally(e);
+            throw e;
+        }
+        return join(pending);
+    }
+
+    /**
+     * Stores a freshly fetched page, replacing any cached entry and restarting its TTL.
+     */
+    public void put(String query, int rows, String product, String documentKind, KnowledgeBaseSearchPage page) {
+        if (enabled && !CallerToken.isPresent()) {
+            SearchKey key = SearchKey.of(query, rows, page.start(), product, documentKind);
+            cache.put(key, CompletableFuture.completedFuture(page));
+            sharedCache.replace(REGION, key.id(), page, ttl);
+        }
+    }
+
+    /**
+     * Hit, miss and eviction counters since startup.
+     */
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    /**
+     * Number of entries currently held.
+     */
+    public long size() {
+        return cache.synchronous().estimatedSize();
+    }
+
+    public void invalidateAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    private KnowledgeBaseSearchPage loadShared(SearchKey key, Supplier<KnowledgeBaseSearchPage> loader) {
+        if (!sharedCache.isEnabled()) {
+            KnowledgeBaseTracing.recordCache(KnowledgeBaseTracing.CACHE_MISS);
+            return loader.get();
+        }
+        String id = key.id();
+        Optional<KnowledgeBaseSearchPage> shared = sharedCache.get(REGION, id, KnowledgeBaseSearchPage.class);
+        if (shared.isPresent()) {
+            KnowledgeBaseTracing.recordCache(KnowledgeBaseTracing.CACHE_SHARED);
+            return shared.get();
+        }
+        KnowledgeBaseTracing.recordCache(KnowledgeBaseTracing.CACHE_MISS);
+        KnowledgeBaseSearchPage page = loader.get();
+        sharedCache.put(REGION, id, page, ttl);
+        return page;
+    }
+
+    /**
+     * Query as compared by the cache: whitespace collapsed and terms lowercased, as Hydra analyzes free text
+     * case-insensitively. Upper-case AND, OR and NOT are kept, since in lower case they are plain terms.
+     */
+    public static String normalizeQuery(String query) {
+        String[] words = SearchKey.collapse(query).split(" ");
+        for (int i = 0; i < words.length; i++) {
+            if (!OPERATORS.contains(words[i])) {
+                words[i] = words[i].toLowerCase(Locale.ROOT);
+            }
+        }
+        return String.join(" ", words);
+    }
+
+    private static KnowledgeBaseSearchPage join(CompletableFuture<KnowledgeBaseSearchPage> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Rough UTF-16 footprint of the cached strings, used as the entry weight.
+     */
+    private static int estimateBytes(SearchKey key, List<KnowledgeBaseArticleDto> articles) {
+        long chars = key.query().length() + key.product().length() + key.documentKind().length();
+        for (KnowledgeBaseArticleDto article : articles) {
+            chars += length(article.id()) + length(article.title()) + length(article.abstractText())
+                    + length(article.documentKind()) + length(article.viewUri())
+                    + length(article.lastModifiedDate());
+            if (article.product() != null) {
+                for (String product : article.product()) {
+                    chars += length(product);
+                }
+            }
+        }
+        return (int) Math.min(Integer.MAX_VALUE, chars * 2);
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    /**
+     * Normalized cache key. Queries are compared as normalized by {@link #normalizeQuery(String)}.
+     * Filters are exact-match fields upstream, so they are only trimmed.
+     */
+    record SearchKey(String query, int rows, int start, String product, String documentKind) {
+
+        private static final char SEPARATOR = '\u001f';
+
+        static SearchKey of(String query, int rows, int start, String product, String documentKind) {
+            return new SearchKey(normalizeQuery(query), rows, start, collapse(product),
+                    collapse(documentKind));
+        }
+
+        /**
+         * Single-string form, used as the shared cache key.
+         */
+        String id() {
+            return query + SEPARATOR + rows + SEPARATOR + start + SEPARATOR + product + SEPARATOR + documentKind;
+        }
+
+        static SearchKey parse(String id) {
+            String[] parts = id.split(String.valueOf(SEPARATOR), -1);
+            return new SearchKey(parts[0], Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), parts[3], parts[4]);
+        }
+
+        private static String collapse(String value) {
+            if (value == null || value.isBlank()) {
+                return "";
+            }
+            return value.trim().replaceAll("\\s+", " ");
+        }
+    }
+}
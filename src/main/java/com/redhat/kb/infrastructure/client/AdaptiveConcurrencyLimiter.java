@@ -0,0 +1,243 @@
+package com.redhat.kb.infrastructure.client;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * AIMD limit on concurrent upstream requests.
+ * <p>
+ * Each success that used a good share of the limit raises it by {@code 1/limit} (about one per round trip);
+ * slow responses, timeouts and 5xx shrink it by 10%, and a 429, or a 503 with Retry-After, halves it.
+ * After such a response no request is let through until its Retry-After has passed.
+ * <p>
+ * Callers over the limit wait in a bounded FIFO queue for up to max-wait; when the queue is full they are
+ * rejected immediately. Each waiter has its own condition and only the head of the queue is woken, so a freed
+ * slot goes to the longest waiting caller, and new callers never take a slot while others are queued.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    private static final double CONGESTION_BACKOFF = 0.9;
+    private static final double RATE_LIMIT_BACKOFF = 0.5;
+
+    enum Outcome {
+        SUCCESS,
+        /** Timeout, I/O error or 5xx: the upstream is struggling. */
+        CONGESTION,
+        /** 429, or 503 with Retry-After. */
+        RATE_LIMITED,
+        /** Client-side errors that say nothing about upstream load. */
+        IGNORED
+    }
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+    private final long slowNanos;
+    private final MeterRegistry registry;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ArrayDeque<Condition> waiters = new ArrayDeque<>();
+
+    private double limit;
+    private int inFlight;
+    private long blockedUntilNanos;
+    private boolean blocked;
+
+    AdaptiveConcurrencyLimiter(RedHatApiConfig.Limiter config, MeterRegistry registry) {
+        this.enabled = config.enabled();
+        this.minLimit = Math.max(1, config.minLimit());
+        this.maxLimit = Math.max(minLimit, config.maxLimit());
+        this.maxQueue = config.maxQueue();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(config.maxWaitMillis());
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(config.slowResponseMillis());
+        this.limit = Math.min(maxLimit, Math.max(minLimit, config.initialLimit()));
+        this.registry = registry;
+
+        Gauge.builder("kb.upstream.limit", this, AdaptiveConcurrencyLimiter::limit)
+                .description("Current adaptive limit on concurrent Hydra requests")
+                .register(registry);
+        Gauge.builder("kb.upstream.inflight", this, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Hydra requests in flight")
+                .register(registry);
+        Gauge.builder("kb.upstream.queued", this, AdaptiveConcurrencyLimiter::queued)
+                .description("Callers waiting for a Hydra request slot")
+                .register(registry);
+    }
+
+    /**
+     * Waits for a request slot.
+     *
+     * @throws UpstreamOverloadedException if the queue is full, the wait exceeds max-wait,
+     *                                     or Hydra asked us to back off for longer than max-wait
+     */
+    void acquire() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            if (waiters.isEmpty() && canProceed(now)) {
+                inFlight++;
+                return;
+            }
+            if (waiters.size() >= maxQueue) {
+                throw reject("queue_full", "Red Hat Knowledge Base request queue is full ("
+                        + waiters.size() + " waiting), retry shortly");
+            }
+            long blockedFor = blockedRemaining(now);
+            if (blockedFor > maxWaitNanos) {
+                throw reject("rate_limited", "Red Hat Knowledge Base is rate limiting requests, retry in "
+                        + seconds(blockedFor) + " s");
+            }
+
+            Condition turn = lock.newCondition();
+            waiters.addLast(turn);
+            try {
+                long deadline = now + maxWaitNanos;
+                while (true) {
+                    now = System.nanoTime();
+                    if (waiters.peekFirst() == turn && canProceed(now)) {
+                        inFlight++;
+                        return;
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        throw reject("timeout", "Timed out after " + seconds(maxWaitNanos)
+                                + " s waiting for a Red Hat Knowledge Base request slot, retry shortly");
+                    }
+                    blockedFor = blockedRemaining(now);
+                    turn.awaitNanos(blockedFor > 0 ? Math.min(blockedFor, remaining) : remaining);
+                }
+            } finally {
+                boolean head = waiters.peekFirst() == turn;
+                waiters.remove(turn);
+                if (head) {
+                    // The next waiter may fit as well
+                    signalHead();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a slot taken by {@link #acquire()} and adjusts the limit from the outcome.
+     */
+    void release(Outcome outcome, long latencyNanos) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            inFlight--;
+            if (outcome == Outcome.SUCCESS && latencyNanos > slowNanos) {
+                outcome = Outcome.CONGESTION;
+            }
+            switch (outcome) {
+                case SUCCESS -> {
+                    // Only grow while the limit is actually being used
+                    if (inFlight + 1 >= limit / 2) {
+                        limit = Math.min(maxLimit, limit + 1.0 / limit);
+                    }
+                }
+                case CONGESTION -> limit = Math.max(minLimit, limit * CONGESTION_BACKOFF);
+                case RATE_LIMITED -> limit = Math.max(minLimit, limit * RATE_LIMIT_BACKOFF);
+                case IGNORED -> {
+                    // Limit unchanged
+                }
+            }
+            signalHead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Holds back all requests until the delay has passed.
+     */
+    void backOff(Duration delay) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            long until = System.nanoTime() + delay.toNanos();
+            if (!blocked || until - blockedUntilNanos > 0) {
+                blockedUntilNanos = until;
+                blocked = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int queued() {
+        lock.lock();
+        try {
+            return waiters.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void signalHead() {
+        Condition head = waiters.peekFirst();
+        if (head != null) {
+            head.signal();
+        }
+    }
+
+    private boolean canProceed(long now) {
+        return blockedRemaining(now) <= 0 && inFlight < (int) limit;
+    }
+
+    private long blockedRemaining(long now) {
+        if (!blocked) {
+            return 0;
+        }
+        long remaining = blockedUntilNanos - now;
+        if (remaining <= 0) {
+            blocked = false;
+            return 0;
+        }
+        return remaining;
+    }
+
+    private UpstreamOverloadedException reject(String reason, String message) {
+        registry.counter("kb.upstream.rejected", "reason", reason).increment();
+        return new UpstreamOverloadedException(message);
+    }
+
+    static long seconds(long nanos) {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(nanos + 999_999_999L));
+    }
+}
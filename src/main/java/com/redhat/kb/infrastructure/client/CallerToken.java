@@ -0,0 +1,82 @@
+package com.redhat.kb.infrastructure.client;
+
+import java.util.function.Supplier;
+
+/**
+ * Red Hat token supplied by the caller of the current tool invocation, used instead of the configured token.
+ * <p>
+ * The token is bound to the invoking thread. Work handed to another thread must be wrapped with
+ * {@link #propagate(Supplier)} at submission so it runs with the submitter's token; unwrapped tasks,
+ * such as scheduled background jobs, use the configured token.
+ * <p>
+ * Content fetched with one token must never reach a caller with another, who may lack the entitlement or
+ * hold no valid token at all. While a token is bound, the caches, the article store, the shared cache and
+ * the local index are bypassed, and concurrent identical requests are only coalesced with the same token.
+ */
+public final class CallerToken {
+
+    private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+    private CallerToken() {
+    }
+
+    /**
+     * Runs the body with the given token bound, or with none when it is null or blank.
+     */
+    public static <T> T callWith(String token, Supplier<T> body) {
+        String previous = CURRENT.get();
+        set(token == null || token.isBlank() ? null : token.trim());
+        try {
+            return body.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    /**
+     * Token bound to the current thread, or null to use the configured token.
+     */
+    public static String current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Whether a caller token is bound, so that content shared between tokens must not be used.
+     */
+    public static boolean isPresent() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Wraps the body to run with the token bound at the time of this call.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> body) {
+        String token = CURRENT.get();
+        if (token == null) {
+            return body;
+        }
+        return () -> callWith(token, body);
+    }
+
+    /**
+     * Like {@link #propagate(Supplier)}, for tasks without a result.
+     */
+    public static Runnable propagate(Runnable task) {
+        String token = CURRENT.get();
+        if (token == null) {
+            return task;
+        }
+        return () -> callWith(token, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private static void set(String token) {
+        if (token == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(token);
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.redhat.kb.infrastructure.client;
+
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+
+import org.jboss.logging.Logger;
+
+/**
+ * Count-based circuit breaker for one upstream.
+ * <p>
+ * Opens when at least minimum-calls of the last window-size attempts were recorded and the share of failures
+ * reaches the threshold. While open, {@link #acquire()} refuses calls for open-seconds; then a single probe is
+ * let through (half-open), which closes the circuit on success and reopens it on failure.
+ */
+final class CircuitBreaker {
+
+    private static final Logger LOG = Logger.getLogger(CircuitBreaker.class);
+
+    // Suggested wait for callers refused while the half-open probe is running
+    private static final long PROBE_WAIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    enum State {
+        CLOSED,
+        HALF_OPEN,
+        OPEN
+    }
+
+    private final String upstream;
+    private final boolean enabled;
+    private final boolean[] failures;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int recorded;
+    private int next;
+    private int failed;
+    private long openedAt;
+    private boolean probing;
+
+    CircuitBreaker(String upstream, RedHatApiConfig.CircuitBreaker config) {
+        this.upstream = upstream;
+        this.enabled = config.enabled();
+        this.failures = new boolean[Math.max(1, config.windowSize())];
+        this.minimumCalls = Math.max(1, Math.min(failures.length, config.minimumCalls()));
+        this.failureRateThreshold = config.failureRateThreshold();
+        this.openNanos = TimeUnit.SECONDS.toNanos(config.openSeconds());
+    }
+
+    /**
+     * Asks to make an attempt. Every granted attempt must be followed by exactly one of
+     * {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+     *
+     * @return 0 if the attempt may proceed, otherwise the nanoseconds after which to try again
+     */
+    synchronized long acquire() {
+        if (!enabled) {
+            return 0;
+        }
+        switch (state) {
+            case CLOSED -> {
+                return 0;
+            }
+            case OPEN -> {
+                long remaining = openNanos - (System.nanoTime() - openedAt);
+                if (remaining > 0) {
+                    return remaining;
+                }
+                state = State.HALF_OPEN;
+                probing = true;
+                return 0;
+            }
+            default -> {
+                if (probing) {
+                    return PROBE_WAIT_NANOS;
+                }
+                probing = true;
+                return 0;
+            }
+        }
+    }
+
+    synchronized void onSuccess() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            LOG.infof("%s recovered, closing circuit", upstream);
+            reset();
+            state = State.CLOSED;
+            return;
+        }
+        record(false);
+    }
+
+    synchronized void onFailure() {
+        if (!enabled) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && recorded >= minimumCalls
+                && (double) failed / recorded >= failureRateThreshold) {
+            LOG.warnf("%s failed %d of the last %d attempts, opening circuit for %d s",
+                    upstream, failed, recorded, TimeUnit.NANOSECONDS.toSeconds(openNanos));
+            open();
+        }
+    }
+
+    /**
+     * Outcome that says nothing about upstream health (4xx, rate limiting, cancellation).
+     * Frees the half-open probe slot so another call can probe.
+     */
+    synchronized void onIgnored() {
+        if (state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    private void record(boolean failure) {
+        if (recorded == failures.length) {
+            if (failures[next]) {
+                failed--;
+            }
+        } else {
+            recorded++;
+        }
+        failures[next] = failure;
+        if (failure) {
+            failed++;
+        }
+        next = (next + 1) % failures.length;
+    }
+
+    private void open() {
+        reset();
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+    }
+
+    private void reset() {
+        recorded = 0;
+        next = 0;
+        failed = 0;
+        probing = false;
+    }
+}
@@ -0,0 +1,81 @@
+package com.redhat.kb.infrastructure.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchResponseDto;
+
+/**
+ * Streaming reader for Hydra search responses.
+ * Walks the token stream and binds only {@code response.numFound} and the {@code response.docs} array,
+ * skipping everything else (responseHeader, highlighting, facets) without materializing it.
+ */
+public final class HydraResponseReader {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader articleReader;
+
+    public HydraResponseReader(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.articleReader = objectMapper.readerFor(KnowledgeBaseArticleDto.class);
+    }
+
+    /**
+     * Reads a response body. The returned docs list is never null.
+     */
+    public KnowledgeBaseSearchResponseDto.Response read(InputStream body) throws IOException {
+        KnowledgeBaseSearchResponseDto.Response result = new KnowledgeBaseSearchResponseDto.Response();
+        result.setDocs(List.of());
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object from Hydra");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("response".equals(field) && value == JsonToken.START_OBJECT) {
+                    readResponse(parser, result);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return result;
+    }
+
+    private void readResponse(JsonParser parser, KnowledgeBaseSearchResponseDto.Response result) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("numFound".equals(field)) {
+                result.setNumFound(parser.getValueAsInt());
+            } else if ("docs".equals(field) && value == JsonToken.START_ARRAY) {
+                result.setDocs(readDocs(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private List<KnowledgeBaseArticleDto> readDocs(JsonParser parser) throws IOException {
+        List<KnowledgeBaseArticleDto> docs = new ArrayList<>();
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                docs.add(articleReader.readValue(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return docs;
+    }
+}
@@ -1,20 +1,32 @@
 package com.redhat.kb.infrastructure.client;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Optional;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.kb.infrastructure.config.RedHatApiConfig;
 import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchPage;
 import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchResponseDto;
+import com.redhat.kb.infrastructure.index.LocalSearchIndex;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.redhat.kb.infrastructure.tracing.KnowledgeBaseTracing;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.opentelemetry.api.trace.Span;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.core.HttpHeaders;
@@ -28,106 +40,319 @@ import jakarta.ws.rs.core.Response;
 public class KnowledgeBaseClient {
 
     private static final String BEARER_PREFIX = "Bearer ";
-    private static final String HYDRA_BASE_URL = "https://access.redhat.com/hydra/rest/search/kcs";
 
     private static final String SEARCH_FIELDS = "id,title,abstract,documentKind,view_uri,product,lastModifiedDate";
     private static final String DETAIL_FIELDS = "id,title,abstract,documentKind,view_uri,product,issue," +
             "solution_environment,solution_rootcause,solution_resolution,solution_diagnosticsteps," +
             "lastModifiedDate,createdDate";
+    private static final String PROBE_FIELDS = "id,lastModifiedDate";
+
+    // Upper bound on how much of an error body is quoted in exception messages
+    private static final int MAX_ERROR_BODY_BYTES = 2048;
+
+    // Back-off after throttling without a usable Retry-After, and the most we honor
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_AFTER = Duration.ofMinutes(5);
 
     private final RedHatApiConfig config;
+    private final String searchUrl;
     private final RedHatAuthClient authClient;
-    private final ObjectMapper objectMapper;
-    private final HttpClient httpClient;
+    private final HydraResponseReader responseReader;
+    private final UpstreamHttpClient httpClient;
+    private final KnowledgeBaseMetrics metrics;
+    private final KnowledgeBaseTracing tracing;
+    private final LocalSearchIndex localIndex;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final UpstreamResilience resilience;
+    private final SingleFlight<String, KnowledgeBaseSearchPage> searchFlight = new SingleFlight<>();
+    private final SingleFlight<String, Optional<KnowledgeBaseArticleDto>> solutionFlight = new SingleFlight<>();
 
     @Inject
-    public KnowledgeBaseClient(RedHatApiConfig config, RedHatAuthClient authClient, ObjectMapper objectMapper) {
+    public KnowledgeBaseClient(RedHatApiConfig config, RedHatAuthClient authClient, UpstreamHttpClient httpClient,
+                               ObjectMapper objectMapper, KnowledgeBaseMetrics metrics, KnowledgeBaseTracing tracing,
+                               LocalSearchIndex localIndex) {
         this.config = config;
+        this.searchUrl = config.hydra().searchUrl();
         this.authClient = authClient;
-        this.objectMapper = objectMapper;
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(config.timeouts().connectSeconds()))
-                .build();
+        this.responseReader = new HydraResponseReader(objectMapper);
+        this.metrics = metrics;
+        this.tracing = tracing;
+        this.httpClient = httpClient;
+        this.localIndex = localIndex;
+        this.limiter = new AdaptiveConcurrencyLimiter(config.limiter(), metrics.registry());
+        this.resilience = new UpstreamResilience("hydra", "Red Hat Knowledge Base", config.resilience(), true,
+                metrics.registry());
+        FunctionCounter.builder("kb.upstream.coalesced", this, KnowledgeBaseClient::coalescedRequests)
+                .description("Calls served by joining an identical in-flight Hydra request")
+                .register(metrics.registry());
     }
 
     /**
      * Searches articles in Red Hat Knowledge Base.
+     * Concurrent identical searches share a single upstream call.
      */
     public List<KnowledgeBaseArticleDto> search(String query, int maxResults, String product, String documentType) {
-        try {
-            String token = authClient.getAccessToken();
-
-            StringBuilder urlBuilder = new StringBuilder(HYDRA_BASE_URL);
-            urlBuilder.append("?q=").append(URLEncoder.encode(query, StandardCharsets.UTF_8));
-            urlBuilder.append("&rows=").append(maxResults > 0 ? maxResults : 10);
-            urlBuilder.append("&fl=").append(SEARCH_FIELDS);
+        return searchPage(query, maxResults, 0, product, documentType).articles();
+    }
 
-            if (product != null && !product.isBlank()) {
-                urlBuilder.append("&fq=product:").append(URLEncoder.encode("\"" + product + "\"", StandardCharsets.UTF_8));
-            }
+    /**
+     * Gets one page of search results, starting at the given offset, with the total number of matches.
+     * Concurrent identical requests share a single upstream call.
+     */
+    public KnowledgeBaseSearchPage searchPage(String query, int rows, int start, String product,
+                                              String documentType) {
+        StringBuilder urlBuilder = new StringBuilder(searchUrl);
+        urlBuilder.append("?q=").append(URLEncoder.encode(query, StandardCharsets.UTF_8));
+        urlBuilder.append("&rows=").append(rows > 0 ? rows : 10);
+        if (start > 0) {
+            urlBuilder.append("&start=").append(start);
+        }
+        urlBuilder.append("&fl=").append(SEARCH_FIELDS);
 
-            if (documentType != null && !documentType.isBlank()) {
-                urlBuilder.append("&fq=documentKind:").append(URLEncoder.encode("\"" + documentType + "\"", StandardCharsets.UTF_8));
-            }
+        if (product != null && !product.isBlank()) {
+            urlBuilder.append("&fq=product:").append(URLEncoder.encode("\"" + product + "\"", StandardCharsets.UTF_8));
+        }
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(urlBuilder.toString()))
-                    .header(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + token)
-                    .GET()
-                    .timeout(Duration.ofSeconds(config.timeouts().requestSeconds()))
-                    .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-
-            if (response.statusCode() == Response.Status.OK.getStatusCode()) {
-                KnowledgeBaseSearchResponseDto searchResponse =
-                    objectMapper.readValue(response.body(), KnowledgeBaseSearchResponseDto.class);
-                return searchResponse.getResponse() != null
-                    ? searchResponse.getResponse().getDocs()
-                    : List.of();
-            } else {
-                throw new RuntimeException("Error searching Knowledge Base: " + response.statusCode() + " - " + response.body());
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Error connecting to Hydra API", e);
+        if (documentType != null && !documentType.isBlank()) {
+            urlBuilder.append("&fq=documentKind:").append(URLEncoder.encode("\"" + documentType + "\"", StandardCharsets.UTF_8));
         }
+
+        String url = urlBuilder.toString();
+        return searchFlight.execute(flightKey(url), () -> executeSearch(url, Math.max(0, start)));
+    }
+
+    private KnowledgeBaseSearchPage executeSearch(String url, int start) {
+        KnowledgeBaseSearchResponseDto.Response response =
+            query(url, KnowledgeBaseMetrics.ENDPOINT_SEARCH, "Error searching Knowledge Base");
+        // numFound is an estimate on sharded indexes; never report fewer matches than were returned
+        int numFound = Math.max(response.getNumFound(), start + response.getDocs().size());
+        KnowledgeBaseSearchPage page = new KnowledgeBaseSearchPage(response.getDocs(), start, numFound);
+        metrics.recordArticles(KnowledgeBaseMetrics.ENDPOINT_SEARCH, page.articles());
+        index(page.articles());
+        return page;
+    }
+
+    /**
+     * Gets only the ID and last modification date of a solution.
+     * Used as a cheap probe to decide whether cached details are still current.
+     */
+    public Optional<KnowledgeBaseArticleDto> probeSolution(String solutionId) {
+        String url = searchUrl +
+            "?q=" + URLEncoder.encode("id:" + solutionId, StandardCharsets.UTF_8) +
+            "&rows=1" +
+            "&fl=" + PROBE_FIELDS;
+
+        KnowledgeBaseSearchResponseDto.Response response =
+            query(url, KnowledgeBaseMetrics.ENDPOINT_PROBE, "Error probing solution");
+        return response.getDocs().stream().findFirst();
     }
 
     /**
      * Gets the full details of a solution by its ID.
+     * Concurrent requests for the same ID share a single upstream call.
      */
     public Optional<KnowledgeBaseArticleDto> getSolution(String solutionId) {
-        try {
-            String token = authClient.getAccessToken();
+        String url = searchUrl +
+            "?q=" + URLEncoder.encode("id:" + solutionId, StandardCharsets.UTF_8) +
+            "&fl=" + DETAIL_FIELDS;
+
+        return solutionFlight.execute(flightKey(url), () -> executeGetSolution(url));
+    }
+
+    private Optional<KnowledgeBaseArticleDto> executeGetSolution(String url) {
+        KnowledgeBaseSearchResponseDto.Response response =
+            query(url, KnowledgeBaseMetrics.ENDPOINT_DETAIL, "Error getting solution");
+        Optional<KnowledgeBaseArticleDto> article = response.getDocs().stream().findFirst();
+        article.ifPresent(a -> {
+            metrics.recordArticles(KnowledgeBaseMetrics.ENDPOINT_DETAIL, List.of(a));
+            index(List.of(a));
+        });
+        return article;
+    }
 
-            String url = HYDRA_BASE_URL +
-                "?q=" + URLEncoder.encode("id:" + solutionId, StandardCharsets.UTF_8) +
-                "&fl=" + DETAIL_FIELDS;
+    /**
+     * Gets the full details of several solutions with a single {@code id:(a OR b ...)} query.
+     * IDs must already be validated; articles are returned in Hydra's order and missing IDs are simply absent.
+     */
+    public List<KnowledgeBaseArticleDto> getSolutions(List<String> solutionIds) {
+        if (solutionIds.isEmpty()) {
+            return List.of();
+        }
 
-            HttpRequest request = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + token)
-                    .GET()
-                    .timeout(Duration.ofSeconds(config.timeouts().requestSeconds()))
-                    .build();
+        String url = searchUrl +
+            "?q=" + URLEncoder.encode("id:(" + String.join(" OR ", solutionIds) + ")", StandardCharsets.UTF_8) +
+            "&rows=" + solutionIds.size() +
+            "&fl=" + DETAIL_FIELDS;
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        KnowledgeBaseSearchResponseDto.Response response =
+            query(url, KnowledgeBaseMetrics.ENDPOINT_BATCH, "Error getting solutions");
+        List<KnowledgeBaseArticleDto> docs = List.copyOf(response.getDocs());
+        metrics.recordArticles(KnowledgeBaseMetrics.ENDPOINT_BATCH, docs);
+        index(docs);
+        return docs;
+    }
 
-            if (response.statusCode() == Response.Status.OK.getStatusCode()) {
-                KnowledgeBaseSearchResponseDto searchResponse =
-                    objectMapper.readValue(response.body(), KnowledgeBaseSearchResponseDto.class);
+    /**
+     * Single-flight key of a request: identical requests are only joined when made with the same token.
+     */
+    private static String flightKey(String url) {
+        String callerToken = CallerToken.current();
+        return callerToken != null ? url + '\n' + callerToken : url;
+    }
 
-                if (searchResponse.getResponse() != null &&
-                    searchResponse.getResponse().getDocs() != null &&
-                    !searchResponse.getResponse().getDocs().isEmpty()) {
-                    return Optional.of(searchResponse.getResponse().getDocs().get(0));
+    /**
+     * Adds articles to the local index, which answers every caller, unless fetched with a caller's token.
+     */
+    private void index(List<KnowledgeBaseArticleDto> articles) {
+        if (!CallerToken.isPresent()) {
+            localIndex.addAll(articles);
+        }
+    }
+
+    /**
+     * Runs a Hydra query, retried, hedged and circuit-broken by {@link UpstreamResilience}.
+     * The total time spent retrying is bounded by the request timeout.
+     * {@link UpstreamOverloadedException} (rate limiting, full queue, open circuit) and
+     * {@link UpstreamAuthenticationException} are not wrapped.
+     * The access token is obtained once, before the first attempt: hedged attempts run on other threads, and
+     * an SSO failure propagates as is rather than being retried or counted by the Hydra circuit breaker.
+     */
+    private KnowledgeBaseSearchResponseDto.Response query(String url, String endpoint, String errorMessage) {
+        boolean callerToken = CallerToken.isPresent();
+        String token = authClient.getAccessToken(CallerToken.current());
+        try {
+            return resilience.execute(endpoint, () -> attempt(url, endpoint, errorMessage, token, callerToken),
+                    Duration.ofSeconds(config.timeouts().requestSeconds()));
+        } catch (UpstreamOverloadedException | UpstreamAuthenticationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new RuntimeException("Error connecting to Hydra API", e);
+        }
+    }
+
+    /**
+     * Makes one request and streams the response body straight into the JSON parser,
+     * binding only {@code response.numFound} and {@code response.docs}.
+     * Latency, status and body size are recorded once the body has been consumed, in metrics and in a client span.
+     * <p>
+     * Requests go through the adaptive concurrency limiter. A 429, or a 503 with Retry-After, pauses all requests
+     * for the Retry-After period and fails with {@link UpstreamOverloadedException}. A 503 without Retry-After is
+     * an outage rather than throttling, and is retried and counted by the circuit breaker like any other 5xx.
+     * With a caller token the throttling may apply to that caller's account only, so just this request fails
+     * and the limiter is left alone.
+     */
+    private KnowledgeBaseSearchResponseDto.Response attempt(String url, String endpoint, String errorMessage,
+                                                            String token, boolean callerToken) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(url))
+                .header(HttpHeaders.AUTHORIZATION, BEARER_PREFIX + token)
+                .GET()
+                .timeout(Duration.ofSeconds(config.timeouts().requestSeconds()))
+                .build();
+
+        limiter.acquire();
+        long start = System.nanoTime();
+        AdaptiveConcurrencyLimiter.Outcome outcome = AdaptiveConcurrencyLimiter.Outcome.CONGESTION;
+        Span span = tracing.startUpstream(endpoint, request);
+        try {
+            HttpResponse<InputStream> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofInputStream());
+            } catch (InterruptedException e) {
+                // A cancelled hedge or shutdown, not a sign of upstream load
+                outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+                metrics.recordUpstream(endpoint, KnowledgeBaseMetrics.STATUS_CANCELLED,
+                        System.nanoTime() - start, -1);
+                throw e;
+            } catch (IOException e) {
+                metrics.recordUpstream(endpoint, KnowledgeBaseMetrics.STATUS_IO_ERROR,
+                        System.nanoTime() - start, -1);
+                throw e;
+            }
+
+            int status = response.statusCode();
+            try (CountingInputStream body = new CountingInputStream(response.body())) {
+                try {
+                    if (status == Response.Status.TOO_MANY_REQUESTS.getStatusCode()
+                            || (status == Response.Status.SERVICE_UNAVAILABLE.getStatusCode()
+                            && response.headers().firstValue(HttpHeaders.RETRY_AFTER).isPresent())) {
+                        Duration retryAfter = retryAfter(response);
+                        if (callerToken) {
+                            outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+                        } else {
+                            outcome = AdaptiveConcurrencyLimiter.Outcome.RATE_LIMITED;
+                            limiter.backOff(retryAfter);
+                        }
+                        throw new UpstreamOverloadedException("Red Hat Knowledge Base is rate limiting requests ("
+                                + status + "), retry in " + AdaptiveConcurrencyLimiter.seconds(retryAfter.toNanos())
+                                + " s");
+                    }
+                    if (status == Response.Status.UNAUTHORIZED.getStatusCode()
+                            || status == Response.Status.FORBIDDEN.getStatusCode()) {
+                        outcome = AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+                        throw new UpstreamAuthenticationException(errorMessage + ": " + status
+                                + " - the Red Hat token was rejected");
+                    }
+                    if (status != Response.Status.OK.getStatusCode()) {
+                        outcome = status >= 500
+                                ? AdaptiveConcurrencyLimiter.Outcome.CONGESTION
+                                : AdaptiveConcurrencyLimiter.Outcome.IGNORED;
+                        String detail = new String(body.readNBytes(MAX_ERROR_BODY_BYTES), StandardCharsets.UTF_8);
+                        throw new UpstreamStatusException(status, errorMessage + ": " + status + " - " + detail);
+                    }
+                    KnowledgeBaseSearchResponseDto.Response parsed =
+                            metrics.timeParse(endpoint, () -> responseReader.read(body));
+                    outcome = AdaptiveConcurrencyLimiter.Outcome.SUCCESS;
+                    return parsed;
+                } finally {
+                    metrics.recordUpstream(endpoint, status, System.nanoTime() - start, body.count());
+                    KnowledgeBaseTracing.recordResponse(span, status, body.count());
                 }
-                return Optional.empty();
-            } else {
-                throw new RuntimeException("Error getting solution: " + response.statusCode());
             }
         } catch (Exception e) {
-            throw new RuntimeException("Error connecting to Hydra API", e);
+            KnowledgeBaseTracing.recordFailure(span, e);
+            throw e;
+        } finally {
+            span.end();
+            limiter.release(outcome, System.nanoTime() - start);
         }
     }
+
+    /**
+     * Parses Retry-After as delta-seconds or an HTTP date, capped at {@link #MAX_RETRY_AFTER}.
+     */
+    private static Duration retryAfter(HttpResponse<?> response) {
+        Optional<String> header = response.headers().firstValue(HttpHeaders.RETRY_AFTER);
+        if (header.isEmpty()) {
+            return DEFAULT_RETRY_AFTER;
+        }
+        String value = header.get().trim();
+        Duration delay;
+        try {
+            delay = Duration.ofSeconds(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            try {
+                delay = Duration.between(Instant.now(),
+                        ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant());
+            } catch (DateTimeParseException invalid) {
+                return DEFAULT_RETRY_AFTER;
+            }
+        }
+        if (delay.isNegative()) {
+            return Duration.ZERO;
+        }
+        return delay.compareTo(MAX_RETRY_AFTER) > 0 ? MAX_RETRY_AFTER : delay;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        resilience.close();
+    }
+
+    /**
+     * Number of calls that were served by joining an identical in-flight upstream request.
+     */
+    public long coalescedRequests() {
+        return searchFlight.coalescedCount() + solutionFlight.coalescedCount();
+    }
 }
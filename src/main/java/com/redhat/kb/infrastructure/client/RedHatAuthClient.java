@@ -1,55 +1,119 @@
 package com.redhat.kb.infrastructure.client;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.http.HttpClient;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.Base64;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.redhat.kb.infrastructure.tracing.KnowledgeBaseTracing;
+import io.micrometer.core.instrument.Gauge;
+import io.opentelemetry.api.trace.Span;
 
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
 
 /**
  * Client for Red Hat authentication.
  * Supports direct JWT tokens and SSO offline tokens.
+ * <p>
+ * Each credential has its own {@link TokenState}: the configured token, plus one per token supplied by callers
+ * (see {@link CallerToken}), kept in a bounded map keyed by the token's SHA-256 hash and evicted when idle.
+ * A state holds an immutable {@link AccessToken} swapped atomically.
+ * Once a token enters its renewal window it keeps being served while a single background refresh
+ * runs, so request threads only wait for SSO when there is no usable token at all.
+ * Refreshes of different credentials run independently.
  */
 @ApplicationScoped
 public class RedHatAuthClient {
 
+    private static final Logger LOG = Logger.getLogger(RedHatAuthClient.class);
+
+    // Margin for clock skew between this host and Red Hat SSO
+    private static final int EXPIRY_SKEW_SECONDS = 5;
+
     private final RedHatApiConfig config;
     private final ObjectMapper objectMapper;
-    private final HttpClient httpClient;
+    private final UpstreamHttpClient httpClient;
+    private final KnowledgeBaseMetrics metrics;
+    private final KnowledgeBaseTracing tracing;
+    private final ScheduledExecutorService refreshScheduler;
+    private final ExecutorService refreshExecutor;
+    private final UpstreamResilience resilience;
 
-    private String cachedAccessToken;
-    private Instant tokenExpiry;
-    private Boolean isDirectJwt = null;
+    private final TokenState configuredToken;
+    private final Cache<String, TokenState> callerTokens;
 
     @Inject
-    public RedHatAuthClient(RedHatApiConfig config, ObjectMapper objectMapper) {
+    public RedHatAuthClient(RedHatApiConfig config, UpstreamHttpClient httpClient, ObjectMapper objectMapper,
+                            KnowledgeBaseMetrics metrics, KnowledgeBaseTracing tracing) {
         this.config = config;
         this.objectMapper = objectMapper;
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(config.timeouts().connectSeconds()))
+        this.metrics = metrics;
+        this.tracing = tracing;
+        this.httpClient = httpClient;
+        this.resilience = new UpstreamResilience("sso", "Red Hat SSO", config.resilience(), false,
+                metrics.registry());
+        this.refreshScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redhat-sso-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+        this.configuredToken = new TokenState(null, config.isConfigured() ? config.offlineToken().get() : null);
+        this.callerTokens = Caffeine.newBuilder()
+                .maximumSize(config.callerTokens().maxTokens())
+                .expireAfterAccess(Duration.ofSeconds(config.callerTokens().idleSeconds()))
                 .build();
+
+        Gauge.builder("kb.auth.caller.tokens", callerTokens, Cache::estimatedSize)
+                .description("Caller-supplied Red Hat tokens with a cached access token")
+                .register(metrics.registry());
     }
 
     /**
-     * Gets a valid access token.
+     * Gets a valid access token for the given caller token, or for the configured token when it is null.
+     * Never blocks while the current token is still valid; a token inside its renewal window
+     * is returned immediately and refreshed in the background.
      */
-    public String getAccessToken() {
-        if (cachedAccessToken != null && tokenExpiry != null && Instant.now().isBefore(tokenExpiry)) {
-            return cachedAccessToken;
-        }
-        return refreshAccessToken();
+    public String getAccessToken(String callerToken) {
+        TokenState state = callerToken != null
+                ? callerTokens.get(hash(callerToken), key -> new TokenState(key, callerToken))
+                : configuredToken;
+        return state.getAccessToken();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refreshScheduler.shutdownNow();
+        refreshExecutor.shutdownNow();
     }
 
     /**
@@ -98,27 +162,23 @@ public class RedHatAuthClient {
     }
 
     /**
-     * Refreshes the access token.
+     * Obtains a new access token, exchanging the offline token with SSO when needed.
+     * Transient SSO failures are retried; the exchange is safe to repeat because the offline token is not rotated.
+     * Only a token SSO rejects fails with {@link UpstreamAuthenticationException}; an SSO outage, an open circuit
+     * or an unreadable response keep their own types, so that callers can still fall back to local copies.
      */
-    private String refreshAccessToken() {
+    private AccessToken refreshAccessToken(String token, boolean directJwt) {
         try {
-            String token = config.offlineToken()
-                    .orElseThrow(() -> new RuntimeException("Token not configured. Set REDHAT_TOKEN."));
-
-            if (isDirectJwt == null) {
-                isDirectJwt = isJwtToken(token);
-            }
-
-            if (isDirectJwt) {
-                cachedAccessToken = token;
-                tokenExpiry = getJwtExpiry(token);
-                return cachedAccessToken;
+            if (directJwt) {
+                // A direct JWT cannot be renewed, so it is served until it expires
+                Instant expiry = getJwtExpiry(token);
+                return new AccessToken(token, expiry, expiry);
             }
 
             String requestBody = String.format(
                     "grant_type=refresh_token&client_id=%s&refresh_token=%s",
-                    config.sso().clientId(),
-                    token
+                    URLEncoder.encode(config.sso().clientId(), StandardCharsets.UTF_8),
+                    URLEncoder.encode(token, StandardCharsets.UTF_8)
             );
 
             HttpRequest request = HttpRequest.newBuilder()
@@ -128,27 +188,79 @@ public class RedHatAuthClient {
                     .timeout(Duration.ofSeconds(config.timeouts().requestSeconds()))
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = resilience.execute(KnowledgeBaseMetrics.ENDPOINT_SSO_TOKEN,
+                    () -> sendTokenRequest(request), Duration.ofSeconds(config.timeouts().requestSeconds()));
 
-            if (response.statusCode() == Response.Status.OK.getStatusCode()) {
-                JsonNode json = objectMapper.readTree(response.body());
+            JsonNode json = objectMapper.readTree(response.body());
 
-                JsonNode accessTokenNode = json.get("access_token");
-                JsonNode expiresInNode = json.get("expires_in");
+            JsonNode accessTokenNode = json.get("access_token");
+            JsonNode expiresInNode = json.get("expires_in");
 
-                if (accessTokenNode == null || expiresInNode == null) {
-                    throw new RuntimeException("Invalid response from Red Hat SSO: missing access_token or expires_in");
-                }
+            if (accessTokenNode == null || expiresInNode == null) {
+                throw new RuntimeException("Invalid response from Red Hat SSO: missing access_token or expires_in");
+            }
 
-                cachedAccessToken = accessTokenNode.asText();
-                int expiresIn = expiresInNode.asInt();
-                tokenExpiry = Instant.now().plusSeconds(expiresIn - config.sso().tokenRenewalBufferSeconds());
-                return cachedAccessToken;
-            } else {
-                throw new RuntimeException("Error getting token from Red Hat SSO: " + response.statusCode() + " - " + response.body());
+            Instant expiresAt = Instant.now().plusSeconds(expiresInNode.asInt() - EXPIRY_SKEW_SECONDS);
+            Instant refreshAt = expiresAt.minusSeconds(config.sso().tokenRenewalBufferSeconds());
+            return new AccessToken(accessTokenNode.asText(), refreshAt, expiresAt);
+        } catch (UpstreamStatusException e) {
+            if (isRejection(e)) {
+                throw new UpstreamAuthenticationException("Red Hat SSO rejected the token: " + e.getMessage(), e);
             }
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error connecting to Red Hat SSO: " + e.getMessage(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while connecting to Red Hat SSO", e);
+        } catch (RuntimeException e) {
+            throw e;
         } catch (Exception e) {
-            throw new RuntimeException("Error authenticating with Red Hat: " + e.getMessage(), e);
+            throw new RuntimeException("Error connecting to Red Hat SSO: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * SSO turns away an unknown, revoked or expired offline token with 400 {@code invalid_grant},
+     * and an unknown client with 401. Any other failure says nothing about the credentials.
+     */
+    private static boolean isRejection(UpstreamStatusException e) {
+        return e.status() == Response.Status.UNAUTHORIZED.getStatusCode()
+                || (e.status() == Response.Status.BAD_REQUEST.getStatusCode()
+                && e.getMessage().contains("invalid_grant"));
+    }
+
+    /**
+     * Sends one token request; any status other than 200 fails with {@link UpstreamStatusException}.
+     * A refresh on a request thread is traced within that request; a background refresh starts its own trace.
+     */
+    private HttpResponse<String> sendTokenRequest(HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        Span span = tracing.startUpstream(KnowledgeBaseMetrics.ENDPOINT_SSO_TOKEN, request);
+        try {
+            HttpResponse<String> response;
+            try {
+                response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (IOException | InterruptedException e) {
+                metrics.recordUpstream(KnowledgeBaseMetrics.ENDPOINT_SSO_TOKEN, KnowledgeBaseMetrics.STATUS_IO_ERROR,
+                        System.nanoTime() - start, -1);
+                throw e;
+            }
+            long responseBytes = response.body() != null ? response.body().length() : 0;
+            metrics.recordUpstream(KnowledgeBaseMetrics.ENDPOINT_SSO_TOKEN, response.statusCode(),
+                    System.nanoTime() - start, responseBytes);
+            KnowledgeBaseTracing.recordResponse(span, response.statusCode(), responseBytes);
+
+            if (response.statusCode() != Response.Status.OK.getStatusCode()) {
+                throw new UpstreamStatusException(response.statusCode(),
+                        "Error getting token from Red Hat SSO: " + response.statusCode() + " - " + response.body());
+            }
+            return response;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            KnowledgeBaseTracing.recordFailure(span, e);
+            throw e;
+        } finally {
+            span.end();
         }
     }
 
@@ -156,6 +268,131 @@ public class RedHatAuthClient {
      * Checks if the service is properly configured.
      */
     public boolean isConfigured() {
-        return config.isConfigured();
+        return CallerToken.current() != null || config.isConfigured();
+    }
+
+    /**
+     * Immutable access token snapshot.
+     *
+     * @param refreshAt start of the renewal window, from which a background refresh is triggered
+     * @param expiresAt instant after which the token is no longer served
+     */
+    private record AccessToken(String value, Instant refreshAt, Instant expiresAt) {
+    }
+
+    /**
+     * Access token and refresh state of one credential.
+     */
+    private final class TokenState {
+
+        // Key in the caller token map, null for the configured token
+        private final String key;
+        private final String credential;
+        private final AtomicReference<AccessToken> currentToken = new AtomicReference<>();
+        private final AtomicReference<CompletableFuture<AccessToken>> inFlightRefresh = new AtomicReference<>();
+        private volatile boolean usedSinceRefresh;
+        private volatile Boolean isDirectJwt = null;
+
+        TokenState(String key, String credential) {
+            this.key = key;
+            this.credential = credential;
+        }
+
+        String getAccessToken() {
+            AccessToken token = currentToken.get();
+            Instant now = Instant.now();
+            if (token != null && now.isBefore(token.expiresAt())) {
+                usedSinceRefresh = true;
+                if (!now.isBefore(token.refreshAt())) {
+                    refresh(true);
+                }
+                return token.value();
+            }
+
+            try {
+                usedSinceRefresh = true;
+                return refresh(false).join().value();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+
+        /**
+         * Starts a refresh unless one is already running, in which case the running one is returned.
+         * A foreground refresh runs on the calling thread; a background refresh on a virtual thread.
+         */
+        private CompletableFuture<AccessToken> refresh(boolean background) {
+            CompletableFuture<AccessToken> pending = new CompletableFuture<>();
+            CompletableFuture<AccessToken> running = inFlightRefresh.compareAndExchange(null, pending);
+            if (running != null) {
+                return running;
+            }
+
+            Runnable task = () -> {
+                try {
+                    if (credential == null) {
+                        throw new UpstreamAuthenticationException("Token not configured. Set REDHAT_TOKEN.");
+                    }
+                    if (isDirectJwt == null) {
+                        isDirectJwt = isJwtToken(credential);
+                    }
+                    AccessToken token = refreshAccessToken(credential, isDirectJwt);
+                    currentToken.set(token);
+                    usedSinceRefresh = false;
+                    scheduleProactiveRefresh(token);
+                    pending.complete(token);
+                } catch (RuntimeException e) {
+                    if (background) {
+                        LOG.warnf("Background token refresh failed, keeping current token: %s", e.getMessage());
+                    }
+                    pending.completeExceptionally(e);
+                } finally {
+                    inFlightRefresh.compareAndSet(pending, null);
+                }
+            };
+
+            if (background) {
+                refreshExecutor.execute(task);
+            } else {
+                task.run();
+            }
+            return pending;
+        }
+
+        /**
+         * Refreshes ahead of the renewal window so that an idle period does not leave
+         * the next request waiting on SSO. Skipped if the token was not used since the last refresh,
+         * or if this caller token has been evicted.
+         */
+        private void scheduleProactiveRefresh(AccessToken token) {
+            if (!token.refreshAt().isBefore(token.expiresAt())) {
+                return;
+            }
+            long delayMillis = Math.max(0, Duration.between(Instant.now(), token.refreshAt()).toMillis());
+            refreshScheduler.schedule(() -> {
+                if (usedSinceRefresh && currentToken.get() == token && isLive()) {
+                    refresh(true);
+                }
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private boolean isLive() {
+            return key == null || callerTokens.policy().getIfPresentQuietly(key) == this;
+        }
+    }
+
+    /**
+     * Hex SHA-256 of a caller token, so that the map does not key on the raw secret.
+     */
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
     }
 }
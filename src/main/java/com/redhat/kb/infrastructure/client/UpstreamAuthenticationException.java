@@ -0,0 +1,16 @@
+package com.redhat.kb.infrastructure.client;
+
+/**
+ * Thrown when no access token can be obtained for the credential in use, or Hydra rejects it (401, 403).
+ * Never answered from cached, stored or locally indexed content, which may have been fetched with another token.
+ */
+public class UpstreamAuthenticationException extends RuntimeException {
+
+    public UpstreamAuthenticationException(String message) {
+        super(message);
+    }
+
+    public UpstreamAuthenticationException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,107 @@
+package com.redhat.kb.infrastructure.client;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+/**
+ * The single {@link HttpClient} shared by all upstream calls (Hydra and Red Hat SSO),
+ * so connections and TLS sessions are reused across both clients.
+ * <p>
+ * Prefers HTTP/2, which multiplexes concurrent requests over one connection per host.
+ * The JDK reads keep-alive and pool-size settings from system properties when the first client is built,
+ * so they are applied here unless already given on the command line.
+ * At startup a HEAD request is sent to each warm-up URL so the first tool call does not pay for the TLS handshake.
+ */
+@ApplicationScoped
+public class UpstreamHttpClient {
+
+    private static final Logger LOG = Logger.getLogger(UpstreamHttpClient.class);
+
+    private final RedHatApiConfig.Http config;
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+
+    @Inject
+    public UpstreamHttpClient(RedHatApiConfig config) {
+        this.config = config.http();
+        applyConnectionPoolProperties(this.config);
+
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(this.config.version())
+                .connectTimeout(Duration.ofSeconds(config.timeouts().connectSeconds()));
+        if (this.config.virtualThreads()) {
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+            builder.executor(executor);
+        } else {
+            this.executor = null;
+        }
+        this.httpClient = builder.build();
+    }
+
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        return httpClient.send(request, bodyHandler);
+    }
+
+    /**
+     * Opens connections to the upstream hosts in the background. Failures are only logged.
+     */
+    void warmUp(@Observes StartupEvent event) {
+        if (!config.warmUp().enabled()) {
+            return;
+        }
+        for (String url : config.warmUp().urls()) {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                    .timeout(Duration.ofSeconds(config.warmUp().timeoutSeconds()))
+                    .build();
+            long start = System.nanoTime();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long millis = (System.nanoTime() - start) / 1_000_000;
+                        if (error != null) {
+                            LOG.debugf("Connection warm-up to %s failed: %s", url, error.getMessage());
+                        } else {
+                            LOG.debugf("Connection warm-up to %s: %s in %d ms", url, response.version(), millis);
+                        }
+                    });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        httpClient.shutdownNow();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void applyConnectionPoolProperties(RedHatApiConfig.Http config) {
+        String keepAlive = Integer.toString(config.keepAliveSeconds());
+        setIfAbsent("jdk.httpclient.keepalive.timeout", keepAlive);
+        setIfAbsent("jdk.httpclient.keepalive.timeout.h2", keepAlive);
+        setIfAbsent("jdk.httpclient.connectionPoolSize", Integer.toString(config.poolSize()));
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) {
+            System.setProperty(property, value);
+        }
+    }
+}
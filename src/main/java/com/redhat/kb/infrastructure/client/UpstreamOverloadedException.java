@@ -0,0 +1,12 @@
+package com.redhat.kb.infrastructure.client;
+
+/**
+ * Thrown instead of calling Hydra when it is rate limiting us or the local wait queue for upstream
+ * connection slots is full. The message is meant to be shown to the MCP client as is.
+ */
+public class UpstreamOverloadedException extends RuntimeException {
+
+    public UpstreamOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,264 @@
+package com.redhat.kb.infrastructure.client;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.context.Context;
+import org.jboss.logging.Logger;
+
+/**
+ * Retries, hedging and a circuit breaker around calls to one upstream.
+ * <p>
+ * Attempts failing with an I/O error (including timeouts) or a retryable 5xx are retried with full-jitter
+ * exponential backoff, as long as the next attempt can start within the call's time budget. With hedging
+ * enabled, an attempt still running after the configured percentile of recent latencies for its endpoint gets
+ * a second, concurrent attempt; the first success wins and the other is cancelled. While the
+ * {@link CircuitBreaker} is open, calls fail immediately with {@link UpstreamOverloadedException}.
+ * <p>
+ * Other failures (4xx, rate limiting, local rejections) are neither retried nor counted against the upstream.
+ */
+final class UpstreamResilience {
+
+    private static final Logger LOG = Logger.getLogger(UpstreamResilience.class);
+
+    private static final int LATENCY_SAMPLES = 256;
+    private static final int PERCENTILE_RECOMPUTE_INTERVAL = 32;
+
+    private final String upstream;
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final boolean hedging;
+    private final double hedgePercentile;
+    private final long minHedgeDelayNanos;
+    private final int minHedgeSamples;
+    private final CircuitBreaker breaker;
+    private final Map<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+    private final ExecutorService hedgeExecutor;
+    private final Counter retries;
+    private final Counter hedges;
+    private final Counter circuitRejections;
+
+    /**
+     * @param tag     value of the {@code upstream} meter tag
+     * @param upstream name used in log and error messages
+     * @param hedge   whether calls may be hedged; only for idempotent requests
+     */
+    UpstreamResilience(String tag, String upstream, RedHatApiConfig.Resilience config, boolean hedge,
+                       MeterRegistry registry) {
+        this.upstream = upstream;
+        this.maxAttempts = Math.max(1, config.retry().maxAttempts());
+        this.initialBackoffNanos = TimeUnit.MILLISECONDS.toNanos(config.retry().initialBackoffMillis());
+        this.maxBackoffNanos = TimeUnit.MILLISECONDS.toNanos(config.retry().maxBackoffMillis());
+        this.hedging = hedge && config.hedge().enabled();
+        this.hedgePercentile = config.hedge().percentile();
+        this.minHedgeDelayNanos = TimeUnit.MILLISECONDS.toNanos(config.hedge().minDelayMillis());
+        this.minHedgeSamples = Math.max(1, config.hedge().minSamples());
+        this.breaker = new CircuitBreaker(upstream, config.circuitBreaker());
+        // Attempts carry the caller's trace context, so both attempts of a hedged call show in its trace
+        this.hedgeExecutor = hedging ? Context.taskWrapping(Executors.newVirtualThreadPerTaskExecutor()) : null;
+
+        this.retries = Counter.builder("kb.upstream.retries")
+                .description("Upstream attempts retried after a transient failure")
+                .tag("upstream", tag)
+                .register(registry);
+        this.hedges = Counter.builder("kb.upstream.hedges")
+                .description("Second attempts sent because the first was slower than the hedge delay")
+                .tag("upstream", tag)
+                .register(registry);
+        this.circuitRejections = Counter.builder("kb.upstream.circuit.rejected")
+                .description("Calls failed immediately because the circuit was open")
+                .tag("upstream", tag)
+                .register(registry);
+        Gauge.builder("kb.upstream.circuit.state", breaker, b -> b.state().ordinal())
+                .description("Circuit state: 0 closed, 1 half-open, 2 open")
+                .tag("upstream", tag)
+                .register(registry);
+    }
+
+    /**
+     * Runs the attempt, retrying and hedging as configured.
+     *
+     * @param endpoint endpoint whose latencies set the hedge delay
+     * @param budget   time after which no further attempt is started
+     * @return the result of the first successful attempt
+     * @throws UpstreamOverloadedException if the circuit is open
+     * @throws Exception                   the failure of the last attempt
+     */
+    <T> T execute(String endpoint, Callable<T> attempt, Duration budget) throws Exception {
+        long deadline = System.nanoTime() + budget.toNanos();
+        Exception lastFailure = null;
+        for (int number = 1; ; number++) {
+            long blockedFor = breaker.acquire();
+            if (blockedFor > 0) {
+                if (lastFailure != null) {
+                    throw lastFailure;
+                }
+                circuitRejections.increment();
+                throw new UpstreamOverloadedException(upstream + " is failing, requests are paused; retry in "
+                        + AdaptiveConcurrencyLimiter.seconds(blockedFor) + " s");
+            }
+
+            boolean recorded = false;
+            try {
+                T result = hedging ? hedged(endpoint, attempt) : attempt.call();
+                recorded = true;
+                breaker.onSuccess();
+                return result;
+            } catch (Exception e) {
+                if (!isTransient(e)) {
+                    throw e;
+                }
+                recorded = true;
+                breaker.onFailure();
+                lastFailure = e;
+
+                long backoff = backoff(number);
+                if (number >= maxAttempts || System.nanoTime() + backoff - deadline >= 0) {
+                    throw e;
+                }
+                retries.increment();
+                LOG.debugf("%s attempt %d failed, retrying in %d ms: %s",
+                        upstream, number, TimeUnit.NANOSECONDS.toMillis(backoff), e.getMessage());
+                TimeUnit.NANOSECONDS.sleep(backoff);
+            } finally {
+                if (!recorded) {
+                    // Non-transient failures and Errors, which must still end a half-open probe
+                    breaker.onIgnored();
+                }
+            }
+        }
+    }
+
+    void close() {
+        if (hedgeExecutor != null) {
+            hedgeExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts a second attempt if the first has not completed within the hedge delay, and returns the first success.
+     * Hedging waits until the endpoint has enough latency samples.
+     */
+    private <T> T hedged(String endpoint, Callable<T> attempt) throws Exception {
+        LatencyWindow window = latencies.computeIfAbsent(endpoint, e -> new LatencyWindow());
+        Callable<T> timed = () -> {
+            long start = System.nanoTime();
+            T result = attempt.call();
+            window.record(System.nanoTime() - start);
+            return result;
+        };
+
+        long delay = window.percentile(hedgePercentile, minHedgeSamples);
+        if (delay < 0) {
+            return timed.call();
+        }
+
+        CompletionService<T> attempts = new ExecutorCompletionService<>(hedgeExecutor);
+        List<Future<T>> started = new ArrayList<>(2);
+        started.add(attempts.submit(timed));
+        try {
+            Future<T> done = attempts.poll(Math.max(delay, minHedgeDelayNanos), TimeUnit.NANOSECONDS);
+            if (done == null) {
+                hedges.increment();
+                started.add(attempts.submit(timed));
+                done = attempts.take();
+            }
+            try {
+                return done.get();
+            } catch (ExecutionException e) {
+                if (started.size() == 1) {
+                    throw cause(e);
+                }
+            }
+            try {
+                return attempts.take().get();
+            } catch (ExecutionException e) {
+                throw cause(e);
+            }
+        } finally {
+            for (Future<T> future : started) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffNanos, initialBackoffNanos << Math.min(attempt - 1, 20));
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    /**
+     * Failures worth retrying, which also count against the circuit.
+     */
+    private static boolean isTransient(Exception e) {
+        if (e instanceof UpstreamStatusException status) {
+            return status.isRetryable();
+        }
+        return e instanceof IOException;
+    }
+
+    private static Exception cause(ExecutionException e) {
+        if (e.getCause() instanceof Exception cause) {
+            return cause;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return e;
+    }
+
+    /**
+     * Latencies of the most recent successful attempts of one endpoint.
+     */
+    private static final class LatencyWindow {
+        private final long[] samples = new long[LATENCY_SAMPLES];
+        private int count;
+        private int next;
+        private int sinceComputed;
+        private long cached = -1;
+
+        synchronized void record(long nanos) {
+            samples[next] = nanos;
+            next = (next + 1) % samples.length;
+            count = Math.min(count + 1, samples.length);
+            sinceComputed++;
+        }
+
+        /**
+         * @return the percentile in nanoseconds, or -1 with fewer than {@code minSamples} samples
+         */
+        synchronized long percentile(double percentile, int minSamples) {
+            if (count < minSamples) {
+                return -1;
+            }
+            if (cached < 0 || sinceComputed >= PERCENTILE_RECOMPUTE_INTERVAL) {
+                long[] sorted = Arrays.copyOf(samples, count);
+                Arrays.sort(sorted);
+                int index = (int) Math.ceil(percentile * count) - 1;
+                cached = sorted[Math.max(0, Math.min(count - 1, index))];
+                sinceComputed = 0;
+            }
+            return cached;
+        }
+    }
+}
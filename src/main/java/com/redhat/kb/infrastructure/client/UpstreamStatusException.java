@@ -0,0 +1,26 @@
+package com.redhat.kb.infrastructure.client;
+
+/**
+ * Non-success HTTP status from an upstream. Keeps the status so retries can tell
+ * server-side failures from requests that will never succeed.
+ */
+class UpstreamStatusException extends RuntimeException {
+
+    private final int status;
+
+    UpstreamStatusException(int status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    int status() {
+        return status;
+    }
+
+    /**
+     * 5xx responses other than 501 may succeed on another attempt or replica.
+     */
+    boolean isRetryable() {
+        return status >= 500 && status != 501;
+    }
+}
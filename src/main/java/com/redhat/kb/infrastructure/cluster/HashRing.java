@@ -0,0 +1,68 @@
+package com.redhat.kb.infrastructure.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Consistent hash ring mapping keys to the member that owns them.
+ * <p>
+ * Each member is placed at several points of the ring (virtual nodes) so keys spread evenly, and adding or
+ * removing a member only moves the keys of its own points. Every replica builds the same ring from the same
+ * members, so they all agree on the owner of a key without coordinating.
+ */
+final class HashRing {
+
+    private final Set<String> members;
+    private final NavigableMap<Long, String> points = new TreeMap<>();
+
+    HashRing(Collection<String> members, int virtualNodes) {
+        this.members = new TreeSet<>(members);
+        for (String member : this.members) {
+            for (int i = 0; i < virtualNodes; i++) {
+                points.put(hash(member + "#" + i), member);
+            }
+        }
+    }
+
+    /**
+     * Member owning the key, or null if the ring is empty.
+     */
+    String owner(String key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    List<String> members() {
+        return List.copyOf(members);
+    }
+
+    boolean hasMembers(Collection<String> other) {
+        return members.equals(new TreeSet<>(other));
+    }
+
+    /**
+     * 64-bit FNV-1a of the UTF-8 bytes, with the MurmurHash3 finalizer to spread similar keys across the ring.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
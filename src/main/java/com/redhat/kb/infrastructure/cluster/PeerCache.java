@@ -0,0 +1,474 @@
+package com.redhat.kb.infrastructure.cluster;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.arc.DefaultBean;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+/**
+ * Embedded peer-to-peer {@link SharedCache}, needing no external service.
+ * <p>
+ * Replicas find each other from a static list of addresses and from a DNS name resolving to all of them, such as
+ * a headless Kubernetes service. A consistent hash ring assigns each key to one owner replica, which holds the
+ * serialized value for the others; a replica that misses locally asks the owner, and on a miss there it fetches
+ * from Hydra and hands the value to the owner. Upstream traffic is thus independent of the number of replicas.
+ * Replacements and invalidations are broadcast so every replica drops its in-process copy.
+ * <p>
+ * Peers talk plain HTTP on a separate port, so the cache also works in stdio mode. A peer that fails to answer
+ * within the timeout is skipped for a few seconds: its keys are then fetched from Hydra.
+ * <p>
+ * Values stored by peers are served to agents and may be written to the article store, so every request must
+ * carry the shared secret, which is required when the cluster is enabled. The listener binds to this replica's
+ * own address rather than all interfaces, and stored entries are bounded in size and lifetime.
+ */
+@DefaultBean
+@ApplicationScoped
+public class PeerCache implements SharedCache {
+
+    private static final Logger LOG = Logger.getLogger(PeerCache.class);
+
+    static final String PATH = "/kb-cache/";
+    static final String SECRET_HEADER = "X-KB-Cluster-Secret";
+
+    private static final long SKIP_UNREACHABLE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    private final RedHatApiConfig.Cluster config;
+    private final ObjectMapper objectMapper;
+    private final KnowledgeBaseMetrics metrics;
+    private final boolean enabled;
+    private final String self;
+    private final Duration timeout;
+    private final long maxTtlMillis;
+    private final int maxEntryBytes;
+    private final Cache<String, Entry> owned;
+    private final Map<String, List<Consumer<String>>> listeners = new ConcurrentHashMap<>();
+    private final Map<String, Long> unreachableUntil = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private volatile HashRing ring;
+    private HttpServer server;
+
+    @Inject
+    public PeerCache(RedHatApiConfig config, ObjectMapper objectMapper, KnowledgeBaseMetrics metrics) {
+        this.config = config.cluster();
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        this.enabled = this.config.enabled();
+        if (enabled && this.config.secret().filter(secret -> !secret.isBlank()).isEmpty()) {
+            throw new IllegalStateException("redhat.api.cluster.secret must be set when the shared cache is enabled");
+        }
+        this.self = this.config.self().orElseGet(() -> localAddress(this.config.port()));
+        this.timeout = Duration.ofMillis(this.config.timeoutMillis());
+        // Entries never outlive the longest local TTL, whatever a peer asks for
+        this.maxTtlMillis = TimeUnit.SECONDS.toMillis(Math.max(config.cache().search().ttlSeconds(),
+                config.cache().article().ttlSeconds()));
+        this.maxEntryBytes = (int) Math.min(this.config.maxBytes(), Integer.MAX_VALUE - 8);
+        this.owned = Caffeine.newBuilder()
+                .maximumWeight(this.config.maxBytes())
+                .weigher((String key, Entry entry) -> key.length() * 2 + entry.value().length)
+                .expireAfter(Expiry.writing((String key, Entry entry) -> entry.ttl()))
+                .recordStats()
+                .build();
+        this.ring = new HashRing(List.of(self), this.config.virtualNodes());
+
+        if (enabled) {
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+            this.httpClient = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .connectTimeout(timeout)
+                    .executor(executor)
+                    .build();
+            this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "kb-cluster-members");
+                thread.setDaemon(true);
+                return thread;
+            });
+            CaffeineCacheMetrics.monitor(metrics.registry(), owned, "kb.cluster.owned");
+            Gauge.builder("kb.cluster.members", this, cache -> cache.ring.members().size())
+                    .description("Replicas sharing the cache, including this one")
+                    .register(metrics.registry());
+        } else {
+            this.executor = null;
+            this.httpClient = null;
+            this.scheduler = null;
+        }
+    }
+
+    /**
+     * Listens for peers and starts refreshing the members.
+     */
+    void start(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+        String host = config.host().orElseGet(() -> host(self));
+        try {
+            server = HttpServer.create(new InetSocketAddress(host, config.port()), 0);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot listen for cluster peers on " + host + ":" + config.port(), e);
+        }
+        server.createContext(PATH, this::handle);
+        server.setExecutor(executor);
+        server.start();
+
+        refreshMembers();
+        scheduler.scheduleWithFixedDelay(this::refreshMembers,
+                config.refreshSeconds(), config.refreshSeconds(), TimeUnit.SECONDS);
+        LOG.infof("Shared cache listening on %s:%d as %s", host, config.port(), self);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        scheduler.shutdownNow();
+        if (server != null) {
+            server.stop(0);
+        }
+        httpClient.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public <T> Optional<T> get(String region, String key, Class<T> type) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        String ownedKey = ownedKey(region, key);
+        String owner = ring.owner(ownedKey);
+        byte[] value;
+        if (self.equals(owner)) {
+            Entry entry = owned.getIfPresent(ownedKey);
+            value = entry != null ? entry.value() : null;
+        } else {
+            HttpResponse<byte[]> response = send(owner,
+                    request(owner, region, key, Map.of()).GET(), HttpResponse.BodyHandlers.ofByteArray());
+            if (response == null) {
+                metrics.recordSharedCache("get", "unreachable");
+                return Optional.empty();
+            }
+            value = response.statusCode() == 200 ? response.body() : null;
+        }
+        if (value == null) {
+            metrics.recordSharedCache("get", "miss");
+            return Optional.empty();
+        }
+
+        try {
+            T result = objectMapper.readValue(value, type);
+            metrics.recordSharedCache("get", "hit");
+            return Optional.of(result);
+        } catch (IOException e) {
+            LOG.debugf("Cannot read shared %s entry %s: %s", region, key, e.getMessage());
+            metrics.recordSharedCache("get", "error");
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void put(String region, String key, Object value, Duration ttl) {
+        if (enabled) {
+            store(region, key, value, ttl);
+        }
+    }
+
+    @Override
+    public void replace(String region, String key, Object value, Duration ttl) {
+        if (enabled) {
+            // Evict only once the owner holds the new value, so replicas reloading after the eviction get it
+            store(region, key, value, ttl).thenRun(() -> broadcast(region, key, "near"));
+        }
+    }
+
+    @Override
+    public void invalidate(String region, String key) {
+        if (!enabled) {
+            return;
+        }
+        owned.invalidate(ownedKey(region, key));
+        broadcast(region, key, "all");
+    }
+
+    @Override
+    public void onEviction(String region, Consumer<String> listener) {
+        listeners.computeIfAbsent(region, r -> new CopyOnWriteArrayList<>()).add(listener);
+    }
+
+    /**
+     * Stores the value on its owner. The returned future completes once the owner acknowledged or failed.
+     */
+    private CompletableFuture<Void> store(String region, String key, Object value, Duration ttl) {
+        byte[] bytes;
+        try {
+            bytes = objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            LOG.debugf("Cannot write shared %s entry %s: %s", region, key, e.getMessage());
+            return CompletableFuture.completedFuture(null);
+        }
+
+        String ownedKey = ownedKey(region, key);
+        String owner = ring.owner(ownedKey);
+        if (self.equals(owner)) {
+            owned.put(ownedKey, new Entry(bytes, ttl));
+            metrics.recordSharedCache("put", "stored");
+            return CompletableFuture.completedFuture(null);
+        }
+        HttpRequest.Builder request = request(owner, region, key, Map.of("ttl", Long.toString(ttl.toMillis())))
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(bytes));
+        return sendAsync(owner, request).thenAccept(response ->
+                metrics.recordSharedCache("put", response != null ? "stored" : "unreachable"));
+    }
+
+    /**
+     * Tells every other replica to drop its in-process copy, and with scope "all" also the owned copy.
+     */
+    private void broadcast(String region, String key, String scope) {
+        for (String member : ring.members()) {
+            if (!member.equals(self)) {
+                sendAsync(member, request(member, region, key, Map.of("scope", scope)).DELETE());
+            }
+        }
+        metrics.recordSharedCache("evict", scope);
+    }
+
+    private HttpRequest.Builder request(String member, String region, String key, Map<String, String> params) {
+        StringBuilder uri = new StringBuilder("http://").append(member).append(PATH).append(region)
+                .append("?key=").append(URLEncoder.encode(key, StandardCharsets.UTF_8));
+        params.forEach((name, value) -> uri.append('&').append(name).append('=').append(value));
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(uri.toString())).timeout(timeout);
+        config.secret().ifPresent(secret -> request.header(SECRET_HEADER, secret));
+        return request;
+    }
+
+    /**
+     * Sends a request to a peer, returning null when it is unreachable.
+     */
+    private <T> HttpResponse<T> send(String member, HttpRequest.Builder request,
+                                     HttpResponse.BodyHandler<T> bodyHandler) {
+        if (isSkipped(member)) {
+            return null;
+        }
+        try {
+            HttpResponse<T> response = httpClient.send(request.build(), bodyHandler);
+            unreachableUntil.remove(member);
+            return response;
+        } catch (IOException e) {
+            markUnreachable(member, e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private CompletableFuture<HttpResponse<Void>> sendAsync(String member, HttpRequest.Builder request) {
+        if (isSkipped(member)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return httpClient.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        markUnreachable(member, error);
+                        return null;
+                    }
+                    unreachableUntil.remove(member);
+                    return response;
+                });
+    }
+
+    private boolean isSkipped(String member) {
+        Long until = unreachableUntil.get(member);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private void markUnreachable(String member, Throwable error) {
+        if (unreachableUntil.put(member, System.nanoTime() + SKIP_UNREACHABLE_NANOS) == null) {
+            LOG.warnf("Cluster member %s unreachable, skipping it for now: %s", member, error.toString());
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!MessageDigest.isEqual(config.secret().orElseThrow().getBytes(StandardCharsets.UTF_8),
+                    String.valueOf(exchange.getRequestHeaders().getFirst(SECRET_HEADER))
+                            .getBytes(StandardCharsets.UTF_8))) {
+                exchange.sendResponseHeaders(403, -1);
+                return;
+            }
+            String region = exchange.getRequestURI().getPath().substring(PATH.length());
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            String key = params.get("key");
+            if (region.isEmpty() || key == null) {
+                exchange.sendResponseHeaders(400, -1);
+                return;
+            }
+
+            String ownedKey = ownedKey(region, key);
+            switch (exchange.getRequestMethod()) {
+                case "GET" -> {
+                    Entry entry = owned.getIfPresent(ownedKey);
+                    if (entry == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                    exchange.getResponseHeaders().set("Content-Type", "application/json");
+                    exchange.sendResponseHeaders(200, entry.value().length);
+                    try (OutputStream body = exchange.getResponseBody()) {
+                        body.write(entry.value());
+                    }
+                }
+                case "PUT" -> {
+                    long ttlMillis = Math.min(Long.parseLong(params.getOrDefault("ttl", "0")), maxTtlMillis);
+                    byte[] value = exchange.getRequestBody().readNBytes(maxEntryBytes + 1);
+                    if (value.length > maxEntryBytes) {
+                        exchange.sendResponseHeaders(413, -1);
+                        return;
+                    }
+                    if (ttlMillis > 0) {
+                        owned.put(ownedKey, new Entry(value, Duration.ofMillis(ttlMillis)));
+                    }
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                case "DELETE" -> {
+                    if (!"near".equals(params.get("scope"))) {
+                        owned.invalidate(ownedKey);
+                    }
+                    notifyListeners(region, key);
+                    exchange.sendResponseHeaders(204, -1);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        } catch (NumberFormatException e) {
+            exchange.sendResponseHeaders(400, -1);
+        }
+    }
+
+    private void notifyListeners(String region, String key) {
+        for (Consumer<String> listener : listeners.getOrDefault(region, List.of())) {
+            try {
+                listener.accept(key);
+            } catch (RuntimeException e) {
+                LOG.debugf("Eviction of %s entry %s failed: %s", region, key, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the ring when the configured or resolved members changed.
+     */
+    private void refreshMembers() {
+        Set<String> members = new TreeSet<>();
+        members.add(self);
+        config.peers().ifPresent(peers -> peers.stream().map(String::trim).filter(peer -> !peer.isEmpty())
+                .forEach(members::add));
+        config.dns().ifPresent(name -> {
+            try {
+                for (InetAddress address : InetAddress.getAllByName(name)) {
+                    members.add(hostAndPort(address, config.port()));
+                }
+            } catch (UnknownHostException e) {
+                LOG.debugf("Cannot resolve cluster members from %s: %s", name, e.getMessage());
+            }
+        });
+
+        if (!ring.hasMembers(members)) {
+            ring = new HashRing(members, config.virtualNodes());
+            LOG.infof("Shared cache members: %s", members);
+        }
+    }
+
+    private static String ownedKey(String region, String key) {
+        return region + '\n' + key;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    private static String localAddress(int port) {
+        try {
+            return hostAndPort(InetAddress.getLocalHost(), port);
+        } catch (UnknownHostException e) {
+            return "127.0.0.1:" + port;
+        }
+    }
+
+    /**
+     * Host part of a host:port member address, without the brackets of an IPv6 address.
+     */
+    private static String host(String member) {
+        int colon = member.lastIndexOf(':');
+        String host = colon > 0 ? member.substring(0, colon) : member;
+        return host.startsWith("[") && host.endsWith("]") ? host.substring(1, host.length() - 1) : host;
+    }
+
+    private static String hostAndPort(InetAddress address, int port) {
+        String host = address.getHostAddress();
+        return (address instanceof Inet6Address ? "[" + host + "]" : host) + ":" + port;
+    }
+
+    private record Entry(byte[] value, Duration ttl) {
+    }
+}
@@ -0,0 +1,49 @@
+package com.redhat.kb.infrastructure.cluster;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Cache shared by all replicas, consulted by the in-process caches before they call Hydra.
+ * <p>
+ * The in-process caches act as near caches in front of it: they keep their own copies and only ask the
+ * shared cache on a local miss, so that each entry is fetched from Hydra once for the whole deployment.
+ * Entries are grouped in regions, one per in-process cache, and keyed by strings unique within a region.
+ * <p>
+ * The default implementation is {@link PeerCache}; another can be provided as a CDI bean implementing this
+ * interface. Implementations never throw: when the shared tier is unreachable, reads miss and writes are dropped.
+ */
+public interface SharedCache {
+
+    /**
+     * Whether entries are shared at all. When false, reads always miss and writes are ignored.
+     */
+    boolean isEnabled();
+
+    /**
+     * Returns the shared value, or empty if no replica holds it.
+     */
+    <T> Optional<T> get(String region, String key, Class<T> type);
+
+    /**
+     * Shares a value fetched after a miss. Copies other replicas may hold are equal and are kept.
+     */
+    void put(String region, String key, Object value, Duration ttl);
+
+    /**
+     * Shares a value that supersedes the current one, and evicts the copies held by other replicas.
+     */
+    void replace(String region, String key, Object value, Duration ttl);
+
+    /**
+     * Removes the shared value and evicts the copies held by other replicas.
+     */
+    void invalidate(String region, String key);
+
+    /**
+     * Registers the in-process cache of a region, which is told the key whenever another replica replaces or
+     * invalidates an entry, so it drops its own copy.
+     */
+    void onEviction(String region, Consumer<String> listener);
+}
@@ -1,5 +1,7 @@
 package com.redhat.kb.infrastructure.config;
 
+import java.net.http.HttpClient;
+import java.util.List;
 import java.util.Optional;
 
 import io.smallrye.config.ConfigMapping;
@@ -16,6 +18,11 @@ public interface RedHatApiConfig {
      */
     Optional<String> offlineToken();
 
+    /**
+     * Hydra search API.
+     */
+    Hydra hydra();
+
     /**
      * SSO configuration.
      */
@@ -26,6 +33,56 @@ public interface RedHatApiConfig {
      */
     Timeouts timeouts();
 
+    /**
+     * Shared upstream HTTP client.
+     */
+    Http http();
+
+    /**
+     * Adaptive limit on concurrent Hydra requests.
+     */
+    Limiter limiter();
+
+    /**
+     * Retries, hedging and circuit breaking of Hydra and SSO calls.
+     */
+    Resilience resilience();
+
+    /**
+     * In-process caching of Hydra results.
+     */
+    Cache cache();
+
+    /**
+     * On-disk article store, kept across restarts.
+     */
+    Store store();
+
+    /**
+     * Local full-text index used when Hydra is slow or unavailable.
+     */
+    LocalIndex localIndex();
+
+    /**
+     * Background prefetch of common alert and error searches.
+     */
+    Prefetch prefetch();
+
+    /**
+     * Paging through search results with cursors.
+     */
+    Pagination pagination();
+
+    /**
+     * Red Hat tokens supplied per request by MCP clients over HTTP.
+     */
+    CallerTokens callerTokens();
+
+    /**
+     * Cache shared between replicas.
+     */
+    Cluster cluster();
+
     /**
      * Checks if the service is properly configured.
      */
@@ -35,6 +92,11 @@ public interface RedHatApiConfig {
                !offlineToken().get().equals("your-offline-token-here");
     }
 
+    interface Hydra {
+        @WithDefault("https://access.redhat.com/hydra/rest/search/kcs")
+        String searchUrl();
+    }
+
     interface Sso {
         @WithDefault("https://sso.redhat.com/auth/realms/redhat-external/protocol/openid-connect/token")
         String tokenUrl();
@@ -42,6 +104,9 @@ public interface RedHatApiConfig {
         @WithDefault("rhsm-api")
         String clientId();
 
+        /**
+         * Seconds before expiry at which the access token is refreshed in the background.
+         */
         @WithDefault("60")
         int tokenRenewalBufferSeconds();
     }
@@ -53,4 +118,349 @@ public interface RedHatApiConfig {
         @WithDefault("60")
         int requestSeconds();
     }
+
+    interface Http {
+        /**
+         * Preferred protocol; HTTP_2 falls back to HTTP/1.1 when the server does not negotiate it.
+         */
+        @WithDefault("HTTP_2")
+        HttpClient.Version version();
+
+        /**
+         * Run the client's internal tasks on virtual threads instead of its default cached thread pool.
+         */
+        @WithDefault("true")
+        boolean virtualThreads();
+
+        /**
+         * Seconds an idle connection is kept open for reuse.
+         */
+        @WithDefault("300")
+        int keepAliveSeconds();
+
+        /**
+         * Maximum idle HTTP/1.1 connections kept per client (0 = unbounded).
+         */
+        @WithDefault("20")
+        int poolSize();
+
+        WarmUp warmUp();
+    }
+
+    interface WarmUp {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("https://access.redhat.com/,https://sso.redhat.com/")
+        List<String> urls();
+
+        @WithDefault("10")
+        int timeoutSeconds();
+    }
+
+    interface Limiter {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("16")
+        int initialLimit();
+
+        @WithDefault("1")
+        int minLimit();
+
+        @WithDefault("128")
+        int maxLimit();
+
+        /**
+         * Callers allowed to wait for a slot; further callers are rejected immediately.
+         */
+        @WithDefault("100")
+        int maxQueue();
+
+        @WithDefault("10000")
+        int maxWaitMillis();
+
+        /**
+         * Successful responses slower than this shrink the limit like a timeout does.
+         */
+        @WithDefault("5000")
+        int slowResponseMillis();
+    }
+
+    interface Resilience {
+        Retry retry();
+
+        Hedge hedge();
+
+        CircuitBreaker circuitBreaker();
+    }
+
+    interface Retry {
+        /**
+         * Attempts per call, including the first; 1 disables retries.
+         */
+        @WithDefault("3")
+        int maxAttempts();
+
+        @WithDefault("100")
+        int initialBackoffMillis();
+
+        @WithDefault("2000")
+        int maxBackoffMillis();
+    }
+
+    interface Hedge {
+        /**
+         * Applies to Hydra queries only; SSO token requests are never hedged.
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Percentile of recent latencies of the same endpoint after which a second attempt is sent.
+         */
+        @WithDefault("0.95")
+        double percentile();
+
+        @WithDefault("50")
+        int minDelayMillis();
+
+        /**
+         * Successful attempts of an endpoint needed before its calls are hedged.
+         */
+        @WithDefault("20")
+        int minSamples();
+    }
+
+    interface CircuitBreaker {
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Number of most recent attempts the failure rate is computed over.
+         */
+        @WithDefault("50")
+        int windowSize();
+
+        @WithDefault("20")
+        int minimumCalls();
+
+        @WithDefault("0.5")
+        double failureRateThreshold();
+
+        @WithDefault("30")
+        int openSeconds();
+    }
+
+    interface Cache {
+        SearchCache search();
+
+        ArticleCache article();
+    }
+
+    interface SearchCache {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("600")
+        int ttlSeconds();
+
+        @WithDefault("1000")
+        int maxEntries();
+
+        /**
+         * Approximate heap budget for cached results. When set, it replaces max-entries as the eviction bound.
+         */
+        Optional<Long> maxBytes();
+    }
+
+    interface ArticleCache {
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Hard expiry. Entries that keep being revalidated successfully are retained.
+         */
+        @WithDefault("86400")
+        int ttlSeconds();
+
+        /**
+         * Age after which an entry is revalidated against lastModifiedDate on its next access.
+         */
+        @WithDefault("900")
+        int refreshSeconds();
+
+        @WithDefault("500")
+        int maxEntries();
+    }
+
+    interface Store {
+        @WithDefault("false")
+        boolean enabled();
+
+        @WithDefault("${user.home}/.cache/redhat-kb-mcp/articles")
+        String directory();
+
+        /**
+         * Size cap for all segment files. Compaction drops the oldest articles to get back under it.
+         */
+        @WithDefault("67108864")
+        long maxBytes();
+
+        /**
+         * Size at which the active segment file is closed and a new one started.
+         */
+        @WithDefault("8388608")
+        int segmentBytes();
+
+        @WithDefault("20000")
+        int maxEntries();
+    }
+
+    interface LocalIndex {
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("5000")
+        int maxDocuments();
+
+        /**
+         * Milliseconds to wait for Hydra before answering from the local index, if it has matches.
+         * 0 always waits for Hydra and only falls back to the index when the search fails.
+         */
+        @WithDefault("0")
+        int raceTimeoutMillis();
+    }
+
+    interface Prefetch {
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * File with one alert name or query per line; {@code classpath:} locations are read from the application.
+         */
+        @WithDefault("classpath:prefetch/openshift-alerts.txt")
+        Optional<String> catalog();
+
+        /**
+         * Additional entries, searched after the catalog.
+         */
+        Optional<List<String>> queries();
+
+        @WithDefault("Red Hat OpenShift Container Platform")
+        List<String> products();
+
+        /**
+         * Number of top results per search whose full articles are prefetched.
+         */
+        @WithDefault("3")
+        int topArticles();
+
+        @WithDefault("10")
+        int initialDelaySeconds();
+
+        /**
+         * Seconds between runs; 0 runs once at startup. Keep below the search cache TTL to avoid cold gaps.
+         */
+        @WithDefault("540")
+        int intervalSeconds();
+
+        @WithDefault("2")
+        double requestsPerSecond();
+    }
+
+    interface Pagination {
+        /**
+         * Loads the page after the last one returned into the search cache in the background, once a client
+         * pages past the first, so following with the cursor is served without waiting for Hydra.
+         */
+        @WithDefault("true")
+        boolean prefetchNextPage();
+    }
+
+    interface CallerTokens {
+        /**
+         * Accepts a token in the request header, used instead of the configured token for that request.
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        @WithDefault("X-RedHat-Token")
+        String header();
+
+        /**
+         * Caller tokens whose access tokens are kept; the least recently used are evicted beyond this.
+         */
+        @WithDefault("1000")
+        int maxTokens();
+
+        /**
+         * Seconds after its last use that a caller token's access token is dropped.
+         */
+        @WithDefault("3600")
+        int idleSeconds();
+    }
+
+    interface Cluster {
+        /**
+         * Shares cached search results and articles with the other replicas, so each is fetched from Hydra once.
+         */
+        @WithDefault("false")
+        boolean enabled();
+
+        /**
+         * Address the peer listener binds to. Defaults to the host of {@link #self()}, such as the pod IP.
+         */
+        Optional<String> host();
+
+        /**
+         * Port peers exchange entries on, separate from the MCP port.
+         */
+        @WithDefault("9091")
+        int port();
+
+        /**
+         * host:port under which the other replicas reach this one. Defaults to the local host address and port.
+         */
+        Optional<String> self();
+
+        /**
+         * Static host:port list of the replicas; may include this one.
+         */
+        Optional<List<String>> peers();
+
+        /**
+         * Host name resolving to the addresses of all replicas, such as a headless service; each is reached on port.
+         */
+        Optional<String> dns();
+
+        /**
+         * Seconds between lookups of the DNS name.
+         */
+        @WithDefault("15")
+        int refreshSeconds();
+
+        /**
+         * Milliseconds to wait for a peer before fetching from Hydra instead.
+         */
+        @WithDefault("250")
+        int timeoutMillis();
+
+        /**
+         * Points per replica on the consistent hash ring; more spread keys more evenly.
+         */
+        @WithDefault("128")
+        int virtualNodes();
+
+        /**
+         * Size cap for the serialized entries this replica owns.
+         */
+        @WithDefault("67108864")
+        long maxBytes();
+
+        /**
+         * Shared secret peers must send; requests without it are refused. Required when the cluster is enabled.
+         */
+        Optional<String> secret();
+    }
 }
@@ -4,253 +4,191 @@ import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.annotation.JsonSetter;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import io.quarkus.runtime.annotations.RegisterForReflection;
 
 /**
  * DTO for a Red Hat Knowledge Base article.
- * Note: Solution fields can be either List<String> (with content) or String ("subscriber_only").
+ * Note: Solution fields can be either a list of paragraphs or the string "subscriber_only";
+ * {@link StringListDeserializer} reads both, the latter as null.
+ * <p>
+ * Formatting methods size their buffer from the field lengths up front and append directly,
+ * so rendering an article allocates little more than the resulting string.
  */
+@RegisterForReflection
 @JsonIgnoreProperties(ignoreUnknown = true)
-public class KnowledgeBaseArticleDto {
+public record KnowledgeBaseArticleDto(
+        @JsonProperty("id") String id,
+        @JsonProperty("title") String title,
+        @JsonProperty("abstract") String abstractText,
+        @JsonProperty("documentKind") String documentKind,
+        @JsonProperty("view_uri") String viewUri,
+        @JsonProperty("product") @JsonDeserialize(using = StringListDeserializer.class) List<String> product,
+        @JsonProperty("issue") @JsonDeserialize(using = StringListDeserializer.class) List<String> issue,
+        @JsonProperty("solution_environment") @JsonDeserialize(using = StringListDeserializer.class)
+        List<String> solutionEnvironment,
+        @JsonProperty("solution_rootcause") @JsonDeserialize(using = StringListDeserializer.class)
+        List<String> solutionRootcause,
+        @JsonProperty("solution_resolution") @JsonDeserialize(using = StringListDeserializer.class)
+        List<String> solutionResolution,
+        @JsonProperty("solution_diagnosticsteps") @JsonDeserialize(using = StringListDeserializer.class)
+        List<String> solutionDiagnosticsteps,
+        @JsonProperty("lastModifiedDate") String lastModifiedDate,
+        @JsonProperty("createdDate") String createdDate) {
+
+    private static final int MAX_SUMMARY_ABSTRACT = 200;
 
-    @JsonProperty("id")
-    private String id;
-
-    @JsonProperty("title")
-    private String title;
-
-    @JsonProperty("abstract")
-    private String abstractText;
-
-    @JsonProperty("documentKind")
-    private String documentKind;
-
-    @JsonProperty("view_uri")
-    private String viewUri;
-
-    @JsonProperty("product")
-    private List<String> product;
-
-    @JsonProperty("issue")
-    private List<String> issue;
-
-    // Solution fields - can be List<String> or String ("subscriber_only")
-    private List<String> solutionEnvironment;
-    private List<String> solutionRootcause;
-    private List<String> solutionResolution;
-    private List<String> solutionDiagnosticsteps;
-
-    @JsonProperty("lastModifiedDate")
-    private String lastModifiedDate;
-
-    @JsonProperty("createdDate")
-    private String createdDate;
-
-    // Getters and Setters
-
-    public String getId() {
-        return id;
-    }
-
-    public void setId(String id) {
-        this.id = id;
-    }
-
-    public String getTitle() {
-        return title;
-    }
-
-    public void setTitle(String title) {
-        this.title = title;
-    }
-
-    public String getAbstractText() {
-        return abstractText;
-    }
-
-    public void setAbstractText(String abstractText) {
-        this.abstractText = abstractText;
-    }
-
-    public String getDocumentKind() {
-        return documentKind;
-    }
-
-    public void setDocumentKind(String documentKind) {
-        this.documentKind = documentKind;
-    }
-
-    public String getViewUri() {
-        return viewUri;
-    }
-
-    public void setViewUri(String viewUri) {
-        this.viewUri = viewUri;
-    }
-
-    public List<String> getProduct() {
-        return product;
-    }
-
-    public void setProduct(List<String> product) {
-        this.product = product;
-    }
-
-    public List<String> getIssue() {
-        return issue;
-    }
-
-    public void setIssue(List<String> issue) {
-        this.issue = issue;
-    }
-
-    public List<String> getSolutionEnvironment() {
-        return solutionEnvironment;
-    }
-
-    @JsonSetter("solution_environment")
-    public void setSolutionEnvironment(Object value) {
-        this.solutionEnvironment = convertToList(value);
-    }
-
-    public List<String> getSolutionRootcause() {
-        return solutionRootcause;
-    }
-
-    @JsonSetter("solution_rootcause")
-    public void setSolutionRootcause(Object value) {
-        this.solutionRootcause = convertToList(value);
-    }
-
-    public List<String> getSolutionResolution() {
-        return solutionResolution;
-    }
-
-    @JsonSetter("solution_resolution")
-    public void setSolutionResolution(Object value) {
-        this.solutionResolution = convertToList(value);
-    }
-
-    public List<String> getSolutionDiagnosticsteps() {
-        return solutionDiagnosticsteps;
+    /**
+     * Copy holding only the search result fields, without the article body.
+     */
+    public KnowledgeBaseArticleDto withoutContent() {
+        return new KnowledgeBaseArticleDto(id, title, abstractText, documentKind, viewUri, product,
+                null, null, null, null, null, lastModifiedDate, null);
     }
 
-    @JsonSetter("solution_diagnosticsteps")
-    public void setSolutionDiagnosticsteps(Object value) {
-        this.solutionDiagnosticsteps = convertToList(value);
+    /**
+     * Formats the article to display as a search summary.
+     */
+    public String toSearchSummary() {
+        return appendSearchSummary(new StringBuilder(searchSummaryLength())).toString();
     }
 
     /**
-     * Converts a polymorphic JSON value to List<String>.
-     * Handles both List<String> and single String ("subscriber_only").
+     * Appends the search summary, as returned by {@link #toSearchSummary()}.
      */
-    @SuppressWarnings("unchecked")
-    private List<String> convertToList(Object value) {
-        if (value == null) {
-            return null;
-        }
-        if (value instanceof List) {
-            return (List<String>) value;
+    public StringBuilder appendSearchSummary(StringBuilder sb) {
+        sb.append("ID: ").append(id).append('\n');
+        sb.append("Type: ").append(documentKind != null ? documentKind : "N/A").append('\n');
+        sb.append("Title: ").append(title).append('\n');
+        sb.append("URL: ").append(viewUri).append('\n');
+        if (product != null && !product.isEmpty()) {
+            appendJoined(sb.append("Products: "), product).append('\n');
         }
-        if (value instanceof String str) {
-            if ("subscriber_only".equals(str)) {
-                return null;
+        if (abstractText != null && !abstractText.isEmpty()) {
+            sb.append("Summary: ");
+            if (abstractText.length() > MAX_SUMMARY_ABSTRACT) {
+                sb.append(abstractText, 0, MAX_SUMMARY_ABSTRACT).append("...");
+            } else {
+                sb.append(abstractText);
             }
-            return List.of(str);
+            sb.append('\n');
         }
-        return null;
-    }
-
-    public String getLastModifiedDate() {
-        return lastModifiedDate;
-    }
-
-    public void setLastModifiedDate(String lastModifiedDate) {
-        this.lastModifiedDate = lastModifiedDate;
-    }
-
-    public String getCreatedDate() {
-        return createdDate;
-    }
-
-    public void setCreatedDate(String createdDate) {
-        this.createdDate = createdDate;
+        return sb;
     }
 
     /**
-     * Formats the article to display as a search summary.
+     * Upper bound of the length of {@link #toSearchSummary()}, for sizing buffers.
      */
-    public String toSearchSummary() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("ID: ").append(id).append("\n");
-        sb.append("Type: ").append(documentKind != null ? documentKind : "N/A").append("\n");
-        sb.append("Title: ").append(title).append("\n");
-        sb.append("URL: ").append(viewUri).append("\n");
+    public int searchSummaryLength() {
+        // "ID: ", "Type: ", "Title: ", "URL: " and their line breaks
+        int length = 26 + length(id) + (documentKind != null ? documentKind.length() : 3) + length(title)
+                + length(viewUri);
         if (product != null && !product.isEmpty()) {
-            sb.append("Products: ").append(String.join(", ", product)).append("\n");
+            length += 11 + joinedLength(product);
         }
         if (abstractText != null && !abstractText.isEmpty()) {
-            String truncated = abstractText.length() > 200
-                ? abstractText.substring(0, 200) + "..."
-                : abstractText;
-            sb.append("Summary: ").append(truncated).append("\n");
+            length += 10 + Math.min(abstractText.length(), MAX_SUMMARY_ABSTRACT + 3);
         }
-        return sb.toString();
+        return length;
     }
 
     /**
      * Formats the article with full solution content.
      */
     public String toDetailedString() {
-        StringBuilder sb = new StringBuilder();
+        return appendDetailed(new StringBuilder(detailedLength())).toString();
+    }
+
+    /**
+     * Appends the full rendering, as returned by {@link #toDetailedString()}.
+     */
+    public StringBuilder appendDetailed(StringBuilder sb) {
         sb.append("=== ").append(documentKind != null ? documentKind : "Article").append(" ===\n\n");
-        sb.append("ID: ").append(id).append("\n");
-        sb.append("Title: ").append(title).append("\n");
-        sb.append("URL: ").append(viewUri).append("\n");
+        sb.append("ID: ").append(id).append('\n');
+        sb.append("Title: ").append(title).append('\n');
+        sb.append("URL: ").append(viewUri).append('\n');
 
         if (product != null && !product.isEmpty()) {
-            sb.append("Products: ").append(String.join(", ", product)).append("\n");
+            appendJoined(sb.append("Products: "), product).append('\n');
         }
 
-        if (solutionEnvironment != null && !solutionEnvironment.isEmpty()) {
-            sb.append("\n--- Environment ---\n");
-            for (String env : solutionEnvironment) {
-                sb.append(env).append("\n");
-            }
+        appendSection(sb, "\n--- Environment ---\n", solutionEnvironment);
+        appendSection(sb, "\n--- Issue ---\n", issue);
+        appendSection(sb, "\n--- Root Cause ---\n", solutionRootcause);
+        appendSection(sb, "\n--- Diagnostic Steps ---\n", solutionDiagnosticsteps);
+        appendSection(sb, "\n--- Resolution ---\n", solutionResolution);
+
+        if (lastModifiedDate != null) {
+            sb.append("\nLast Modified: ").append(lastModifiedDate).append('\n');
         }
+        return sb;
+    }
 
-        if (issue != null && !issue.isEmpty()) {
-            sb.append("\n--- Issue ---\n");
-            for (String iss : issue) {
-                sb.append(iss).append("\n");
-            }
+    /**
+     * Length of {@link #toDetailedString()}, for sizing buffers.
+     */
+    public int detailedLength() {
+        // Banner, "ID: ", "Title: ", "URL: " and their line breaks
+        int length = 29 + (documentKind != null ? documentKind.length() : 7) + length(id) + length(title)
+                + length(viewUri);
+        if (product != null && !product.isEmpty()) {
+            length += 11 + joinedLength(product);
+        }
+        length += sectionLength("\n--- Environment ---\n", solutionEnvironment)
+                + sectionLength("\n--- Issue ---\n", issue)
+                + sectionLength("\n--- Root Cause ---\n", solutionRootcause)
+                + sectionLength("\n--- Diagnostic Steps ---\n", solutionDiagnosticsteps)
+                + sectionLength("\n--- Resolution ---\n", solutionResolution);
+        if (lastModifiedDate != null) {
+            length += 17 + lastModifiedDate.length();
         }
+        return length;
+    }
 
-        if (solutionRootcause != null && !solutionRootcause.isEmpty()) {
-            sb.append("\n--- Root Cause ---\n");
-            for (String rc : solutionRootcause) {
-                sb.append(rc).append("\n");
-            }
+    private static void appendSection(StringBuilder sb, String header, List<String> paragraphs) {
+        if (paragraphs == null || paragraphs.isEmpty()) {
+            return;
+        }
+        sb.append(header);
+        for (String paragraph : paragraphs) {
+            sb.append(paragraph).append('\n');
         }
+    }
 
-        if (solutionDiagnosticsteps != null && !solutionDiagnosticsteps.isEmpty()) {
-            sb.append("\n--- Diagnostic Steps ---\n");
-            for (String step : solutionDiagnosticsteps) {
-                sb.append(step).append("\n");
-            }
+    private static int sectionLength(String header, List<String> paragraphs) {
+        if (paragraphs == null || paragraphs.isEmpty()) {
+            return 0;
+        }
+        int length = header.length();
+        for (String paragraph : paragraphs) {
+            length += length(paragraph) + 1;
         }
+        return length;
+    }
 
-        if (solutionResolution != null && !solutionResolution.isEmpty()) {
-            sb.append("\n--- Resolution ---\n");
-            for (String res : solutionResolution) {
-                sb.append(res).append("\n");
+    /**
+     * Appends the values separated by ", ", like {@link String#join} without the intermediate string.
+     */
+    public static StringBuilder appendJoined(StringBuilder sb, List<String> values) {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                sb.append(", ");
             }
+            sb.append(values.get(i));
         }
+        return sb;
+    }
 
-        if (lastModifiedDate != null) {
-            sb.append("\nLast Modified: ").append(lastModifiedDate).append("\n");
+    private static int joinedLength(List<String> values) {
+        int length = 2 * (values.size() - 1);
+        for (String value : values) {
+            length += length(value);
         }
+        return length;
+    }
 
-        return sb.toString();
+    // Length as appended: null is written as "null"
+    private static int length(String value) {
+        return value != null ? value.length() : 4;
     }
 }
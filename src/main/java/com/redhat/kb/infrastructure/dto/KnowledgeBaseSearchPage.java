@@ -0,0 +1,28 @@
+package com.redhat.kb.infrastructure.dto;
+
+import java.util.List;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * One page of Hydra search results.
+ *
+ * @param articles Results of this page, best first
+ * @param start Offset of the first result within the full result set
+ * @param numFound Total number of matches reported by Hydra
+ */
+@RegisterForReflection
+public record KnowledgeBaseSearchPage(List<KnowledgeBaseArticleDto> articles, int start, int numFound) {
+
+    public KnowledgeBaseSearchPage {
+        articles = List.copyOf(articles);
+    }
+
+    /**
+     * Offset of the result after this page, or -1 when this page is the last.
+     */
+    public int nextStart() {
+        int next = start + articles.size();
+        return !articles.isEmpty() && next < numFound ? next : -1;
+    }
+}
@@ -0,0 +1,55 @@
+package com.redhat.kb.infrastructure.dto;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Reads Hydra fields that hold either an array of strings or a single string into an unmodifiable list.
+ * Solution fields are a single {@code "subscriber_only"} marker when the content requires a subscription;
+ * the marker reads as null, like an absent field. Non-string array elements and other shapes are skipped.
+ */
+@RegisterForReflection
+public final class StringListDeserializer extends StdDeserializer<List<String>> {
+
+    static final String SUBSCRIBER_ONLY = "subscriber_only";
+
+    public StringListDeserializer() {
+        super(List.class);
+    }
+
+    @Override
+    public List<String> deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_STRING) {
+            String value = parser.getText();
+            return SUBSCRIBER_ONLY.equals(value) ? null : List.of(value);
+        }
+        if (token != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+
+        // Most fields hold one or two paragraphs
+        List<String> values = new ArrayList<>(2);
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY && token != null) {
+            if (token == JsonToken.VALUE_STRING) {
+                values.add(parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return switch (values.size()) {
+            case 0 -> List.of();
+            case 1 -> List.of(values.get(0));
+            default -> Collections.unmodifiableList(values);
+        };
+    }
+}
@@ -0,0 +1,374 @@
+package com.redhat.kb.infrastructure.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+
+import io.micrometer.core.instrument.Gauge;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * In-memory full-text index over every article the server has fetched, ranked with BM25.
+ * Lets searches be answered locally when Hydra is slow or unavailable.
+ * <p>
+ * Title, abstract, issue and solution text are indexed (title terms count three times).
+ * Product and documentKind filters are case-insensitive exact matches, like the Hydra {@code fq} filters.
+ * Re-indexing an article or evicting the oldest one beyond max-documents only marks the old document dead;
+ * documents are renumbered and posting lists purged once dead documents outnumber live ones.
+ */
+@ApplicationScoped
+public class LocalSearchIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_BOOST = 3;
+    private static final int MIN_TOKEN_LENGTH = 2;
+
+    private final boolean enabled;
+    private final int maxDocuments;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final Map<String, Integer> documentsByArticle = new HashMap<>();
+
+    // Indexed by document number; null once a document is replaced or evicted
+    private Document[] documents = new Document[64];
+    private int nextDocument;
+    private int oldestDocument;
+    private int liveDocuments;
+    private long totalLength;
+
+    @Inject
+    public LocalSearchIndex(RedHatApiConfig config, KnowledgeBaseMetrics metrics) {
+        this.enabled = config.localIndex().enabled();
+        this.maxDocuments = config.localIndex().maxDocuments();
+        Gauge.builder("kb.local.index.documents", this, LocalSearchIndex::size)
+                .description("Articles held by the local search index")
+                .register(metrics.registry());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Adds or replaces articles. A search summary does not replace an already indexed detailed copy
+     * of the same revision.
+     */
+    public void addAll(Collection<KnowledgeBaseArticleDto> articles) {
+        if (!enabled || articles.isEmpty()) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (KnowledgeBaseArticleDto article : articles) {
+                add(article);
+            }
+            while (liveDocuments > maxDocuments) {
+                removeDocument(oldestDocument);
+                oldestDocument++;
+            }
+            if (nextDocument - liveDocuments > liveDocuments) {
+                purge();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks indexed articles against the query. Returns search summaries, best match first.
+     *
+     * @param product Product filter, ignored when blank
+     * @param documentType documentKind filter, ignored when blank
+     */
+    public List<KnowledgeBaseArticleDto> search(String query, int maxResults, String product, String documentType) {
+        if (!enabled || query == null || maxResults <= 0) {
+            return List.of();
+        }
+        Set<String> terms = Set.copyOf(tokenize(query));
+        String productFilter = normalizeFilter(product);
+        String kindFilter = normalizeFilter(documentType);
+
+        lock.readLock().lock();
+        try {
+            if (liveDocuments == 0 || terms.isEmpty()) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / liveDocuments;
+            double[] scores = new double[nextDocument];
+
+            for (String term : terms) {
+                Postings list = postings.get(term);
+                if (list == null) {
+                    continue;
+                }
+                int documentFrequency = list.liveCount(documents);
+                if (documentFrequency == 0) {
+                    continue;
+                }
+                double idf = Math.log(1 + (liveDocuments - documentFrequency + 0.5) / (documentFrequency + 0.5));
+                for (int i = 0; i < list.size; i++) {
+                    int number = list.documents[i];
+                    Document document = documents[number];
+                    if (document == null || !document.matches(productFilter, kindFilter)) {
+                        continue;
+                    }
+                    int frequency = list.frequencies[i];
+                    double norm = K1 * (1 - B + B * document.length() / averageLength);
+                    scores[number] += idf * frequency * (K1 + 1) / (frequency + norm);
+                }
+            }
+
+            // Min-heap of the best document numbers seen so far
+            PriorityQueue<Integer> top = new PriorityQueue<>(maxResults + 1,
+                    (left, right) -> Double.compare(scores[left], scores[right]));
+            for (int number = 0; number < scores.length; number++) {
+                if (scores[number] > 0) {
+                    top.offer(number);
+                    if (top.size() > maxResults) {
+                        top.poll();
+                    }
+                }
+            }
+            KnowledgeBaseArticleDto[] results = new KnowledgeBaseArticleDto[top.size()];
+            for (int i = results.length - 1; i >= 0; i--) {
+                results[i] = documents[top.poll()].summary();
+            }
+            return List.of(results);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocuments;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void add(KnowledgeBaseArticleDto article) {
+        if (article == null || article.id() == null) {
+            return;
+        }
+        boolean detailed = isDetailed(article);
+        Integer existing = documentsByArticle.get(article.id());
+        if (existing != null) {
+            Document current = documents[existing];
+            if (!detailed && current.detailed()
+                    && Objects.equals(current.summary().lastModifiedDate(), article.lastModifiedDate())) {
+                return;
+            }
+            removeDocument(existing);
+        }
+
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (String token : tokenize(article.title())) {
+            frequencies.merge(token, TITLE_BOOST, Integer::sum);
+            length += TITLE_BOOST;
+        }
+        length += count(frequencies, article.abstractText());
+        length += count(frequencies, article.issue());
+        length += count(frequencies, article.solutionEnvironment());
+        length += count(frequencies, article.solutionRootcause());
+        length += count(frequencies, article.solutionResolution());
+        length += count(frequencies, article.solutionDiagnosticsteps());
+        if (length == 0) {
+            return;
+        }
+
+        if (nextDocument == documents.length) {
+            documents = Arrays.copyOf(documents, documents.length * 2);
+        }
+        int id = nextDocument++;
+        documents[id] = new Document(article.withoutContent(), detailed, length, products(article),
+                normalizeFilter(article.documentKind()));
+        documentsByArticle.put(article.id(), id);
+        liveDocuments++;
+        totalLength += length;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new Postings()).add(id, entry.getValue());
+        }
+    }
+
+    private void removeDocument(int id) {
+        Document removed = documents[id];
+        if (removed != null) {
+            documents[id] = null;
+            documentsByArticle.remove(removed.summary().id(), id);
+            liveDocuments--;
+            totalLength -= removed.length();
+        }
+    }
+
+    /**
+     * Renumbers live documents densely, keeping their order, and drops postings of dead documents
+     * and terms left without any.
+     */
+    private void purge() {
+        int[] renumbered = new int[nextDocument];
+        Document[] live = new Document[Math.max(64, Integer.highestOneBit(liveDocuments) * 2)];
+        int count = 0;
+        for (int number = 0; number < nextDocument; number++) {
+            Document document = documents[number];
+            renumbered[number] = document != null ? count : -1;
+            if (document != null) {
+                live[count] = document;
+                documentsByArticle.put(document.summary().id(), count);
+                count++;
+            }
+        }
+
+        Iterator<Postings> lists = postings.values().iterator();
+        while (lists.hasNext()) {
+            Postings list = lists.next();
+            list.renumber(renumbered);
+            if (list.size == 0) {
+                lists.remove();
+            }
+        }
+        documents = live;
+        nextDocument = count;
+        oldestDocument = 0;
+    }
+
+    private static int count(Map<String, Integer> frequencies, String text) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        return tokens.size();
+    }
+
+    private static int count(Map<String, Integer> frequencies, List<String> paragraphs) {
+        int length = 0;
+        if (paragraphs != null) {
+            for (String paragraph : paragraphs) {
+                length += count(frequencies, paragraph);
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Lowercased runs of letters and digits, ignoring HTML tag names and single characters.
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        boolean inTag = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            boolean wordChar = !inTag && Character.isLetterOrDigit(c);
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start >= MIN_TOKEN_LENGTH) {
+                    tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+            if (c == '<') {
+                inTag = true;
+            } else if (c == '>') {
+                inTag = false;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isDetailed(KnowledgeBaseArticleDto article) {
+        return article.issue() != null || article.solutionResolution() != null
+                || article.solutionRootcause() != null || article.solutionEnvironment() != null
+                || article.solutionDiagnosticsteps() != null;
+    }
+
+    private static Set<String> products(KnowledgeBaseArticleDto article) {
+        if (article.product() == null) {
+            return Set.of();
+        }
+        return article.product().stream()
+                .map(LocalSearchIndex::normalizeFilter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    private static String normalizeFilter(String value) {
+        return value == null || value.isBlank() ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private record Document(KnowledgeBaseArticleDto summary, boolean detailed, int length,
+                            Set<String> products, String documentKind) {
+
+        boolean matches(String product, String kind) {
+            return (product == null || products.contains(product))
+                    && (kind == null || kind.equals(documentKind));
+        }
+    }
+
+    /**
+     * Parallel growable arrays of document numbers and term frequencies, in insertion order.
+     */
+    private static final class Postings {
+        int[] documents = new int[4];
+        int[] frequencies = new int[4];
+        int size;
+
+        void add(int document, int frequency) {
+            if (size == documents.length) {
+                documents = Arrays.copyOf(documents, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            documents[size] = document;
+            frequencies[size] = frequency;
+            size++;
+        }
+
+        int liveCount(Document[] live) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                if (live[documents[i]] != null) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Maps document numbers through {@code renumbered}, dropping those mapped to -1.
+         */
+        void renumber(int[] renumbered) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                int number = renumbered[documents[i]];
+                if (number >= 0) {
+                    documents[kept] = number;
+                    frequencies[kept] = frequencies[i];
+                    kept++;
+                }
+            }
+            size = kept;
+        }
+    }
+}
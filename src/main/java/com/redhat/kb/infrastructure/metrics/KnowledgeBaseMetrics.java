@@ -0,0 +1,143 @@
+package com.redhat.kb.infrastructure.metrics;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Micrometer meters for MCP tool calls, upstream (Hydra, SSO) requests and the shared cache.
+ * Exposed in Prometheus format on {@code /q/metrics}.
+ */
+@ApplicationScoped
+public class KnowledgeBaseMetrics {
+
+    public static final String ENDPOINT_SEARCH = "hydra.search";
+    public static final String ENDPOINT_DETAIL = "hydra.detail";
+    public static final String ENDPOINT_PROBE = "hydra.probe";
+    public static final String ENDPOINT_BATCH = "hydra.batch";
+    public static final String ENDPOINT_SSO_TOKEN = "sso.token";
+
+    public static final String FORMAT_SUMMARY = "summary";
+    public static final String FORMAT_DETAIL = "detail";
+
+    public static final String LOCAL_SEARCH_FALLBACK = "fallback";
+    public static final String LOCAL_SEARCH_RACE = "race";
+
+    /**
+     * Status tag used when no HTTP response was received (connect failure, timeout).
+     */
+    public static final int STATUS_IO_ERROR = 0;
+
+    /**
+     * Status tag used when a request was abandoned before a response, e.g. the losing attempt of a hedged call.
+     */
+    public static final int STATUS_CANCELLED = -1;
+
+    private final MeterRegistry registry;
+
+    @Inject
+    public KnowledgeBaseMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public MeterRegistry registry() {
+        return registry;
+    }
+
+    /**
+     * Records one MCP tool invocation.
+     */
+    public void recordToolCall(String tool, boolean error, long durationNanos) {
+        Timer.builder("kb.tool.calls")
+                .description("MCP tool invocations")
+                .tag("tool", tool)
+                .tag("outcome", error ? "error" : "success")
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records one upstream HTTP exchange and the size of its response body.
+     */
+    public void recordUpstream(String endpoint, int status, long durationNanos, long responseBytes) {
+        String statusTag = switch (status) {
+            case STATUS_IO_ERROR -> "IO_ERROR";
+            case STATUS_CANCELLED -> "CANCELLED";
+            default -> Integer.toString(status);
+        };
+        Timer.builder("kb.upstream.requests")
+                .description("Upstream HTTP requests to Hydra and Red Hat SSO")
+                .tag("endpoint", endpoint)
+                .tag("status", statusTag)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(durationNanos, TimeUnit.NANOSECONDS);
+
+        if (responseBytes >= 0) {
+            DistributionSummary.builder("kb.upstream.response.size")
+                    .description("Upstream response body size")
+                    .baseUnit("bytes")
+                    .tag("endpoint", endpoint)
+                    .register(registry)
+                    .record(responseBytes);
+        }
+    }
+
+    /**
+     * Times JSON deserialization of an upstream response.
+     */
+    public <T> T timeParse(String endpoint, Callable<T> parser) throws Exception {
+        return Timer.builder("kb.json.parse")
+                .description("JSON deserialization of upstream responses")
+                .tag("endpoint", endpoint)
+                .register(registry)
+                .recordCallable(parser);
+    }
+
+    /**
+     * Times rendering of tool output.
+     */
+    public <T> T timeFormat(String kind, Supplier<T> formatter) {
+        return Timer.builder("kb.format")
+                .description("Rendering of tool output")
+                .tag("kind", kind)
+                .register(registry)
+                .record(formatter);
+    }
+
+    /**
+     * Counts returned articles per document type.
+     */
+    public void recordArticles(String endpoint, List<KnowledgeBaseArticleDto> articles) {
+        for (KnowledgeBaseArticleDto article : articles) {
+            registry.counter("kb.articles.returned",
+                    "endpoint", endpoint,
+                    "documentKind", article.documentKind() != null ? article.documentKind() : "unknown")
+                    .increment();
+        }
+    }
+
+    /**
+     * Counts searches answered from the local index instead of Hydra.
+     */
+    public void recordLocalSearch(String reason) {
+        registry.counter("kb.search.local", "reason", reason).increment();
+    }
+
+    /**
+     * Counts shared cache operations by outcome.
+     */
+    public void recordSharedCache(String operation, String outcome) {
+        registry.counter("kb.cluster.requests", "operation", operation, "outcome", outcome).increment();
+    }
+}
@@ -0,0 +1,513 @@
+package com.redhat.kb.infrastructure.store;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32C;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+
+import io.micrometer.core.instrument.Gauge;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+/**
+ * Optional on-disk store of fetched articles, so a restarted server starts with the articles it already knew.
+ * <p>
+ * Articles are appended as JSON records ({@code [length][crc32c][payload]}) to segment files that roll over
+ * at a fixed size. A memory-mapped {@link MappedIndex} maps each article ID to its latest record, so opening
+ * the store does not scan the segments. Replaced and removed records become garbage. When garbage exceeds
+ * the live data, the index fills up, or the store exceeds its size or entry cap, live records are copied
+ * (newest first, dropping the oldest over budget) into fresh segments and the old ones are deleted.
+ * <p>
+ * Only one process may use a directory: several STDIO servers started by the same user share the default one.
+ * The store takes an exclusive lock on a {@code store.lock} file in the directory when opened; if another process
+ * already holds it, the store stays disabled in this one.
+ * <p>
+ * The store is best-effort: I/O failures are logged and treated as misses, never surfaced to tool calls.
+ */
+@ApplicationScoped
+public class ArticleStore {
+
+    private static final Logger LOG = Logger.getLogger(ArticleStore.class);
+
+    private static final String LOCK_FILE = "store.lock";
+    private static final String INDEX_FILE = "index.dat";
+    private static final String COMPACTION_INDEX_FILE = "index.dat.compact";
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private final RedHatApiConfig.Store config;
+    private final ObjectMapper objectMapper;
+    private final KnowledgeBaseMetrics metrics;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Integer, FileChannel> segments = new HashMap<>();
+
+    private Path directory;
+    private FileChannel lockChannel;
+    private MappedIndex index;
+    private FileChannel activeSegment;
+    private int activeSegmentId;
+    private long activePosition;
+    private int lastSegmentId;
+    private long liveBytes;
+    private volatile long totalBytes;
+    private volatile boolean open;
+
+    /**
+     * An article read back from the store, with the time it was stored or last revalidated.
+     */
+    public record StoredArticle(KnowledgeBaseArticleDto article, Instant storedAt) {
+    }
+
+    @Inject
+    public ArticleStore(RedHatApiConfig config, ObjectMapper objectMapper, KnowledgeBaseMetrics metrics) {
+        this.config = config.store();
+        this.objectMapper = objectMapper;
+        this.metrics = metrics;
+        if (this.config.enabled()) {
+            try {
+                open(Path.of(this.config.directory()));
+            } catch (IOException | RuntimeException e) {
+                LOG.warnf("Article store disabled, cannot open %s: %s", this.config.directory(), e.getMessage());
+                closeQuietly();
+            }
+        }
+        Gauge.builder("kb.store.size", this, store -> store.totalBytes)
+                .description("Bytes used by the on-disk article store")
+                .baseUnit("bytes")
+                .register(metrics.registry());
+        Gauge.builder("kb.store.entries", this, ArticleStore::entries)
+                .description("Articles held by the on-disk article store")
+                .register(metrics.registry());
+    }
+
+    public boolean isEnabled() {
+        return open;
+    }
+
+    /**
+     * Reads an article from disk.
+     */
+    public Optional<StoredArticle> get(String articleId) {
+        if (!open || articleId == null) {
+            return Optional.empty();
+        }
+
+        MappedIndex.Entry entry;
+        ByteBuffer record;
+        lock.readLock().lock();
+        try {
+            if (!open) {
+                return Optional.empty();
+            }
+            entry = index.get(hash(articleId));
+            record = entry != null ? readRecord(entry) : null;
+        } catch (IOException e) {
+            LOG.warnf("Cannot read article %s from store: %s", articleId, e.getMessage());
+            record = null;
+            entry = null;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        StoredArticle stored = record != null ? decode(articleId, entry, record) : null;
+        metrics.registry().counter("kb.store.lookups", "result", stored != null ? "hit" : "miss").increment();
+        return Optional.ofNullable(stored);
+    }
+
+    /**
+     * Appends the article, replacing any earlier record for the same ID.
+     */
+    public void put(KnowledgeBaseArticleDto article) {
+        if (!open || article == null || article.id() == null) {
+            return;
+        }
+
+        byte[] payload;
+        try {
+            payload = objectMapper.writeValueAsBytes(article);
+        } catch (IOException e) {
+            LOG.warnf("Cannot serialize article %s: %s", article.id(), e.getMessage());
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (!open) {
+                return;
+            }
+            if (index.isFull()) {
+                compact();
+            }
+
+            long hash = hash(article.id());
+            int recordBytes = RECORD_HEADER_BYTES + payload.length;
+            FileChannel channel = activeSegment();
+            int offset = (int) activePosition;
+            writeFully(channel, encode(payload), offset);
+            activePosition += recordBytes;
+            totalBytes += recordBytes;
+
+            MappedIndex.Entry previous = index.get(hash);
+            if (index.put(hash, activeSegmentId, offset, payload.length, System.currentTimeMillis())) {
+                liveBytes += recordBytes - (previous != null ? RECORD_HEADER_BYTES + previous.length() : 0);
+            }
+            if (activePosition >= config.segmentBytes()) {
+                activeSegment = null;
+            }
+            if (needsCompaction()) {
+                compact();
+            }
+        } catch (IOException e) {
+            LOG.warnf("Cannot write article %s to store: %s", article.id(), e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Marks the stored copy as just revalidated, without rewriting it.
+     */
+    public void touch(String articleId) {
+        if (!open) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (open) {
+                index.touch(hash(articleId), System.currentTimeMillis());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String articleId) {
+        if (!open) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (open) {
+                MappedIndex.Entry removed = index.remove(hash(articleId));
+                if (removed != null) {
+                    liveBytes -= RECORD_HEADER_BYTES + removed.length();
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public long sizeBytes() {
+        return totalBytes;
+    }
+
+    public int entries() {
+        if (!open) {
+            return 0;
+        }
+        lock.readLock().lock();
+        try {
+            return open ? index.live() : 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lock.writeLock().lock();
+        try {
+            if (activeSegment != null) {
+                activeSegment.force(false);
+            }
+        } catch (IOException e) {
+            LOG.debugf("Cannot flush article store: %s", e.getMessage());
+        } finally {
+            closeQuietly();
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void open(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        lock(dir.resolve(LOCK_FILE));
+        Files.deleteIfExists(dir.resolve(COMPACTION_INDEX_FILE));
+        this.directory = dir;
+        this.index = MappedIndex.open(dir.resolve(INDEX_FILE), indexCapacity(config.maxEntries()));
+
+        Set<Integer> referenced = new HashSet<>();
+        index.forEach(entry -> {
+            referenced.add(entry.segment());
+            liveBytes += RECORD_HEADER_BYTES + entry.length();
+        });
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                int id = segmentId(file);
+                lastSegmentId = Math.max(lastSegmentId, id);
+                if (referenced.contains(id)) {
+                    segments.put(id, FileChannel.open(file, StandardOpenOption.READ));
+                    totalBytes += Files.size(file);
+                } else {
+                    // Left over from an interrupted compaction, or fully superseded
+                    Files.delete(file);
+                }
+            }
+        }
+
+        open = true;
+        LOG.infof("Article store opened at %s: %d articles, %d bytes", dir, index.live(), totalBytes);
+    }
+
+    /**
+     * Takes the directory's lock for the lifetime of this store. The lock is released by the OS when the
+     * process exits, so a crashed server does not keep the store locked.
+     */
+    private void lock(Path lockFile) throws IOException {
+        FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            if (channel.tryLock() == null) {
+                throw new IOException("in use by another process holding " + lockFile);
+            }
+        } catch (IOException | OverlappingFileLockException e) {
+            channel.close();
+            throw e instanceof IOException io ? io : new IOException("already open in this process", e);
+        }
+        lockChannel = channel;
+    }
+
+    private boolean needsCompaction() {
+        return totalBytes > config.maxBytes()
+                || index.live() > config.maxEntries()
+                || (totalBytes > config.segmentBytes() && liveBytes * 2 < totalBytes);
+    }
+
+    /**
+     * Copies live records, newest first, into new segments until three quarters of the size cap
+     * or of max-entries is used, then swaps in the new index and deletes the old segments.
+     */
+    private void compact() throws IOException {
+        List<MappedIndex.Entry> entries = new ArrayList<>(index.live());
+        index.forEach(entries::add);
+        entries.sort(Comparator.comparingLong(MappedIndex.Entry::storedAt).reversed());
+
+        long budget = config.maxBytes() - (config.maxBytes() >> 2);
+        int maxEntries = Math.min(config.maxEntries() - (config.maxEntries() >> 2), index.capacity() >> 1);
+        Path compactedFile = directory.resolve(COMPACTION_INDEX_FILE);
+        Map<Integer, FileChannel> written = new HashMap<>();
+        FileChannel out = null;
+        int outId = lastSegmentId;
+        long outPosition = 0;
+        long keptBytes = 0;
+
+        MappedIndex compacted = MappedIndex.open(compactedFile, index.capacity());
+        try {
+            for (MappedIndex.Entry entry : entries) {
+                int recordBytes = RECORD_HEADER_BYTES + entry.length();
+                if (keptBytes + recordBytes > budget || compacted.live() >= maxEntries) {
+                    break;
+                }
+                ByteBuffer record = readRecord(entry);
+                if (record == null) {
+                    continue;
+                }
+                if (out == null || outPosition + recordBytes > config.segmentBytes()) {
+                    outId++;
+                    out = createSegment(outId);
+                    written.put(outId, out);
+                    outPosition = 0;
+                }
+                writeFully(out, record, outPosition);
+                compacted.put(entry.hash(), outId, (int) outPosition, entry.length(), entry.storedAt());
+                outPosition += recordBytes;
+                keptBytes += recordBytes;
+            }
+            for (FileChannel channel : written.values()) {
+                channel.force(false);
+            }
+            compacted.close();
+        } catch (IOException | RuntimeException e) {
+            compacted.close();
+            Files.deleteIfExists(compactedFile);
+            for (Map.Entry<Integer, FileChannel> segment : written.entrySet()) {
+                segment.getValue().close();
+                Files.deleteIfExists(segmentPath(segment.getKey()));
+            }
+            throw e;
+        }
+
+        int before = index.live();
+        try {
+            index.close();
+            Files.move(compactedFile, directory.resolve(INDEX_FILE),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            index = MappedIndex.open(directory.resolve(INDEX_FILE), compacted.capacity());
+        } catch (IOException e) {
+            segments.putAll(written);
+            closeQuietly();
+            LOG.warnf("Article store disabled, cannot swap compacted index: %s", e.getMessage());
+            throw e;
+        }
+
+        for (Map.Entry<Integer, FileChannel> segment : segments.entrySet()) {
+            segment.getValue().close();
+            Files.deleteIfExists(segmentPath(segment.getKey()));
+        }
+        segments.clear();
+        segments.putAll(written);
+
+        lastSegmentId = outId;
+        activeSegment = out;
+        activeSegmentId = outId;
+        activePosition = outPosition;
+        liveBytes = keptBytes;
+        totalBytes = keptBytes;
+        LOG.infof("Compacted article store: kept %d of %d articles, %d bytes", index.live(), before, keptBytes);
+    }
+
+    private FileChannel activeSegment() throws IOException {
+        if (activeSegment == null) {
+            lastSegmentId++;
+            activeSegment = createSegment(lastSegmentId);
+            activeSegmentId = lastSegmentId;
+            activePosition = 0;
+            segments.put(activeSegmentId, activeSegment);
+        }
+        return activeSegment;
+    }
+
+    private FileChannel createSegment(int id) throws IOException {
+        return FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Reads a whole record, or returns null if its segment is gone or the record is damaged.
+     */
+    private ByteBuffer readRecord(MappedIndex.Entry entry) throws IOException {
+        FileChannel channel = segments.get(entry.segment());
+        if (channel == null) {
+            return null;
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + entry.length());
+        while (record.hasRemaining()) {
+            if (channel.read(record, entry.offset() + record.position()) < 0) {
+                return null;
+            }
+        }
+        record.flip();
+        int length = record.getInt(0);
+        int checksum = record.getInt(4);
+        if (length != entry.length() || checksum != checksum(record.array(), RECORD_HEADER_BYTES, length)) {
+            return null;
+        }
+        return record;
+    }
+
+    private StoredArticle decode(String articleId, MappedIndex.Entry entry, ByteBuffer record) {
+        try {
+            KnowledgeBaseArticleDto article = objectMapper.readValue(
+                    record.array(), RECORD_HEADER_BYTES, entry.length(), KnowledgeBaseArticleDto.class);
+            // A different ID means a 64-bit hash collision
+            return articleId.equals(article.id())
+                    ? new StoredArticle(article, Instant.ofEpochMilli(entry.storedAt()))
+                    : null;
+        } catch (IOException e) {
+            LOG.warnf("Cannot decode stored article %s: %s", articleId, e.getMessage());
+            return null;
+        }
+    }
+
+    private static ByteBuffer encode(byte[] payload) {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + payload.length);
+        record.putInt(payload.length);
+        record.putInt(checksum(payload, 0, payload.length));
+        record.put(payload);
+        return record.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the ID.
+     */
+    private static long hash(String articleId) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : articleId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static int indexCapacity(int maxEntries) {
+        // At least twice the entries, so the table is at most half full after compaction
+        return Integer.highestOneBit(Math.max(64, maxEntries) * 4 - 1);
+    }
+
+    private Path segmentPath(int id) {
+        return directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    private void closeQuietly() {
+        open = false;
+        try {
+            if (index != null) {
+                index.close();
+            }
+            for (FileChannel channel : segments.values()) {
+                channel.close();
+            }
+            if (lockChannel != null) {
+                // Closing the channel releases the lock
+                lockChannel.close();
+            }
+        } catch (IOException e) {
+            LOG.debugf("Cannot close article store: %s", e.getMessage());
+        }
+        segments.clear();
+        activeSegment = null;
+        lockChannel = null;
+    }
+}
@@ -0,0 +1,228 @@
+package com.redhat.kb.infrastructure.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * Fixed-capacity open-addressing hash table in a memory-mapped file, mapping an article ID hash
+ * to the location of its latest record in the segment files.
+ * <p>
+ * Slots are 32 bytes: hash, state, segment, offset, length and the time the record was stored.
+ * The state is written last, so a torn update leaves either the old slot or a slot whose record
+ * fails the CRC/ID check in {@link ArticleStore}. Not thread-safe; callers synchronize.
+ */
+final class MappedIndex implements Closeable {
+
+    private static final int MAGIC = 0x4B42494E;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int SLOT_BYTES = 32;
+
+    private static final int EMPTY = 0;
+    private static final int LIVE = 1;
+    private static final int DELETED = 2;
+
+    // Slot field offsets
+    private static final int HASH = 0;
+    private static final int STATE = 8;
+    private static final int SEGMENT = 12;
+    private static final int OFFSET = 16;
+    private static final int LENGTH = 20;
+    private static final int STORED_AT = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private int live;
+    private int used;
+
+    record Entry(long hash, int segment, int offset, int length, long storedAt) {
+    }
+
+    private MappedIndex(FileChannel channel, int capacity, boolean initialize) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) capacity * SLOT_BYTES);
+        if (initialize) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, capacity);
+        } else {
+            for (int slot = 0; slot < capacity; slot++) {
+                int state = buffer.getInt(position(slot) + STATE);
+                if (state != EMPTY) {
+                    used++;
+                }
+                if (state == LIVE) {
+                    live++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps an existing index, or creates an empty one with the given capacity (a power of two)
+     * when the file is missing or not a valid index. An existing index keeps its own capacity.
+     */
+    static MappedIndex open(Path file, int capacity) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() >= HEADER_BYTES) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+                channel.read(header, 0);
+                header.flip();
+                int magic = header.getInt();
+                int version = header.getInt();
+                int existingCapacity = header.getInt();
+                if (magic == MAGIC && version == VERSION && Integer.bitCount(existingCapacity) == 1
+                        && channel.size() == HEADER_BYTES + (long) existingCapacity * SLOT_BYTES) {
+                    return new MappedIndex(channel, existingCapacity, false);
+                }
+            }
+            channel.truncate(0);
+            return new MappedIndex(channel, capacity, true);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    Entry get(long hash) {
+        int slot = find(hash);
+        return slot >= 0 ? entry(slot) : null;
+    }
+
+    /**
+     * Inserts or replaces the location for a hash.
+     *
+     * @return false if a new slot is needed and the table is at its load limit
+     */
+    boolean put(long hash, int segment, int offset, int length, long storedAt) {
+        int slot = find(hash);
+        if (slot < 0) {
+            if (slot == Integer.MIN_VALUE) {
+                return false;
+            }
+            slot = -1 - slot;
+            if (buffer.getInt(position(slot) + STATE) != DELETED) {
+                if (isFull()) {
+                    return false;
+                }
+                used++;
+            }
+            live++;
+        }
+
+        int base = position(slot);
+        buffer.putLong(base + HASH, hash);
+        buffer.putInt(base + SEGMENT, segment);
+        buffer.putInt(base + OFFSET, offset);
+        buffer.putInt(base + LENGTH, length);
+        buffer.putLong(base + STORED_AT, storedAt);
+        buffer.putInt(base + STATE, LIVE);
+        return true;
+    }
+
+    /**
+     * Updates the stored time of a live entry without moving its record.
+     */
+    boolean touch(long hash, long storedAt) {
+        int slot = find(hash);
+        if (slot < 0) {
+            return false;
+        }
+        buffer.putLong(position(slot) + STORED_AT, storedAt);
+        return true;
+    }
+
+    Entry remove(long hash) {
+        int slot = find(hash);
+        if (slot < 0) {
+            return null;
+        }
+        Entry entry = entry(slot);
+        buffer.putInt(position(slot) + STATE, DELETED);
+        live--;
+        return entry;
+    }
+
+    void forEach(Consumer<Entry> action) {
+        for (int slot = 0; slot < capacity; slot++) {
+            if (buffer.getInt(position(slot) + STATE) == LIVE) {
+                action.accept(entry(slot));
+            }
+        }
+    }
+
+    /**
+     * True once live entries and tombstones fill three quarters of the slots.
+     */
+    boolean isFull() {
+        return used >= capacity - (capacity >> 2);
+    }
+
+    int live() {
+        return live;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        buffer.force();
+        channel.close();
+    }
+
+    /**
+     * Returns the live slot holding the hash, or {@code -1 - slot} for the first
+     * reusable slot on its probe sequence. Returns {@code Integer.MIN_VALUE} if the table has no room.
+     */
+    private int find(long hash) {
+        int start = (int) (hash ^ (hash >>> 32)) & mask;
+        int firstDeleted = -1;
+        for (int i = 0; i < capacity; i++) {
+            int slot = (start + i) & mask;
+            int base = position(slot);
+            int state = buffer.getInt(base + STATE);
+            if (state == EMPTY) {
+                return -1 - (firstDeleted >= 0 ? firstDeleted : slot);
+            }
+            if (buffer.getLong(base + HASH) == hash && state == LIVE) {
+                return slot;
+            }
+            if (state == DELETED && firstDeleted < 0) {
+                firstDeleted = slot;
+            }
+        }
+        return firstDeleted >= 0 ? -1 - firstDeleted : Integer.MIN_VALUE;
+    }
+
+    private Entry entry(int slot) {
+        int base = position(slot);
+        return new Entry(
+                buffer.getLong(base + HASH),
+                buffer.getInt(base + SEGMENT),
+                buffer.getInt(base + OFFSET),
+                buffer.getInt(base + LENGTH),
+                buffer.getLong(base + STORED_AT));
+    }
+
+    private static int position(int slot) {
+        return HEADER_BYTES + slot * SLOT_BYTES;
+    }
+}
@@ -0,0 +1,157 @@
+package com.redhat.kb.infrastructure.tracing;
+
+import java.net.http.HttpRequest;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * OpenTelemetry spans for MCP tool calls, service operations and upstream (Hydra, SSO) requests,
+ * exported over OTLP when the SDK is enabled ({@code quarkus.otel.sdk.disabled=false}).
+ * <p>
+ * The current span is bound to the thread. Executors running part of a tool call are wrapped with
+ * {@link io.opentelemetry.context.Context#taskWrapping}, so their spans join the submitter's trace;
+ * background jobs such as scheduled token refreshes and prefetch runs start traces of their own.
+ */
+@ApplicationScoped
+public class KnowledgeBaseTracing {
+
+    public static final AttributeKey<String> TOOL_NAME = AttributeKey.stringKey("gen_ai.tool.name");
+    public static final AttributeKey<String> MCP_METHOD = AttributeKey.stringKey("mcp.method.name");
+
+    public static final AttributeKey<Long> QUERY_LENGTH = AttributeKey.longKey("kb.query.length");
+    public static final AttributeKey<Long> ROWS = AttributeKey.longKey("kb.rows");
+    public static final AttributeKey<Long> START = AttributeKey.longKey("kb.start");
+    public static final AttributeKey<String> PRODUCT = AttributeKey.stringKey("kb.product");
+    public static final AttributeKey<String> DOCUMENT_KIND = AttributeKey.stringKey("kb.document_kind");
+    public static final AttributeKey<Long> RESULTS = AttributeKey.longKey("kb.results");
+    public static final AttributeKey<Long> NUM_FOUND = AttributeKey.longKey("kb.num_found");
+    public static final AttributeKey<String> ARTICLE_ID = AttributeKey.stringKey("kb.article.id");
+    public static final AttributeKey<Long> ARTICLES_REQUESTED = AttributeKey.longKey("kb.articles.requested");
+    public static final AttributeKey<Long> ARTICLES_CACHED = AttributeKey.longKey("kb.articles.cached");
+    public static final AttributeKey<Long> ARTICLES_MISSING = AttributeKey.longKey("kb.articles.missing");
+    public static final AttributeKey<Long> QUERIES = AttributeKey.longKey("kb.queries");
+    public static final AttributeKey<Long> QUERIES_FAILED = AttributeKey.longKey("kb.queries.failed");
+    public static final AttributeKey<String> CACHE = AttributeKey.stringKey("kb.cache");
+    public static final AttributeKey<String> LOCAL_SEARCH = AttributeKey.stringKey("kb.local_search");
+    public static final AttributeKey<String> FORMAT_KIND = AttributeKey.stringKey("kb.format.kind");
+
+    public static final AttributeKey<String> ENDPOINT = AttributeKey.stringKey("kb.endpoint");
+    public static final AttributeKey<String> HTTP_METHOD = AttributeKey.stringKey("http.request.method");
+    public static final AttributeKey<String> SERVER_ADDRESS = AttributeKey.stringKey("server.address");
+    public static final AttributeKey<String> URL_PATH = AttributeKey.stringKey("url.path");
+    public static final AttributeKey<Long> STATUS_CODE = AttributeKey.longKey("http.response.status_code");
+    public static final AttributeKey<Long> RESPONSE_SIZE = AttributeKey.longKey("http.response.body.size");
+    public static final AttributeKey<Boolean> CANCELLED = AttributeKey.booleanKey("kb.cancelled");
+
+    /** Served from the in-memory cache, or joined a load already in flight. */
+    public static final String CACHE_HIT = "hit";
+    /** Loaded from Hydra. */
+    public static final String CACHE_MISS = "miss";
+    /** Served by the replica owning the key. */
+    public static final String CACHE_SHARED = "shared";
+    /** Served from the on-disk article store. */
+    public static final String CACHE_STORE = "store";
+
+    private final Tracer tracer;
+
+    @Inject
+    public KnowledgeBaseTracing(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    /**
+     * Runs the body in a new internal span, child of the current one.
+     * An exception marks the span as failed and is rethrown.
+     */
+    public <T, E extends Exception> T inSpan(String name, SpanBody<T, E> body) throws E {
+        Span span = tracer.spanBuilder(name).setSpanKind(SpanKind.INTERNAL).startSpan();
+        try (Scope ignored = span.makeCurrent()) {
+            return body.run(span);
+        } catch (Throwable e) {
+            recordFailure(span, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    /**
+     * Starts a client span for one upstream HTTP exchange. The caller ends it once the body has been read,
+     * after {@link #recordResponse} or {@link #recordFailure}.
+     *
+     * @param endpoint metrics endpoint tag, e.g. {@code hydra.search}
+     */
+    public Span startUpstream(String endpoint, HttpRequest request) {
+        return tracer.spanBuilder(request.method() + " " + endpoint)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAttribute(ENDPOINT, endpoint)
+                .setAttribute(HTTP_METHOD, request.method())
+                .setAttribute(SERVER_ADDRESS, request.uri().getHost())
+                .setAttribute(URL_PATH, request.uri().getPath())
+                .startSpan();
+    }
+
+    /**
+     * Records the status and body size of an upstream response; a status of 400 or above marks the span as failed.
+     */
+    public static void recordResponse(Span span, int status, long responseBytes) {
+        span.setAttribute(STATUS_CODE, (long) status);
+        if (responseBytes >= 0) {
+            span.setAttribute(RESPONSE_SIZE, responseBytes);
+        }
+        if (status >= 400) {
+            span.setStatus(StatusCode.ERROR);
+        }
+    }
+
+    /**
+     * Marks the span as failed. An interrupt is recorded as a cancellation instead, since it is how a losing
+     * hedged attempt is abandoned.
+     */
+    public static void recordFailure(Span span, Throwable failure) {
+        if (failure instanceof InterruptedException) {
+            span.setAttribute(CANCELLED, true);
+            return;
+        }
+        span.recordException(failure);
+        span.setStatus(StatusCode.ERROR, String.valueOf(failure.getMessage()));
+    }
+
+    /**
+     * Records the arguments of a search. Only the length of the query is recorded, as it may quote logs.
+     */
+    public static void recordSearch(Span span, String query, int rows, int start, String product,
+                                    String documentKind) {
+        span.setAttribute(QUERY_LENGTH, query != null ? (long) query.length() : 0L);
+        span.setAttribute(ROWS, (long) rows);
+        span.setAttribute(START, (long) start);
+        if (product != null && !product.isBlank()) {
+            span.setAttribute(PRODUCT, product);
+        }
+        if (documentKind != null && !documentKind.isBlank()) {
+            span.setAttribute(DOCUMENT_KIND, documentKind);
+        }
+    }
+
+    /**
+     * Sets where the current operation's result came from, one of the {@code CACHE_*} values.
+     */
+    public static void recordCache(String source) {
+        Span.current().setAttribute(CACHE, source);
+    }
+
+    /**
+     * Body of a span, given the span to add attributes to.
+     */
+    @FunctionalInterface
+    public interface SpanBody<T, E extends Exception> {
+        T run(Span span) throws E;
+    }
+}
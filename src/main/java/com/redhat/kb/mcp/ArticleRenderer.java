@@ -0,0 +1,331 @@
+package com.redhat.kb.mcp;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+
+/**
+ * Compact and structured renderings of articles, for tools called with {@code format=compact} or
+ * {@code format=json}. The default text rendering stays in {@link KnowledgeBaseArticleDto}.
+ * <p>
+ * Solution fields arrive as HTML; here they are reduced to plain text, limited to the requested sections
+ * and capped per section, so full articles do not cost the client tens of KB of tokens.
+ */
+final class ArticleRenderer {
+
+    /**
+     * Per-section cap applied in compact and JSON output unless the caller sets one.
+     */
+    static final int DEFAULT_COMPACT_SECTION_CHARS = 1500;
+
+    static final String SECTIONS_DESCRIPTION = "Comma-separated sections to return: "
+            + "issue, environment, rootcause, diagnosticsteps, resolution (default: all)";
+
+    private static final int COMPACT_SUMMARY_CHARS = 160;
+
+    /**
+     * Article body sections, in the order they are rendered.
+     */
+    enum Section {
+        ENVIRONMENT("Environment", KnowledgeBaseArticleDto::solutionEnvironment),
+        ISSUE("Issue", KnowledgeBaseArticleDto::issue),
+        ROOTCAUSE("Root Cause", KnowledgeBaseArticleDto::solutionRootcause),
+        DIAGNOSTICSTEPS("Diagnostic Steps", KnowledgeBaseArticleDto::solutionDiagnosticsteps),
+        RESOLUTION("Resolution", KnowledgeBaseArticleDto::solutionResolution);
+
+        private final String title;
+        private final Function<KnowledgeBaseArticleDto, List<String>> content;
+
+        Section(String title, Function<KnowledgeBaseArticleDto, List<String>> content) {
+            this.title = title;
+            this.content = content;
+        }
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * @return all sections when blank
+         * @throws IllegalArgumentException for unknown names
+         */
+        static Set<Section> parse(String value) {
+            if (value == null || value.isBlank()) {
+                return EnumSet.allOf(Section.class);
+            }
+            Set<Section> sections = EnumSet.noneOf(Section.class);
+            for (String name : value.split(",")) {
+                String trimmed = name.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                try {
+                    sections.add(valueOf(trimmed.toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("invalid section - " + trimmed
+                            + " (use issue, environment, rootcause, diagnosticsteps or resolution)");
+                }
+            }
+            return sections.isEmpty() ? EnumSet.allOf(Section.class) : sections;
+        }
+    }
+
+    private ArticleRenderer() {
+        // Utility class
+    }
+
+    /**
+     * One line per result plus a shortened abstract.
+     */
+    static String compactResults(List<KnowledgeBaseArticleDto> results, String label, String value) {
+        return compactResults(results, label, value, 0, results.size());
+    }
+
+    /**
+     * Compact rendering of a page of results, numbered from {@code offset + 1}.
+     */
+    static String compactResults(List<KnowledgeBaseArticleDto> results, String label, String value, int offset,
+                                 int numFound) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(label).append(": ").append(value).append(" (");
+        if (offset > 0 || numFound > results.size()) {
+            sb.append(offset + 1).append('-').append(offset + results.size()).append(" of ");
+        }
+        sb.append(numFound).append(")\n");
+        for (int i = 0; i < results.size(); i++) {
+            KnowledgeBaseArticleDto article = results.get(i);
+            sb.append(offset + i + 1).append(". ").append(article.id())
+                    .append(" | ").append(article.documentKind() != null ? article.documentKind() : "N/A")
+                    .append(" | ").append(article.title())
+                    .append(" | ").append(article.viewUri()).append('\n');
+            if (article.abstractText() != null && !article.abstractText().isBlank()) {
+                sb.append("   ").append(truncate(plainText(article.abstractText()), COMPACT_SUMMARY_CHARS))
+                        .append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Article header and the selected sections as plain text, each capped at {@code maxSectionChars}
+     * (0 = unlimited).
+     */
+    static String compactDetail(KnowledgeBaseArticleDto article, Set<Section> sections, int maxSectionChars) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(article.id())
+                .append(" | ").append(article.documentKind() != null ? article.documentKind() : "Article")
+                .append(" | ").append(article.title()).append('\n');
+        sb.append(article.viewUri()).append('\n');
+        for (Map.Entry<String, String> section : sectionTexts(article, sections, maxSectionChars, true).entrySet()) {
+            sb.append("\n# ").append(section.getKey()).append('\n').append(section.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The default text rendering restricted to the selected sections and capped per section; HTML is kept.
+     */
+    static String textDetail(KnowledgeBaseArticleDto article, Set<Section> sections, int maxSectionChars) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("=== ").append(article.documentKind() != null ? article.documentKind() : "Article")
+                .append(" ===\n\n");
+        sb.append("ID: ").append(article.id()).append("\n");
+        sb.append("Title: ").append(article.title()).append("\n");
+        sb.append("URL: ").append(article.viewUri()).append("\n");
+        if (article.product() != null && !article.product().isEmpty()) {
+            KnowledgeBaseArticleDto.appendJoined(sb.append("Products: "), article.product()).append('\n');
+        }
+        for (Map.Entry<String, String> section : sectionTexts(article, sections, maxSectionChars, false).entrySet()) {
+            sb.append("\n--- ").append(section.getKey()).append(" ---\n").append(section.getValue()).append("\n");
+        }
+        if (article.lastModifiedDate() != null) {
+            sb.append("\nLast Modified: ").append(article.lastModifiedDate()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    static StructuredOutput.Summary summary(KnowledgeBaseArticleDto article) {
+        String abstractText = article.abstractText() != null
+                ? truncate(plainText(article.abstractText()), COMPACT_SUMMARY_CHARS)
+                : null;
+        return new StructuredOutput.Summary(article.id(), article.title(), article.documentKind(),
+                article.viewUri(), article.product(), abstractText, article.lastModifiedDate());
+    }
+
+    static StructuredOutput.Article structured(KnowledgeBaseArticleDto article, Set<Section> sections,
+                                               int maxSectionChars) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (Section section : sections) {
+            String text = sectionText(article, section, maxSectionChars, true);
+            if (text != null) {
+                texts.put(section.key(), text);
+            }
+        }
+        return new StructuredOutput.Article(article.id(), article.title(), article.documentKind(),
+                article.viewUri(), article.product(), texts, article.lastModifiedDate());
+    }
+
+    private static Map<String, String> sectionTexts(KnowledgeBaseArticleDto article, Set<Section> sections,
+                                                    int maxSectionChars, boolean plain) {
+        Map<String, String> texts = new LinkedHashMap<>();
+        for (Section section : sections) {
+            String text = sectionText(article, section, maxSectionChars, plain);
+            if (text != null) {
+                texts.put(section.title, text);
+            }
+        }
+        return texts;
+    }
+
+    private static String sectionText(KnowledgeBaseArticleDto article, Section section, int maxChars,
+                                      boolean plain) {
+        List<String> paragraphs = section.content.apply(article);
+        if (paragraphs == null || paragraphs.isEmpty()) {
+            return null;
+        }
+        List<String> parts = new ArrayList<>(paragraphs.size());
+        for (String paragraph : paragraphs) {
+            String text = plain ? plainText(paragraph) : paragraph;
+            if (!text.isBlank()) {
+                parts.add(text.strip());
+            }
+        }
+        if (parts.isEmpty()) {
+            return null;
+        }
+        return truncate(String.join("\n", parts), maxChars);
+    }
+
+    /**
+     * Cuts text longer than {@code maxChars} (0 = unlimited) and says how much was left out.
+     */
+    static String truncate(String text, int maxChars) {
+        if (maxChars <= 0 || text.length() <= maxChars) {
+            return text;
+        }
+        int end = maxChars;
+        if (Character.isHighSurrogate(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.substring(0, end) + "... [" + (text.length() - end) + " more chars]";
+    }
+
+    /**
+     * Reduces HTML to plain text: tags removed, block elements and {@code <br>} as line breaks,
+     * list items prefixed with "- ", common entities decoded and runs of blank lines collapsed.
+     * Whitespace inside {@code <pre>} is preserved.
+     */
+    static String plainText(String html) {
+        if (html.indexOf('<') < 0 && html.indexOf('&') < 0) {
+            return html;
+        }
+        StringBuilder out = new StringBuilder(html.length());
+        int preDepth = 0;
+        int i = 0;
+        while (i < html.length()) {
+            char c = html.charAt(i);
+            if (c == '<') {
+                int end = html.indexOf('>', i);
+                if (end < 0) {
+                    out.append(html, i, html.length());
+                    break;
+                }
+                String tag = tagName(html, i + 1, end);
+                boolean closing = html.charAt(i + 1) == '/';
+                switch (tag) {
+                    case "pre" -> {
+                        preDepth = Math.max(0, preDepth + (closing ? -1 : 1));
+                        newline(out);
+                    }
+                    case "br", "p", "div", "tr", "h1", "h2", "h3", "h4", "h5", "h6", "ul", "ol", "table" ->
+                            newline(out);
+                    case "li" -> {
+                        if (!closing) {
+                            newline(out);
+                            out.append("- ");
+                        }
+                    }
+                    case "td", "th" -> {
+                        if (out.length() > 0 && !Character.isWhitespace(out.charAt(out.length() - 1))) {
+                            out.append(' ');
+                        }
+                    }
+                    default -> {
+                        // Inline tags are dropped
+                    }
+                }
+                i = end + 1;
+            } else if (c == '&') {
+                int end = html.indexOf(';', i);
+                String decoded = end > i && end - i <= 8 ? entity(html.substring(i + 1, end)) : null;
+                if (decoded != null) {
+                    out.append(decoded);
+                    i = end + 1;
+                } else {
+                    out.append(c);
+                    i++;
+                }
+            } else if (preDepth == 0 && Character.isWhitespace(c)) {
+                if (out.length() > 0 && !Character.isWhitespace(out.charAt(out.length() - 1))) {
+                    out.append(' ');
+                }
+                i++;
+            } else {
+                out.append(c);
+                i++;
+            }
+        }
+        return out.toString().replaceAll("[ \\t]+\\n", "\n").replaceAll("\\n{3,}", "\n\n").strip();
+    }
+
+    private static String tagName(String html, int start, int end) {
+        int from = html.charAt(start) == '/' ? start + 1 : start;
+        int to = from;
+        while (to < end && Character.isLetterOrDigit(html.charAt(to))) {
+            to++;
+        }
+        return html.substring(from, to).toLowerCase(Locale.ROOT);
+    }
+
+    private static void newline(StringBuilder out) {
+        while (out.length() > 0 && out.charAt(out.length() - 1) == ' ') {
+            out.setLength(out.length() - 1);
+        }
+        if (out.length() > 0 && out.charAt(out.length() - 1) != '\n') {
+            out.append('\n');
+        }
+    }
+
+    private static String entity(String name) {
+        return switch (name) {
+            case "amp" -> "&";
+            case "lt" -> "<";
+            case "gt" -> ">";
+            case "quot" -> "\"";
+            case "apos", "#39" -> "'";
+            case "nbsp" -> " ";
+            default -> {
+                if (name.startsWith("#x") || name.startsWith("#X")) {
+                    yield codePoint(name.substring(2), 16);
+                }
+                yield name.startsWith("#") ? codePoint(name.substring(1), 10) : null;
+            }
+        };
+    }
+
+    private static String codePoint(String digits, int radix) {
+        try {
+            int codePoint = Integer.parseInt(digits, radix);
+            return Character.isValidCodePoint(codePoint) ? Character.toString(codePoint) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,46 +1,95 @@
 package com.redhat.kb.mcp;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.redhat.kb.application.service.KnowledgeBaseService;
+import com.redhat.kb.infrastructure.client.CallerToken;
+import com.redhat.kb.infrastructure.client.UpstreamOverloadedException;
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
 import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseSearchPage;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.redhat.kb.infrastructure.tracing.KnowledgeBaseTracing;
+import io.quarkiverse.mcp.server.Progress;
 import io.quarkiverse.mcp.server.TextContent;
 import io.quarkiverse.mcp.server.Tool;
 import io.quarkiverse.mcp.server.ToolArg;
 import io.quarkiverse.mcp.server.ToolResponse;
+import io.quarkus.arc.Arc;
+import io.opentelemetry.api.trace.StatusCode;
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import io.smallrye.common.annotation.RunOnVirtualThread;
 import io.smallrye.mutiny.Uni;
+import io.vertx.ext.web.RoutingContext;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
 
 import static com.redhat.kb.KnowledgeBaseConstants.DEFAULT_MAX_RESULTS;
 import static com.redhat.kb.KnowledgeBaseConstants.DEFAULT_PRODUCT;
 import static com.redhat.kb.KnowledgeBaseConstants.ERROR_NOT_CONFIGURED;
+import static com.redhat.kb.KnowledgeBaseConstants.MAX_BATCH_IDS;
+import static com.redhat.kb.KnowledgeBaseConstants.MAX_ERROR_TEXT_LENGTH;
+import static com.redhat.kb.KnowledgeBaseConstants.MAX_PAGES;
 import static com.redhat.kb.KnowledgeBaseConstants.MAX_QUERY_LENGTH;
 import static com.redhat.kb.KnowledgeBaseConstants.MAX_RESULTS;
 import static com.redhat.kb.KnowledgeBaseConstants.MIN_RESULTS;
 
 /**
  * MCP Tools for Red Hat Knowledge Base.
+ * Tools return {@link Uni} but call blocking HTTP clients, so they are dispatched to virtual threads
+ * instead of the event loop (the default for {@code Uni} return types).
  */
 @ApplicationScoped
+@RunOnVirtualThread
 public class KnowledgeBaseTools {
 
     private static final Logger LOG = Logger.getLogger(KnowledgeBaseTools.class);
+    // KCS article and solution IDs are numeric; anything else would be parsed as query syntax in id:...
+    private static final Pattern ARTICLE_ID = Pattern.compile("\\d+");
+    private static final String MAX_SECTION_CHARS_DESCRIPTION =
+            "Max characters per section, 0 = unlimited (default: unlimited for text, 1500 for compact and json)";
 
     @Inject
     KnowledgeBaseService kbService;
 
+    @Inject
+    KnowledgeBaseMetrics metrics;
+
+    @Inject
+    KnowledgeBaseTracing tracing;
+
+    @Inject
+    RedHatApiConfig config;
+
+    @Inject
+    CurrentVertxRequest currentRequest;
+
+    @Inject
+    ObjectMapper objectMapper;
+
     @Tool(description = "Search Red Hat Knowledge Base for solutions and articles. "
-            + "Use error messages or technical keywords. Filter by product or documentType.")
+            + "Use error messages or technical keywords. Filter by product or documentType. "
+            + "Responses with more matches include a cursor for the next page.")
     public Uni<ToolResponse> searchKnowledgeBase(
             @ToolArg(description = "Search keywords") String query,
-            @ToolArg(description = "Max results 1-50 (default: 10)", defaultValue = "") String maxResultsStr,
+            @ToolArg(description = "Max results per page 1-50 (default: 10)", defaultValue = "") String maxResultsStr,
             @ToolArg(description = "Product filter: 'Red Hat OpenShift Container Platform', 'Red Hat Enterprise Linux' (default: Red Hat OpenShift Container Platform)", defaultValue = "") String product,
-            @ToolArg(description = "Type: 'Solution', 'Documentation', 'Article'", defaultValue = "") String documentType) {
+            @ToolArg(description = "Type: 'Solution', 'Documentation', 'Article'", defaultValue = "") String documentType,
+            @ToolArg(description = OutputFormat.DESCRIPTION, defaultValue = "") String format,
+            @ToolArg(description = SearchCursor.DESCRIPTION, defaultValue = "") String cursor,
+            @ToolArg(description = "Pages to return in this call 1-5 (default: 1); each page is sent as a "
+                    + "progress notification as soon as it arrives", defaultValue = "") String pages,
+            Progress progress) {
 
-        return Uni.createFrom().item(() -> {
+        return Uni.createFrom().item(() -> timed("searchKnowledgeBase", () -> {
             if (!kbService.isConfigured()) {
                 return ToolResponse.error(ERROR_NOT_CONFIGURED);
             }
@@ -52,52 +101,128 @@ public class KnowledgeBaseTools {
             }
 
             try {
+                OutputFormat outputFormat = OutputFormat.parse(format);
                 int limit = parseMaxResults(maxResultsStr);
+                int pageCount = parsePages(pages);
                 String validProduct = (product == null || product.isBlank()) ? "" : product.trim();
                 String validDocType = (documentType == null || documentType.isBlank()) ? "" : documentType.trim();
+                int start = SearchCursor.decode(cursor, query, validProduct, validDocType);
 
-                List<KnowledgeBaseArticleDto> results = kbService.search(query.trim(), limit, validProduct, validDocType);
+                List<KnowledgeBaseSearchPage> results = kbService.searchPages(query.trim(), limit, start, pageCount,
+                        validProduct, validDocType, page -> notifyPage(progress, page, query, start, limit, pageCount));
+                KnowledgeBaseSearchPage first = results.get(0);
+                KnowledgeBaseSearchPage last = results.get(results.size() - 1);
+                List<KnowledgeBaseArticleDto> articles = results.size() == 1 ? first.articles()
+                        : results.stream().flatMap(page -> page.articles().stream()).toList();
+                String nextCursor = SearchCursor.canPage(last.nextStart())
+                        ? SearchCursor.encode(last.nextStart(), query, validProduct, validDocType)
+                        : null;
 
-                if (results.isEmpty()) {
-                    return ToolResponse.success(new TextContent("No results found for: " + query));
+                if (articles.isEmpty() && outputFormat != OutputFormat.JSON) {
+                    return ToolResponse.success(new TextContent(
+                            (start > 0 ? "No more results for: " : "No results found for: ") + query));
                 }
-                return ToolResponse.success(new TextContent(formatResults(results, "Search", query)));
+                return renderPage(articles, query, first.start(), last.numFound(), nextCursor, outputFormat);
+            } catch (IllegalArgumentException e) {
+                return ToolResponse.error("Error: " + e.getMessage());
             } catch (Exception e) {
                 LOG.errorf("Search failed: %s", e.getMessage());
                 return ToolResponse.error(formatError("Search failed", e));
             }
-        });
+        }));
     }
 
     @Tool(description = "Get full content of a Knowledge Base article. Use article ID from search results.")
-    public Uni<ToolResponse> getSolution(@ToolArg(description = "Article ID (numeric)") String solutionId) {
-        return Uni.createFrom().item(() -> {
+    public Uni<ToolResponse> getSolution(
+            @ToolArg(description = "Article ID (numeric)") String solutionId,
+            @ToolArg(description = OutputFormat.DESCRIPTION, defaultValue = "") String format,
+            @ToolArg(description = ArticleRenderer.SECTIONS_DESCRIPTION, defaultValue = "") String sections,
+            @ToolArg(description = MAX_SECTION_CHARS_DESCRIPTION, defaultValue = "") String maxSectionChars) {
+        return Uni.createFrom().item(() -> timed("getSolution", () -> {
             if (!kbService.isConfigured()) {
                 return ToolResponse.error(ERROR_NOT_CONFIGURED);
             }
             if (solutionId == null || solutionId.isBlank()) {
                 return ToolResponse.error("Error: solutionId is required");
             }
+            String id = solutionId.trim();
+            if (!ARTICLE_ID.matcher(id).matches()) {
+                return ToolResponse.error("Error: invalid article ID - " + id);
+            }
 
             try {
-                Optional<KnowledgeBaseArticleDto> solution = kbService.getArticle(solutionId.trim());
+                DetailOptions options = DetailOptions.parse(format, sections, maxSectionChars);
+                Optional<KnowledgeBaseArticleDto> solution = kbService.getArticle(id);
                 if (solution.isEmpty()) {
                     return ToolResponse.error("Error: Solution not found - " + solutionId);
                 }
-                return ToolResponse.success(new TextContent(solution.get().toDetailedString()));
+                return renderArticles(new KnowledgeBaseService.ArticleBatch(List.of(solution.get()), List.of()),
+                        options);
+            } catch (IllegalArgumentException e) {
+                return ToolResponse.error("Error: " + e.getMessage());
             } catch (Exception e) {
                 LOG.errorf("Get solution failed: %s", e.getMessage());
                 return ToolResponse.error(formatError("Get solution failed", e));
             }
-        });
+        }));
+    }
+
+    @Tool(description = "Get full content of several Knowledge Base articles in one call. "
+            + "Prefer this over repeated getSolution calls when reading multiple search results.")
+    public Uni<ToolResponse> getSolutions(
+            @ToolArg(description = "Comma-separated article IDs (max 20)") String solutionIds,
+            @ToolArg(description = OutputFormat.DESCRIPTION, defaultValue = "") String format,
+            @ToolArg(description = ArticleRenderer.SECTIONS_DESCRIPTION, defaultValue = "") String sections,
+            @ToolArg(description = MAX_SECTION_CHARS_DESCRIPTION, defaultValue = "") String maxSectionChars) {
+        return Uni.createFrom().item(() -> timed("getSolutions", () -> {
+            if (!kbService.isConfigured()) {
+                return ToolResponse.error(ERROR_NOT_CONFIGURED);
+            }
+            if (solutionIds == null || solutionIds.isBlank()) {
+                return ToolResponse.error("Error: solutionIds is required");
+            }
+
+            List<String> ids = new ArrayList<>();
+            for (String id : solutionIds.split(",")) {
+                String trimmed = id.trim();
+                if (trimmed.isEmpty()) {
+                    continue;
+                }
+                if (!ARTICLE_ID.matcher(trimmed).matches()) {
+                    return ToolResponse.error("Error: invalid article ID - " + trimmed);
+                }
+                ids.add(trimmed);
+            }
+            if (ids.isEmpty()) {
+                return ToolResponse.error("Error: solutionIds is required");
+            }
+            if (ids.size() > MAX_BATCH_IDS) {
+                return ToolResponse.error("Error: too many IDs (max " + MAX_BATCH_IDS + ")");
+            }
+
+            try {
+                DetailOptions options = DetailOptions.parse(format, sections, maxSectionChars);
+                KnowledgeBaseService.ArticleBatch batch = kbService.getArticles(ids);
+                if (batch.articles().isEmpty()) {
+                    return ToolResponse.error("Error: Solutions not found - " + String.join(", ", batch.missingIds()));
+                }
+                return renderArticles(batch, options);
+            } catch (IllegalArgumentException e) {
+                return ToolResponse.error("Error: " + e.getMessage());
+            } catch (Exception e) {
+                LOG.errorf("Get solutions failed: %s", e.getMessage());
+                return ToolResponse.error(formatError("Get solutions failed", e));
+            }
+        }));
     }
 
     @Tool(description = "Search for solutions to an error message. Optimized for troubleshooting.")
     public Uni<ToolResponse> troubleshootError(
             @ToolArg(description = "Error message") String errorMessage,
-            @ToolArg(description = "Product (default: Red Hat OpenShift Container Platform)", defaultValue = "") String product) {
+            @ToolArg(description = "Product (default: Red Hat OpenShift Container Platform)", defaultValue = "") String product,
+            @ToolArg(description = OutputFormat.DESCRIPTION, defaultValue = "") String format) {
 
-        return Uni.createFrom().item(() -> {
+        return Uni.createFrom().item(() -> timed("troubleshootError", () -> {
             if (!kbService.isConfigured()) {
                 return ToolResponse.error(ERROR_NOT_CONFIGURED);
             }
@@ -109,26 +234,71 @@ public class KnowledgeBaseTools {
             }
 
             try {
+                OutputFormat outputFormat = OutputFormat.parse(format);
                 String validProduct = (product == null || product.isBlank()) ? DEFAULT_PRODUCT : product.trim();
                 List<KnowledgeBaseArticleDto> results = kbService.searchForError(errorMessage.trim(), validProduct);
 
-                if (results.isEmpty()) {
+                if (results.isEmpty() && outputFormat != OutputFormat.JSON) {
                     return ToolResponse.success(new TextContent("No solutions found for error: " + errorMessage));
                 }
-                return ToolResponse.success(new TextContent(formatResults(results, "Error", errorMessage)));
+                return renderResults(results, "Error", errorMessage, outputFormat);
+            } catch (IllegalArgumentException e) {
+                return ToolResponse.error("Error: " + e.getMessage());
             } catch (Exception e) {
                 LOG.errorf("Troubleshoot failed: %s", e.getMessage());
                 return ToolResponse.error(formatError("Troubleshoot failed", e));
             }
-        });
+        }));
+    }
+
+    @Tool(description = "Search for solutions to a long error message, log excerpt or stack trace. "
+            + "Runs several focused queries (exception, message, component) in parallel and merges the results; "
+            + "use instead of repeated troubleshootError or searchKnowledgeBase calls.")
+    public Uni<ToolResponse> investigateError(
+            @ToolArg(description = "Error message, log lines or stack trace") String errorText,
+            @ToolArg(description = "Max results 1-50 (default: 10)", defaultValue = "") String maxResultsStr,
+            @ToolArg(description = "Product (default: Red Hat OpenShift Container Platform)", defaultValue = "") String product,
+            @ToolArg(description = OutputFormat.DESCRIPTION, defaultValue = "") String format) {
+
+        return Uni.createFrom().item(() -> timed("investigateError", () -> {
+            if (!kbService.isConfigured()) {
+                return ToolResponse.error(ERROR_NOT_CONFIGURED);
+            }
+            if (errorText == null || errorText.isBlank()) {
+                return ToolResponse.error("Error: errorText is required");
+            }
+            if (errorText.length() > MAX_ERROR_TEXT_LENGTH) {
+                return ToolResponse.error("Error: errorText too long (max " + MAX_ERROR_TEXT_LENGTH + " chars)");
+            }
+
+            try {
+                OutputFormat outputFormat = OutputFormat.parse(format);
+                int limit = parseMaxResults(maxResultsStr);
+                String validProduct = (product == null || product.isBlank()) ? DEFAULT_PRODUCT : product.trim();
+                KnowledgeBaseService.FanOutSearch search =
+                        kbService.searchForErrorFanOut(errorText, limit, validProduct);
+
+                if (search.articles().isEmpty() && outputFormat != OutputFormat.JSON) {
+                    return ToolResponse.success(new TextContent(
+                            "No solutions found for queries: " + String.join(" | ", search.queries())));
+                }
+                return renderFanOut(search, outputFormat);
+            } catch (IllegalArgumentException e) {
+                return ToolResponse.error("Error: " + e.getMessage());
+            } catch (Exception e) {
+                LOG.errorf("Investigate error failed: %s", e.getMessage());
+                return ToolResponse.error(formatError("Investigate error failed", e));
+            }
+        }));
     }
 
     @Tool(description = "Find KB solutions for a Prometheus/OpenShift alert name.")
     public Uni<ToolResponse> findSolutionForAlert(
             @ToolArg(description = "Alert name (e.g., 'KubePodCrashLooping')") String alertName,
-            @ToolArg(description = "Product (default: Red Hat OpenShift Container Platform)", defaultValue = "") String product) {
+            @ToolArg(description = "Product (default: Red Hat OpenShift Container Platform)", defaultValue = "") String product,
+            @ToolArg(description = OutputFormat.DESCRIPTION, defaultValue = "") String format) {
 
-        return Uni.createFrom().item(() -> {
+        return Uni.createFrom().item(() -> timed("findSolutionForAlert", () -> {
             if (!kbService.isConfigured()) {
                 return ToolResponse.error(ERROR_NOT_CONFIGURED);
             }
@@ -140,26 +310,30 @@ public class KnowledgeBaseTools {
             }
 
             try {
+                OutputFormat outputFormat = OutputFormat.parse(format);
                 String validProduct = (product == null || product.isBlank()) ? DEFAULT_PRODUCT : product.trim();
                 List<KnowledgeBaseArticleDto> results = kbService.searchForError(alertName.trim(), validProduct);
 
-                if (results.isEmpty()) {
+                if (results.isEmpty() && outputFormat != OutputFormat.JSON) {
                     return ToolResponse.success(new TextContent("No solutions found for alert: " + alertName));
                 }
-                return ToolResponse.success(new TextContent(formatResults(results, "Alert", alertName)));
+                return renderResults(results, "Alert", alertName, outputFormat);
+            } catch (IllegalArgumentException e) {
+                return ToolResponse.error("Error: " + e.getMessage());
             } catch (Exception e) {
                 LOG.errorf("Find solution for alert failed: %s", e.getMessage());
                 return ToolResponse.error(formatError("Find solution failed", e));
             }
-        });
+        }));
     }
 
     @Tool(description = "Search Red Hat documentation for how-to guides and best practices.")
     public Uni<ToolResponse> searchDocumentation(
             @ToolArg(description = "Topic to search") String topic,
-            @ToolArg(description = "Product (default: Red Hat OpenShift Container Platform)", defaultValue = "") String product) {
+            @ToolArg(description = "Product (default: Red Hat OpenShift Container Platform)", defaultValue = "") String product,
+            @ToolArg(description = OutputFormat.DESCRIPTION, defaultValue = "") String format) {
 
-        return Uni.createFrom().item(() -> {
+        return Uni.createFrom().item(() -> timed("searchDocumentation", () -> {
             if (!kbService.isConfigured()) {
                 return ToolResponse.error(ERROR_NOT_CONFIGURED);
             }
@@ -171,41 +345,242 @@ public class KnowledgeBaseTools {
             }
 
             try {
+                OutputFormat outputFormat = OutputFormat.parse(format);
                 String validProduct = (product == null || product.isBlank()) ? DEFAULT_PRODUCT : product.trim();
                 List<KnowledgeBaseArticleDto> results = kbService.searchDocumentation(topic.trim(), validProduct);
 
-                if (results.isEmpty()) {
+                if (results.isEmpty() && outputFormat != OutputFormat.JSON) {
                     return ToolResponse.success(new TextContent("No documentation found for: " + topic));
                 }
-                return ToolResponse.success(new TextContent(formatResults(results, "Topic", topic)));
+                return renderResults(results, "Topic", topic, outputFormat);
+            } catch (IllegalArgumentException e) {
+                return ToolResponse.error("Error: " + e.getMessage());
             } catch (Exception e) {
                 LOG.errorf("Search documentation failed: %s", e.getMessage());
                 return ToolResponse.error(formatError("Search documentation failed", e));
             }
+        }));
+    }
+
+    /**
+     * Runs a tool body in a span, recording its duration and outcome.
+     */
+    private ToolResponse timed(String tool, Supplier<ToolResponse> body) {
+        long start = System.nanoTime();
+        boolean error = true;
+        try {
+            ToolResponse response = tracing.inSpan("tools/call " + tool, span -> {
+                span.setAttribute(KnowledgeBaseTracing.MCP_METHOD, "tools/call");
+                span.setAttribute(KnowledgeBaseTracing.TOOL_NAME, tool);
+                ToolResponse result = CallerToken.callWith(callerToken(), body);
+                if (result.isError()) {
+                    span.setStatus(StatusCode.ERROR);
+                }
+                return result;
+            });
+            error = response.isError();
+            return response;
+        } finally {
+            metrics.recordToolCall(tool, error, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Renders tool output, timed and in a span of its own.
+     */
+    private <T> T traceFormat(String kind, Supplier<T> formatter) {
+        return tracing.inSpan("KnowledgeBaseTools.format", span -> {
+            span.setAttribute(KnowledgeBaseTracing.FORMAT_KIND, kind);
+            return metrics.timeFormat(kind, formatter);
         });
     }
 
-    private String formatResults(List<KnowledgeBaseArticleDto> results, String label, String value) {
-        StringBuilder sb = new StringBuilder();
+    /**
+     * Red Hat token sent by the client in the caller token header, when enabled and called over HTTP.
+     */
+    private String callerToken() {
+        if (!config.callerTokens().enabled() || !Arc.container().requestContext().isActive()) {
+            return null;
+        }
+        RoutingContext context = currentRequest.getCurrent();
+        return context != null ? context.request().getHeader(config.callerTokens().header()) : null;
+    }
+
+    // Package-private for the formatting benchmarks
+    String formatResults(List<KnowledgeBaseArticleDto> results, String label, String value) {
+        return traceFormat(KnowledgeBaseMetrics.FORMAT_SUMMARY, () -> buildResults(results, label, value));
+    }
+
+    private String buildResults(List<KnowledgeBaseArticleDto> results, String label, String value) {
+        return buildResults(results, label, value, 0, results.size());
+    }
+
+    private String buildResults(List<KnowledgeBaseArticleDto> results, String label, String value, int offset,
+                                int numFound) {
+        int capacity = 128 + label.length() + value.length();
+        for (KnowledgeBaseArticleDto article : results) {
+            capacity += 16 + article.searchSummaryLength();
+        }
+        StringBuilder sb = new StringBuilder(capacity);
         sb.append("=== Results for ").append(label).append(": ").append(value).append(" ===\n");
-        sb.append("Found: ").append(results.size()).append("\n\n");
+        sb.append("Found: ").append(numFound);
+        if (offset > 0 || numFound > results.size()) {
+            sb.append(" (showing ").append(offset + 1).append('-').append(offset + results.size()).append(')');
+        }
+        sb.append("\n\n");
 
         for (int i = 0; i < results.size(); i++) {
-            sb.append("--- ").append(i + 1).append(" ---\n");
-            sb.append(results.get(i).toSearchSummary()).append("\n");
+            sb.append("--- ").append(offset + i + 1).append(" ---\n");
+            results.get(i).appendSearchSummary(sb).append('\n');
         }
 
         sb.append("\nUse getSolution with article ID for full content.");
         return sb.toString();
     }
 
+    private ToolResponse renderResults(List<KnowledgeBaseArticleDto> results, String label, String value,
+                                       OutputFormat format) {
+        return switch (format) {
+            case TEXT -> ToolResponse.success(new TextContent(formatResults(results, label, value)));
+            case COMPACT -> ToolResponse.success(new TextContent(traceFormat(KnowledgeBaseMetrics.FORMAT_SUMMARY,
+                    () -> ArticleRenderer.compactResults(results, label, value))));
+            case JSON -> structured(traceFormat(KnowledgeBaseMetrics.FORMAT_SUMMARY,
+                    () -> new StructuredOutput.SearchResults(value, null, null, results.size(), null, null, null,
+                            summaries(results))));
+        };
+    }
+
+    /**
+     * Renders one or more consecutive pages of a search, with the cursor for the page after them.
+     */
+    private ToolResponse renderPage(List<KnowledgeBaseArticleDto> results, String query, int offset, int numFound,
+                                    String nextCursor, OutputFormat format) {
+        String more = nextCursor != null ? "\nMore results: call again with cursor=" + nextCursor : "";
+        return switch (format) {
+            case TEXT -> ToolResponse.success(new TextContent(traceFormat(KnowledgeBaseMetrics.FORMAT_SUMMARY,
+                    () -> buildResults(results, "Search", query, offset, numFound)) + more));
+            case COMPACT -> ToolResponse.success(new TextContent(traceFormat(KnowledgeBaseMetrics.FORMAT_SUMMARY,
+                    () -> ArticleRenderer.compactResults(results, "Search", query, offset, numFound)) + more));
+            case JSON -> structured(traceFormat(KnowledgeBaseMetrics.FORMAT_SUMMARY,
+                    () -> new StructuredOutput.SearchResults(query, null, null, results.size(), offset, numFound,
+                            nextCursor, summaries(results))));
+        };
+    }
+
+    /**
+     * Sends a search page to clients that asked for progress, so multi-page calls deliver results as they arrive.
+     * The first page is sent in full (compact); later pages only report progress, since the response repeats them.
+     */
+    private static void notifyPage(Progress progress, KnowledgeBaseSearchPage page, String query, int start,
+                                   int limit, int pages) {
+        if (pages <= 1 || progress.token().isEmpty()) {
+            return;
+        }
+        int index = (page.start() - start) / limit + 1;
+        int total = Math.min(pages, Math.max(index, (page.numFound() - start + limit - 1) / limit));
+        String message = index == 1
+                ? ArticleRenderer.compactResults(page.articles(), "Search", query, page.start(), page.numFound())
+                : "Loaded results " + (page.start() + 1) + "-" + (page.start() + page.articles().size())
+                        + " of " + page.numFound();
+        progress.notificationBuilder()
+                .setProgress(index)
+                .setTotal(total)
+                .setMessage(message)
+                .build()
+                .sendAndForget();
+    }
+
+    private ToolResponse renderFanOut(KnowledgeBaseService.FanOutSearch search, OutputFormat format) {
+        String query = search.queries().get(0);
+        if (format == OutputFormat.JSON) {
+            return structured(traceFormat(KnowledgeBaseMetrics.FORMAT_SUMMARY,
+                    () -> new StructuredOutput.SearchResults(query, search.queries(), search.failedQueries(),
+                            search.articles().size(), null, null, null, summaries(search.articles()))));
+        }
+        StringBuilder sb = new StringBuilder("Queries: ").append(String.join(" | ", search.queries())).append('\n');
+        if (!search.failedQueries().isEmpty()) {
+            sb.append("Failed: ").append(String.join(" | ", search.failedQueries())).append('\n');
+        }
+        sb.append('\n').append(format == OutputFormat.COMPACT
+                ? traceFormat(KnowledgeBaseMetrics.FORMAT_SUMMARY,
+                        () -> ArticleRenderer.compactResults(search.articles(), "Error", query))
+                : formatResults(search.articles(), "Error", query));
+        return ToolResponse.success(new TextContent(sb.toString()));
+    }
+
+    /**
+     * Structured content, also serialized as a text content block as the protocol recommends, so that clients
+     * reading only {@code content} get the same JSON.
+     */
+    private ToolResponse structured(Object content) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(content);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Error serializing tool result", e);
+        }
+        return new ToolResponse(false, List.of(new TextContent(json)), content, null);
+    }
+
+    private static List<StructuredOutput.Summary> summaries(List<KnowledgeBaseArticleDto> results) {
+        return results.stream().map(ArticleRenderer::summary).toList();
+    }
+
+    private ToolResponse renderArticles(KnowledgeBaseService.ArticleBatch batch, DetailOptions options) {
+        if (options.format() == OutputFormat.JSON) {
+            return structured(traceFormat(KnowledgeBaseMetrics.FORMAT_DETAIL,
+                    () -> new StructuredOutput.Articles(batch.articles().stream()
+                            .map(a -> ArticleRenderer.structured(a, options.sections(), options.maxSectionChars()))
+                            .toList(), batch.missingIds())));
+        }
+        return ToolResponse.success(new TextContent(
+                traceFormat(KnowledgeBaseMetrics.FORMAT_DETAIL, () -> formatArticles(batch, options))));
+    }
+
+    private String formatArticles(KnowledgeBaseService.ArticleBatch batch, DetailOptions options) {
+        List<KnowledgeBaseArticleDto> articles = batch.articles();
+        if (articles.size() == 1 && batch.missingIds().isEmpty()) {
+            return options.render(articles.get(0));
+        }
+        int capacity = 32 * (batch.missingIds().size() + 1);
+        for (KnowledgeBaseArticleDto article : articles) {
+            capacity += 2 + options.estimateLength(article);
+        }
+        StringBuilder sb = new StringBuilder(capacity);
+        for (int i = 0; i < articles.size(); i++) {
+            if (i > 0) {
+                sb.append("\n\n");
+            }
+            options.render(sb, articles.get(i));
+        }
+        if (!batch.missingIds().isEmpty()) {
+            sb.append("\n\nNot found: ").append(String.join(", ", batch.missingIds()));
+        }
+        return sb.toString();
+    }
+
     private String formatError(String message, Exception e) {
+        if (e instanceof UpstreamOverloadedException) {
+            // Already phrased for the user, including when to retry
+            return "Error: " + e.getMessage();
+        }
         String detail = e.getMessage();
         return (detail == null || detail.isBlank())
                 ? "Error: " + message
                 : "Error: " + message + " - " + detail;
     }
 
+    private static int parsePages(String pages) {
+        if (pages == null || pages.isBlank()) {
+            return 1;
+        }
+        try {
+            return Math.max(1, Math.min(MAX_PAGES, Integer.parseInt(pages.trim())));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid pages - " + pages);
+        }
+    }
+
     private int parseMaxResults(String maxResultsStr) {
         if (maxResultsStr == null || maxResultsStr.isBlank()) {
             return DEFAULT_MAX_RESULTS;
@@ -217,4 +592,58 @@ public class KnowledgeBaseTools {
             return DEFAULT_MAX_RESULTS;
         }
     }
+
+    /**
+     * Rendering options of the article tools.
+     *
+     * @param maxSectionChars Per-section cap, 0 = unlimited
+     */
+    private record DetailOptions(OutputFormat format, Set<ArticleRenderer.Section> sections, int maxSectionChars) {
+
+        static DetailOptions parse(String format, String sections, String maxSectionChars) {
+            OutputFormat outputFormat = OutputFormat.parse(format);
+            int maxChars = outputFormat == OutputFormat.TEXT ? 0 : ArticleRenderer.DEFAULT_COMPACT_SECTION_CHARS;
+            if (maxSectionChars != null && !maxSectionChars.isBlank()) {
+                try {
+                    maxChars = Math.max(0, Integer.parseInt(maxSectionChars.trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("invalid maxSectionChars - " + maxSectionChars);
+                }
+            }
+            return new DetailOptions(outputFormat, ArticleRenderer.Section.parse(sections), maxChars);
+        }
+
+        /**
+         * Text rendering; the article's own full rendering when nothing is filtered or capped.
+         */
+        String render(KnowledgeBaseArticleDto article) {
+            if (isFullText()) {
+                return article.toDetailedString();
+            }
+            return format == OutputFormat.COMPACT
+                    ? ArticleRenderer.compactDetail(article, sections, maxSectionChars)
+                    : ArticleRenderer.textDetail(article, sections, maxSectionChars);
+        }
+
+        void render(StringBuilder sb, KnowledgeBaseArticleDto article) {
+            if (isFullText()) {
+                article.appendDetailed(sb);
+            } else {
+                sb.append(render(article));
+            }
+        }
+
+        /**
+         * Expected length of the rendering, for sizing buffers.
+         */
+        int estimateLength(KnowledgeBaseArticleDto article) {
+            return isFullText() || maxSectionChars == 0 ? article.detailedLength()
+                    : 256 + sections.size() * maxSectionChars;
+        }
+
+        private boolean isFullText() {
+            return format == OutputFormat.TEXT && maxSectionChars == 0
+                    && sections.size() == ArticleRenderer.Section.values().length;
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package com.redhat.kb.mcp;
+
+import java.util.Locale;
+
+/**
+ * Output format chosen per tool call.
+ */
+enum OutputFormat {
+
+    /** Human-readable text, as returned by default. */
+    TEXT,
+
+    /** Short text: one line per search result, HTML stripped and each article section capped. */
+    COMPACT,
+
+    /** MCP structured content (JSON) with the same capping and HTML stripping as compact. */
+    JSON;
+
+    static final String DESCRIPTION = "Output: 'text' (default), 'compact' (short, HTML stripped) "
+            + "or 'json' (structured content)";
+
+    /**
+     * @return the format, TEXT when blank
+     * @throws IllegalArgumentException for unknown names
+     */
+    static OutputFormat parse(String value) {
+        if (value == null || value.isBlank()) {
+            return TEXT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid format - " + value + " (use text, compact or json)");
+        }
+    }
+}
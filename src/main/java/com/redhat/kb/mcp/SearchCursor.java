@@ -0,0 +1,77 @@
+package com.redhat.kb.mcp;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+import com.redhat.kb.infrastructure.cache.SearchResultCache;
+
+import static com.redhat.kb.KnowledgeBaseConstants.MAX_SEARCH_OFFSET;
+
+/**
+ * Opaque pagination cursor of {@code searchKnowledgeBase}: the offset of the next result, bound to the search it
+ * came from so a cursor passed with a different query or filters is rejected instead of paging the wrong list.
+ */
+final class SearchCursor {
+
+    static final String DESCRIPTION = "Cursor from the previous response, to get the next page "
+            + "(repeat the same query and filters)";
+
+    private SearchCursor() {
+        // Utility class
+    }
+
+    static String encode(int start, String query, String product, String documentType) {
+        String value = start + ":" + fingerprint(query, product, documentType);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the offset, 0 when the cursor is blank
+     * @throws IllegalArgumentException for malformed cursors and cursors of another search
+     */
+    static int decode(String cursor, String query, String product, String documentType) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("invalid cursor - " + cursor);
+        }
+        int separator = value.indexOf(':');
+        int start;
+        try {
+            start = separator > 0 ? Integer.parseInt(value.substring(0, separator)) : -1;
+        } catch (NumberFormatException e) {
+            start = -1;
+        }
+        if (start < 0 || start >= MAX_SEARCH_OFFSET) {
+            throw new IllegalArgumentException("invalid cursor - " + cursor);
+        }
+        if (!value.substring(separator + 1).equals(fingerprint(query, product, documentType))) {
+            throw new IllegalArgumentException("cursor belongs to a different search - repeat the original "
+                    + "query, product and documentType, or omit the cursor");
+        }
+        return start;
+    }
+
+    /**
+     * Whether a cursor can be issued for the offset.
+     */
+    static boolean canPage(int nextStart) {
+        return nextStart > 0 && nextStart < MAX_SEARCH_OFFSET;
+    }
+
+    // Normalized like the search cache key, so whitespace or case changes keep the cursor valid,
+    // but not a change between a boolean operator and the same word as a term
+    private static String fingerprint(String query, String product, String documentType) {
+        return Integer.toHexString(Objects.hash(SearchResultCache.normalizeQuery(query), normalize(product),
+                normalize(documentType)));
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.trim().replaceAll("\\s+", " ");
+    }
+}
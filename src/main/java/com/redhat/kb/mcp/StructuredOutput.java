@@ -0,0 +1,59 @@
+package com.redhat.kb.mcp;
+
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Structured content returned by tools called with {@code format=json}.
+ * Null and empty fields are omitted to keep payloads small.
+ */
+final class StructuredOutput {
+
+    private StructuredOutput() {
+        // Holder for the record types
+    }
+
+    /**
+     * Ranked search results.
+     *
+     * @param query Query as given, or the first derived query of a fan-out search
+     * @param queries All queries run by a fan-out search
+     * @param failedQueries Fan-out queries whose search failed
+     * @param start Offset of the first result, for paged searches
+     * @param numFound Total number of matches, for paged searches
+     * @param nextCursor Cursor for the next page, absent on the last page
+     */
+    @RegisterForReflection
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record SearchResults(String query, List<String> queries, List<String> failedQueries, int count,
+                                Integer start, Integer numFound, String nextCursor, List<Summary> results) {
+    }
+
+    @RegisterForReflection
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record Summary(String id, String title, String documentKind, String url, List<String> products,
+                          String summary, String lastModified) {
+    }
+
+    /**
+     * @param missingIds Requested IDs that were not found
+     */
+    @RegisterForReflection
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record Articles(List<Article> articles, List<String> missingIds) {
+    }
+
+    /**
+     * @param sections Selected sections by name (issue, environment, rootcause, diagnosticsteps, resolution),
+     *                 as plain text
+     */
+    @RegisterForReflection
+    @JsonInclude(JsonInclude.Include.NON_EMPTY)
+    public record Article(String id, String title, String documentKind, String url, List<String> products,
+                         Map<String, String> sections, String lastModified) {
+    }
+}
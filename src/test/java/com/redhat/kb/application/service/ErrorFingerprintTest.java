@@ -0,0 +1,89 @@
+package com.redhat.kb.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+class ErrorFingerprintTest {
+
+    @Test
+    void keepsOracleErrorCodes() {
+        assertEquals("ora-01017 invalid username password logon denied",
+                ErrorFingerprint.of("ORA-01017: invalid username/password; logon denied"));
+        assertEquals("ora-12541 tns no listener", ErrorFingerprint.of("ORA-12541: TNS:no listener"));
+        assertEquals("java.sql.sqlexception ora-00942 table or view does not exist",
+                ErrorFingerprint.of("java.sql.SQLException: ORA-00942: table or view does not exist"));
+    }
+
+    @Test
+    void keepsExitCodesAndStatuses() {
+        assertEquals("container app terminated with exit code 137 oomkilled",
+                ErrorFingerprint.of("Container app terminated with exit code 137 (OOMKilled)"));
+        assertEquals("upstream connect error statuscode 503",
+                ErrorFingerprint.of("upstream connect error, statuscode: 503"));
+    }
+
+    @Test
+    void keepsRepeatedWords() {
+        assertEquals("get x509 certificate signed by unknown authority possibly because of crypto rsa "
+                        + "verification error while trying to verify candidate authority certificate kube-apiserver",
+                ErrorFingerprint.of("Get \"https://oauth-openshift.apps.ocp.example.com/oauth/token\": x509: "
+                        + "certificate signed by unknown authority (possibly because of \"crypto/rsa: verification "
+                        + "error\" while trying to verify candidate authority certificate \"kube-apiserver\")"));
+    }
+
+    @Test
+    void dropsAddressesPathsAndSourceLocations() {
+        assertEquals("dial tcp connect connection refused",
+                ErrorFingerprint.of("dial tcp 10.217.4.12:5432: connect: connection refused"));
+        assertEquals("open no such file or directory",
+                ErrorFingerprint.of("open /var/lib/kubelet/pods/abc/volumes: no such file or directory"));
+        assertEquals("failed to watch v1.pod the server has received too many requests",
+                ErrorFingerprint.of("E0501 10:22:33.123456    1 reflector.go:138] "
+                        + "k8s.io/client-go/informers/factory.go:134: Failed to watch *v1.Pod: "
+                        + "the server has received too many requests"));
+    }
+
+    @Test
+    void keepsPackageNamesThatLookLikeFileNames() {
+        assertEquals("o.h.e.j.s.sqlexceptionhelper connection failed at com.acme.app.main",
+                ErrorFingerprint.of("o.h.e.j.s.SqlExceptionHelper - Connection failed at com.acme.App.main(App.java:42)"));
+    }
+
+    @Test
+    void dropsIdsAndDurations() {
+        assertEquals("process killed request id", ErrorFingerprint.of(
+                "process 1234567 killed, request id 9f86d081884c7d659a2feaa0c55ad015"));
+        assertEquals("context deadline exceeded client.timeout exceeded while awaiting headers after",
+                ErrorFingerprint.of("context deadline exceeded (Client.Timeout exceeded while awaiting headers) "
+                        + "after 30s"));
+        assertEquals("panic runtime error invalid memory address or nil pointer dereference signal sigsegv "
+                        + "segmentation violation code addr pc",
+                ErrorFingerprint.of("panic: runtime error: invalid memory address or nil pointer dereference "
+                        + "[signal SIGSEGV: segmentation violation code=0x1 addr=0x0 pc=0x4a5b6c]"));
+    }
+
+    @Test
+    void sameIncidentFromDifferentPodsSharesSignature() {
+        String first = ErrorFingerprint.of("2024-05-01T10:22:33.123Z Back-off restarting failed container api "
+                + "in pod api-7d9f8b6c4d-x2k9p_shop(0f8e2c1a-77d3-4b5e-9a1f-3c2d1e0f9a8b)");
+        String second = ErrorFingerprint.of("2024-05-02T08:01:02.456Z Back-off restarting failed container api "
+                + "in pod api-5c6b7d8f9-q7w2z_billing(1a2b3c4d-5e6f-4a7b-8c9d-0e1f2a3b4c5d)");
+        assertEquals("back-off restarting failed container api in pod api namespace", first);
+        assertEquals(first, second);
+    }
+
+    @Test
+    void keepsUnderscoresOfOrdinaryCalls() {
+        assertEquals("typeerror foo_bar missing 1 required positional argument baz", ErrorFingerprint.of(
+                "TypeError: foo_bar() missing 1 required positional argument: 'baz'"));
+        assertEquals("nomethoderror undefined method check_quota user for nil",
+                ErrorFingerprint.of("NoMethodError: undefined method `check_quota(user)' for nil"));
+    }
+
+    @Test
+    void keepsMessageWhenOnlyNoiseRemains() {
+        assertEquals("10.0.0.1 2024-05-01", ErrorFingerprint.of("  10.0.0.1   2024-05-01 "));
+        assertEquals("", ErrorFingerprint.of(null));
+    }
+}
@@ -0,0 +1,62 @@
+package com.redhat.kb.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ErrorQueryPlannerTest {
+
+    @Test
+    void plansFromJavaStackTraceWithRootCause() {
+        String trace = """
+                2024-05-01 10:22:33 ERROR [main] o.h.e.j.s.SqlExceptionHelper - Connection failed
+                java.lang.RuntimeException: Failed to start service
+                \tat com.acme.App.main(App.java:42)
+                Caused by: org.postgresql.util.PSQLException: Connection to 10.0.0.5:5432 refused. \
+                Check that the hostname and port are correct
+                \tat org.postgresql.Driver.connect(Driver.java:100)
+                \t... 12 more
+                """;
+
+        assertEquals(List.of(
+                "o.h.e.j.s.SqlExceptionHelper Connection failed",
+                "PSQLException Connection refused. Check that hostname port correct",
+                "Connection refused. Check that hostname port correct",
+                "org.postgresql.util.PSQLException Connection to refused. Check that the hostname and port are correct"),
+                ErrorQueryPlanner.plan(trace));
+    }
+
+    @Test
+    void plansFromGoErrorChainWithComponent() {
+        assertEquals(List.of(
+                "Get x509 certificate signed by unknown authority",
+                "oauth-openshift x509 certificate signed unknown authority",
+                "x509 certificate signed unknown authority"),
+                ErrorQueryPlanner.plan("Get \"https://oauth-openshift.apps.ocp.example.com/oauth/token\": "
+                        + "x509: certificate signed by unknown authority"));
+    }
+
+    @Test
+    void skipsDuplicateQueries() {
+        assertEquals(List.of("Connection refused"), ErrorQueryPlanner.plan("Connection refused"));
+    }
+
+    @Test
+    void limitsNumberOfQueries() {
+        List<String> queries = ErrorQueryPlanner.plan("""
+                ClusterOperator machine-config is degraded: Failed to resync because of an IOException
+                Caused by: java.io.IOException: Broken pipe while writing the rendered config to the node
+                """);
+        assertTrue(queries.size() <= ErrorQueryPlanner.MAX_QUERIES);
+        assertEquals(queries.stream().map(String::toLowerCase).distinct().count(), queries.size());
+    }
+
+    @Test
+    void plansNothingForBlankText() {
+        assertEquals(List.of(), ErrorQueryPlanner.plan("  \n "));
+        assertEquals(List.of(), ErrorQueryPlanner.plan(null));
+    }
+}
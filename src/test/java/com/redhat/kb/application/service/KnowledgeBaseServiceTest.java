@@ -0,0 +1,57 @@
+package com.redhat.kb.application.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+
+import org.junit.jupiter.api.Test;
+
+class KnowledgeBaseServiceTest {
+
+    @Test
+    void fuseRanksArticlesReturnedBySeveralQueriesFirst() {
+        List<KnowledgeBaseArticleDto> merged = KnowledgeBaseService.fuse(List.of(
+                articles("1", "2", "3"),
+                articles("3", "4"),
+                articles("4", "3")), 10);
+
+        // 3: 1/63 + 1/61 + 1/62, 4: 1/62 + 1/61, then the single hits by rank
+        assertEquals(List.of("3", "4", "1", "2"), ids(merged));
+    }
+
+    @Test
+    void fuseKeepsFirstReturnedOrderForTies() {
+        List<KnowledgeBaseArticleDto> merged = KnowledgeBaseService.fuse(List.of(
+                articles("1", "2"),
+                articles("3", "4")), 10);
+
+        assertEquals(List.of("1", "3", "2", "4"), ids(merged));
+    }
+
+    @Test
+    void fuseDeduplicatesAndLimits() {
+        List<KnowledgeBaseArticleDto> merged = KnowledgeBaseService.fuse(List.of(
+                articles("1", "2", "3"),
+                articles("1", "2", "3")), 2);
+
+        assertEquals(List.of("1", "2"), ids(merged));
+    }
+
+    @Test
+    void fuseOfNoResultsIsEmpty() {
+        assertEquals(List.of(), KnowledgeBaseService.fuse(List.of(List.of(), List.of()), 10));
+    }
+
+    private static List<KnowledgeBaseArticleDto> articles(String... ids) {
+        return List.of(ids).stream()
+                .map(id -> new KnowledgeBaseArticleDto(id, "Article " + id, null, "Solution", null, null, null, null,
+                        null, null, null, null, null))
+                .toList();
+    }
+
+    private static List<String> ids(List<KnowledgeBaseArticleDto> articles) {
+        return articles.stream().map(KnowledgeBaseArticleDto::id).toList();
+    }
+}
@@ -0,0 +1,230 @@
+package com.redhat.kb.infrastructure.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW = TimeUnit.SECONDS.toNanos(10);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void admitsUpToTheLimitThenQueues() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 1, 10, 0, 50);
+        limiter.acquire();
+        limiter.acquire();
+        assertEquals(2, limiter.inFlight());
+
+        UpstreamOverloadedException e = assertThrows(UpstreamOverloadedException.class, limiter::acquire);
+        assertTrue(e.getMessage().contains("queue is full"));
+    }
+
+    @Test
+    void waiterTimesOut() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 10, 10, 20);
+        limiter.acquire();
+
+        UpstreamOverloadedException e = assertThrows(UpstreamOverloadedException.class, limiter::acquire);
+        assertTrue(e.getMessage().startsWith("Timed out"));
+        assertEquals(0, limiter.queued());
+    }
+
+    @Test
+    void freedSlotsGoToWaitersInArrivalOrder() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 10, 10, 5000);
+        limiter.acquire();
+
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> first = acquireAsync(limiter, "first", order);
+        awaitQueued(limiter, 1);
+        CompletableFuture<Void> second = acquireAsync(limiter, "second", order);
+        awaitQueued(limiter, 2);
+        CompletableFuture<Void> third = acquireAsync(limiter, "third", order);
+        awaitQueued(limiter, 3);
+
+        for (CompletableFuture<Void> waiter : List.of(first, second, third)) {
+            limiter.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED, FAST);
+            waiter.get(5, TimeUnit.SECONDS);
+        }
+        assertEquals(List.of("first", "second", "third"), order);
+    }
+
+    @Test
+    void newCallersDoNotOvertakeWaiters() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, 10, 10, 500);
+        limiter.acquire();
+        List<String> order = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> waiter = acquireAsync(limiter, "waiter", order);
+        awaitQueued(limiter, 1);
+
+        // Asking again right after freeing the slot would take it before the woken waiter without the queue check
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED, FAST);
+        assertThrows(UpstreamOverloadedException.class, limiter::acquire);
+
+        waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(List.of("waiter"), order);
+        assertEquals(1, limiter.inFlight());
+    }
+
+    @Test
+    void adjustsTheLimitFromOutcomes() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(10, 2, 20, 10, 50);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.CONGESTION, FAST);
+        assertEquals(9.0, limiter.limit(), 1e-9);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, SLOW);
+        assertEquals(8.1, limiter.limit(), 1e-9);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.RATE_LIMITED, FAST);
+        assertEquals(4.05, limiter.limit(), 1e-9);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED, FAST);
+        assertEquals(4.05, limiter.limit(), 1e-9);
+
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.RATE_LIMITED, FAST);
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.RATE_LIMITED, FAST);
+        assertEquals(2.0, limiter.limit(), 1e-9);
+    }
+
+    @Test
+    void growsOnlyWhileTheLimitIsUsed() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 5, 10, 50);
+
+        // One request in flight is less than half of 4: no growth
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+        assertEquals(4.0, limiter.limit(), 1e-9);
+
+        limiter.acquire();
+        limiter.acquire();
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.SUCCESS, FAST);
+        assertEquals(4.25, limiter.limit(), 1e-9);
+        limiter.release(AdaptiveConcurrencyLimiter.Outcome.IGNORED, FAST);
+    }
+
+    @Test
+    void backOffRejectsWaitsLongerThanMaxWait() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 10, 10, 50);
+        limiter.backOff(Duration.ofSeconds(30));
+
+        UpstreamOverloadedException e = assertThrows(UpstreamOverloadedException.class, limiter::acquire);
+        assertTrue(e.getMessage().contains("retry in 30 s"));
+        assertEquals(0, limiter.inFlight());
+    }
+
+    @Test
+    void backOffHoldsRequestsUntilItPasses() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 1, 10, 10, 5000);
+        limiter.backOff(Duration.ofMillis(100));
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+    @Test
+    void disabledLimiterNeverBlocks() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(
+                config(false, 1, 1, 1, 0, 10), new SimpleMeterRegistry());
+        limiter.acquire();
+        limiter.acquire();
+        assertFalse(limiter.inFlight() > 0);
+    }
+
+    private CompletableFuture<Void> acquireAsync(AdaptiveConcurrencyLimiter limiter, String name,
+                                                 List<String> order) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                limiter.acquire();
+                order.add(name);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }, executor);
+    }
+
+    private static void awaitQueued(AdaptiveConcurrencyLimiter limiter, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (limiter.queued() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, limiter.queued());
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int minLimit, int maxLimit, int maxQueue,
+                                                      int maxWaitMillis) {
+        return new AdaptiveConcurrencyLimiter(config(true, initialLimit, minLimit, maxLimit, maxQueue, maxWaitMillis),
+                new SimpleMeterRegistry());
+    }
+
+    private static RedHatApiConfig.Limiter config(boolean enabled, int initialLimit, int minLimit, int maxLimit,
+                                                  int maxQueue, int maxWaitMillis) {
+        return new RedHatApiConfig.Limiter() {
+            @Override
+            public boolean enabled() {
+                return enabled;
+            }
+
+            @Override
+            public int initialLimit() {
+                return initialLimit;
+            }
+
+            @Override
+            public int minLimit() {
+                return minLimit;
+            }
+
+            @Override
+            public int maxLimit() {
+                return maxLimit;
+            }
+
+            @Override
+            public int maxQueue() {
+                return maxQueue;
+            }
+
+            @Override
+            public int maxWaitMillis() {
+                return maxWaitMillis;
+            }
+
+            @Override
+            public int slowResponseMillis() {
+                return 5000;
+            }
+        };
+    }
+}
@@ -0,0 +1,142 @@
+package com.redhat.kb.infrastructure.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    @Test
+    void staysClosedBelowMinimumCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("test", config(10, 4, 0.5, 30));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, breaker.acquire());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void opensAtFailureRateAndRefusesCalls() {
+        CircuitBreaker breaker = new CircuitBreaker("test", config(10, 4, 0.5, 30));
+        breaker.acquire();
+        breaker.onSuccess();
+        breaker.acquire();
+        breaker.onSuccess();
+        breaker.acquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        breaker.acquire();
+        breaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        assertTrue(breaker.acquire() > 0);
+    }
+
+    @Test
+    void oldOutcomesLeaveTheWindow() {
+        CircuitBreaker breaker = new CircuitBreaker("test", config(4, 4, 0.5, 30));
+        breaker.acquire();
+        breaker.onFailure();
+        for (int i = 0; i < 4; i++) {
+            breaker.acquire();
+            breaker.onSuccess();
+        }
+        breaker.acquire();
+        breaker.onFailure();
+        // The first failure has been pushed out: 1 of the last 4 failed
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    @Test
+    void halfOpenLetsOneProbeThrough() {
+        CircuitBreaker breaker = openBreaker();
+
+        assertEquals(0, breaker.acquire());
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertTrue(breaker.acquire() > 0);
+
+        breaker.onSuccess();
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+        assertEquals(0, breaker.acquire());
+    }
+
+    @Test
+    void failedProbeReopens() {
+        CircuitBreaker breaker = openBreaker();
+        breaker.acquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+    }
+
+    @Test
+    void ignoredProbeFreesTheSlot() {
+        CircuitBreaker breaker = openBreaker();
+        breaker.acquire();
+        breaker.onIgnored();
+
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.state());
+        assertEquals(0, breaker.acquire());
+    }
+
+    @Test
+    void disabledNeverOpens() {
+        CircuitBreaker breaker = new CircuitBreaker("test", config(false, 2, 1, 0.5, 30));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, breaker.acquire());
+            breaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state());
+    }
+
+    /**
+     * A breaker that has just opened, with open-seconds 0 so that the next call is the half-open probe.
+     */
+    private static CircuitBreaker openBreaker() {
+        CircuitBreaker breaker = new CircuitBreaker("test", config(2, 2, 0.5, 0));
+        breaker.acquire();
+        breaker.onFailure();
+        breaker.acquire();
+        breaker.onFailure();
+        assertEquals(CircuitBreaker.State.OPEN, breaker.state());
+        return breaker;
+    }
+
+    static RedHatApiConfig.CircuitBreaker config(int windowSize, int minimumCalls, double failureRateThreshold,
+                                                 int openSeconds) {
+        return config(true, windowSize, minimumCalls, failureRateThreshold, openSeconds);
+    }
+
+    static RedHatApiConfig.CircuitBreaker config(boolean enabled, int windowSize, int minimumCalls,
+                                                 double failureRateThreshold, int openSeconds) {
+        return new RedHatApiConfig.CircuitBreaker() {
+            @Override
+            public boolean enabled() {
+                return enabled;
+            }
+
+            @Override
+            public int windowSize() {
+                return windowSize;
+            }
+
+            @Override
+            public int minimumCalls() {
+                return minimumCalls;
+            }
+
+            @Override
+            public double failureRateThreshold() {
+                return failureRateThreshold;
+            }
+
+            @Override
+            public int openSeconds() {
+                return openSeconds;
+            }
+        };
+    }
+}
@@ -0,0 +1,167 @@
+package com.redhat.kb.infrastructure.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+import com.redhat.kb.infrastructure.tracing.KnowledgeBaseTracing;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.opentelemetry.api.trace.TracerProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RedHatAuthClientTest {
+
+    private static final String OFFLINE_TOKEN = "offline+token/with=reserved&characters";
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int status;
+    private volatile String responseBody;
+    private volatile String requestBody;
+
+    private HttpServer sso;
+    private RedHatAuthClient client;
+
+    @BeforeEach
+    void start() throws IOException {
+        sso = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        sso.createContext("/token", exchange -> {
+            requests.incrementAndGet();
+            requestBody = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            byte[] body = responseBody.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        sso.start();
+
+        String tokenUrl = "http://127.0.0.1:" + sso.getAddress().getPort() + "/token";
+        RedHatApiConfig config = config(tokenUrl);
+        client = new RedHatAuthClient(config, new UpstreamHttpClient(config), new ObjectMapper(),
+                new KnowledgeBaseMetrics(new SimpleMeterRegistry()),
+                new KnowledgeBaseTracing(TracerProvider.noop().get("test")));
+    }
+
+    @AfterEach
+    void stop() {
+        client.shutdown();
+        sso.stop(0);
+    }
+
+    @Test
+    void exchangesTheOfflineToken() {
+        respond(200, "{\"access_token\":\"access\",\"expires_in\":900}");
+
+        assertEquals("access", client.getAccessToken(null));
+        assertEquals("access", client.getAccessToken(null));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void encodesTheFormBody() {
+        respond(200, "{\"access_token\":\"access\",\"expires_in\":900}");
+
+        client.getAccessToken(null);
+        assertEquals("grant_type=refresh_token&client_id=rhsm-api"
+                + "&refresh_token=offline%2Btoken%2Fwith%3Dreserved%26characters", requestBody);
+    }
+
+    @Test
+    void ssoOutageIsNotReportedAsRejectedToken() {
+        respond(503, "Service Unavailable");
+
+        UpstreamStatusException e = assertThrows(UpstreamStatusException.class, () -> client.getAccessToken(null));
+        assertEquals(503, e.status());
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    void invalidGrantIsReportedAsRejectedToken() {
+        respond(400, "{\"error\":\"invalid_grant\",\"error_description\":\"Offline session not active\"}");
+
+        assertThrows(UpstreamAuthenticationException.class, () -> client.getAccessToken(null));
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void unreadableResponseIsNotReportedAsRejectedToken() {
+        respond(200, "<html>maintenance</html>");
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> client.getAccessToken(null));
+        assertFalse(e instanceof UpstreamAuthenticationException);
+    }
+
+    private void respond(int status, String body) {
+        this.status = status;
+        this.responseBody = body;
+    }
+
+    private static RedHatApiConfig config(String tokenUrl) {
+        return stub(RedHatApiConfig.class, Map.of(
+                "offlineToken", Optional.of(OFFLINE_TOKEN),
+                "sso", stub(RedHatApiConfig.Sso.class, Map.of(
+                        "tokenUrl", tokenUrl,
+                        "clientId", "rhsm-api",
+                        "tokenRenewalBufferSeconds", 60)),
+                "timeouts", stub(RedHatApiConfig.Timeouts.class, Map.of(
+                        "connectSeconds", 5,
+                        "requestSeconds", 5)),
+                "http", stub(RedHatApiConfig.Http.class, Map.of(
+                        "version", HttpClient.Version.HTTP_1_1,
+                        "virtualThreads", false,
+                        "keepAliveSeconds", 30,
+                        "poolSize", 0)),
+                "resilience", stub(RedHatApiConfig.Resilience.class, Map.of(
+                        "retry", stub(RedHatApiConfig.Retry.class, Map.of(
+                                "maxAttempts", 2,
+                                "initialBackoffMillis", 1,
+                                "maxBackoffMillis", 1)),
+                        "hedge", stub(RedHatApiConfig.Hedge.class, Map.of(
+                                "enabled", false,
+                                "percentile", 0.95,
+                                "minDelayMillis", 50,
+                                "minSamples", 100)),
+                        "circuitBreaker", stub(RedHatApiConfig.CircuitBreaker.class, Map.of(
+                                "enabled", false,
+                                "windowSize", 20,
+                                "minimumCalls", 10,
+                                "failureRateThreshold", 0.5,
+                                "openSeconds", 30)))),
+                "callerTokens", stub(RedHatApiConfig.CallerTokens.class, Map.of(
+                        "maxTokens", 10,
+                        "idleSeconds", 60))));
+    }
+
+    /**
+     * Config interface answering each method from the map, and default methods with their implementation.
+     */
+    private static <T> T stub(Class<T> type, Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    if (method.isDefault()) {
+                        return InvocationHandler.invokeDefault(proxy, method, args);
+                    }
+                    if (!values.containsKey(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return values.get(method.getName());
+                }));
+    }
+}
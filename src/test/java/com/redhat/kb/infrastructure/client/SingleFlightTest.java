@@ -0,0 +1,126 @@
+package com.redhat.kb.infrastructure.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>();
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+
+        CompletableFuture<String> leader = submit(() -> flight.execute("k", () -> {
+            calls.incrementAndGet();
+            started.countDown();
+            await(release);
+            return "result";
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = submit(() -> flight.execute("k", () -> {
+            calls.incrementAndGet();
+            return "other";
+        }));
+        waitForCoalesced(1);
+        release.countDown();
+
+        assertEquals("result", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("result", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, calls.get());
+    }
+
+    @Test
+    void failureIsSharedAndNotRetained() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IllegalStateException failure = new IllegalStateException("upstream down");
+
+        CompletableFuture<String> leader = submit(() -> flight.execute("k", () -> {
+            started.countDown();
+            await(release);
+            throw failure;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = submit(() -> flight.execute("k", () -> "other"));
+        waitForCoalesced(1);
+        release.countDown();
+
+        assertSame(failure, cause(leader));
+        assertSame(failure, cause(follower));
+        assertEquals("again", flight.execute("k", () -> "again"));
+    }
+
+    @Test
+    void errorCompletesWaitingCallers() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AssertionError error = new AssertionError("boom");
+
+        CompletableFuture<String> leader = submit(() -> flight.execute("k", () -> {
+            started.countDown();
+            await(release);
+            throw error;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> follower = submit(() -> flight.execute("k", () -> "other"));
+        waitForCoalesced(1);
+        release.countDown();
+
+        assertSame(error, cause(leader));
+        assertSame(error, cause(follower));
+    }
+
+    @Test
+    void differentKeysDoNotWait() {
+        assertEquals("a", flight.execute("a", () -> "a"));
+        assertEquals("b", flight.execute("b", () -> "b"));
+        assertEquals(0, flight.coalescedCount());
+    }
+
+    private CompletableFuture<String> submit(Supplier<String> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    private void waitForCoalesced(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.coalescedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, flight.coalescedCount());
+    }
+
+    private static Throwable cause(CompletableFuture<String> future) {
+        return assertThrows(Exception.class, () -> future.get(5, TimeUnit.SECONDS)).getCause();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
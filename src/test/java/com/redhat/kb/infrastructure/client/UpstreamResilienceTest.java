@@ -0,0 +1,135 @@
+package com.redhat.kb.infrastructure.client;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class UpstreamResilienceTest {
+
+    private static final Duration BUDGET = Duration.ofSeconds(5);
+
+    private final UpstreamResilience resilience =
+            new UpstreamResilience("test", "Test upstream", config(3, 2), false, new SimpleMeterRegistry());
+
+    @AfterEach
+    void close() {
+        resilience.close();
+    }
+
+    @Test
+    void retriesTransientFailures() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+        String result = resilience.execute("search", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IOException("connection reset");
+            }
+            return "ok";
+        }, BUDGET);
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void doesNotRetryClientErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(UpstreamStatusException.class, () -> resilience.execute("search", () -> {
+            attempts.incrementAndGet();
+            throw new UpstreamStatusException(404, "not found");
+        }, BUDGET));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void retriesServiceUnavailable() {
+        AtomicInteger attempts = new AtomicInteger();
+        assertThrows(UpstreamStatusException.class, () -> resilience.execute("search", () -> {
+            attempts.incrementAndGet();
+            throw new UpstreamStatusException(503, "unavailable");
+        }, BUDGET));
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void errorDuringProbeFreesTheProbeSlot() throws Exception {
+        // Two failed attempts open the circuit; with open-seconds 0 the next call is the half-open probe
+        assertThrows(IOException.class, () -> resilience.execute("search", () -> {
+            throw new IOException("down");
+        }, BUDGET));
+        assertThrows(IOException.class, () -> resilience.execute("search", () -> {
+            throw new IOException("down");
+        }, BUDGET));
+
+        assertThrows(StackOverflowError.class, () -> resilience.execute("search", () -> {
+            throw new StackOverflowError();
+        }, BUDGET));
+
+        assertEquals("ok", resilience.execute("search", () -> "ok", BUDGET));
+    }
+
+    private static RedHatApiConfig.Resilience config(int maxAttempts, int minimumCalls) {
+        RedHatApiConfig.Retry retry = new RedHatApiConfig.Retry() {
+            @Override
+            public int maxAttempts() {
+                return maxAttempts;
+            }
+
+            @Override
+            public int initialBackoffMillis() {
+                return 1;
+            }
+
+            @Override
+            public int maxBackoffMillis() {
+                return 1;
+            }
+        };
+        RedHatApiConfig.Hedge hedge = new RedHatApiConfig.Hedge() {
+            @Override
+            public boolean enabled() {
+                return false;
+            }
+
+            @Override
+            public double percentile() {
+                return 0.95;
+            }
+
+            @Override
+            public int minDelayMillis() {
+                return 50;
+            }
+
+            @Override
+            public int minSamples() {
+                return 20;
+            }
+        };
+        RedHatApiConfig.CircuitBreaker breaker = CircuitBreakerTest.config(10, minimumCalls, 1.0, 0);
+        return new RedHatApiConfig.Resilience() {
+            @Override
+            public RedHatApiConfig.Retry retry() {
+                return retry;
+            }
+
+            @Override
+            public RedHatApiConfig.Hedge hedge() {
+                return hedge;
+            }
+
+            @Override
+            public RedHatApiConfig.CircuitBreaker circuitBreaker() {
+                return breaker;
+            }
+        };
+    }
+}
@@ -0,0 +1,116 @@
+package com.redhat.kb.infrastructure.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class HashRingTest {
+
+    private static final int VIRTUAL_NODES = 128;
+    private static final int KEYS = 20_000;
+
+    private static final List<String> MEMBERS =
+            List.of("10.0.0.1:9091", "10.0.0.2:9091", "10.0.0.3:9091", "10.0.0.4:9091");
+
+    @Test
+    void ownershipIsDeterministic() {
+        HashRing ring = new HashRing(MEMBERS, VIRTUAL_NODES);
+        HashRing sameMembersInOtherOrder = new HashRing(MEMBERS.reversed(), VIRTUAL_NODES);
+
+        for (int i = 0; i < KEYS; i++) {
+            String key = "search\nquery " + i;
+            assertEquals(ring.owner(key), sameMembersInOtherOrder.owner(key));
+            assertEquals(ring.owner(key), ring.owner(key));
+            assertTrue(MEMBERS.contains(ring.owner(key)));
+        }
+    }
+
+    @Test
+    void spreadsKeysEvenly() {
+        Map<String, Integer> owned = owners(new HashRing(MEMBERS, VIRTUAL_NODES));
+
+        double fairShare = (double) KEYS / MEMBERS.size();
+        for (String member : MEMBERS) {
+            double share = owned.getOrDefault(member, 0) / fairShare;
+            assertTrue(share > 0.75 && share < 1.25, member + " owns " + share + " of its fair share");
+        }
+    }
+
+    @Test
+    void joiningMemberOnlyTakesItsShareOfKeys() {
+        HashRing before = new HashRing(MEMBERS, VIRTUAL_NODES);
+        String joining = "10.0.0.5:9091";
+        HashRing after = new HashRing(concat(MEMBERS, joining), VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "article\n" + i;
+            if (!before.owner(key).equals(after.owner(key))) {
+                assertEquals(joining, after.owner(key), "keys only move to the joining member");
+                moved++;
+            }
+        }
+        assertShareOfOneIn(5, moved);
+    }
+
+    @Test
+    void leavingMemberOnlyGivesUpItsOwnKeys() {
+        List<String> members = concat(MEMBERS, "10.0.0.5:9091");
+        HashRing before = new HashRing(members, VIRTUAL_NODES);
+        String leaving = members.get(2);
+        HashRing after = new HashRing(members.stream().filter(member -> !member.equals(leaving)).toList(),
+                VIRTUAL_NODES);
+
+        int moved = 0;
+        for (int i = 0; i < KEYS; i++) {
+            String key = "article\n" + i;
+            if (!before.owner(key).equals(after.owner(key))) {
+                assertEquals(leaving, before.owner(key), "only keys of the leaving member move");
+                moved++;
+            }
+        }
+        assertShareOfOneIn(5, moved);
+    }
+
+    @Test
+    void emptyRingHasNoOwner() {
+        assertNull(new HashRing(List.of(), VIRTUAL_NODES).owner("article\n1"));
+    }
+
+    @Test
+    void comparesMembersIgnoringOrder() {
+        HashRing ring = new HashRing(MEMBERS, VIRTUAL_NODES);
+
+        assertTrue(ring.hasMembers(MEMBERS.reversed()));
+        assertFalse(ring.hasMembers(MEMBERS.subList(0, 3)));
+    }
+
+    private static void assertShareOfOneIn(int members, int moved) {
+        double share = (double) moved / KEYS;
+        double expected = 1.0 / members;
+        assertTrue(share > expected * 0.75 && share < expected * 1.25,
+                "moved " + share + " of the keys, expected about " + expected);
+    }
+
+    private static Map<String, Integer> owners(HashRing ring) {
+        Map<String, Integer> owned = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owned.merge(ring.owner("article\n" + i), 1, Integer::sum);
+        }
+        return owned;
+    }
+
+    private static List<String> concat(List<String> members, String member) {
+        List<String> all = new ArrayList<>(members);
+        all.add(member);
+        return List.copyOf(all);
+    }
+}
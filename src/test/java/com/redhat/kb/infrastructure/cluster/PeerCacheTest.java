@@ -0,0 +1,208 @@
+package com.redhat.kb.infrastructure.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PeerCacheTest {
+
+    private static final String SECRET = "cluster-secret";
+    private static final String REGION = "article";
+    private static final int VIRTUAL_NODES = 128;
+    private static final int MAX_BYTES = 4096;
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final HttpClient httpClient = HttpClient.newHttpClient();
+
+    private String first;
+    private String second;
+    private PeerCache firstCache;
+    private PeerCache secondCache;
+
+    @BeforeEach
+    void start() throws IOException {
+        first = "127.0.0.1:" + freePort();
+        second = "127.0.0.1:" + freePort();
+        firstCache = start(first, List.of(first, second));
+        secondCache = start(second, List.of(first, second));
+    }
+
+    @AfterEach
+    void stop() {
+        firstCache.shutdown();
+        secondCache.shutdown();
+        httpClient.shutdownNow();
+    }
+
+    @Test
+    void valuesAreStoredOnTheirOwner() {
+        String key = keyOwnedBy(second);
+        firstCache.put(REGION, key, "value", TTL);
+
+        // The second replica answers from its owned copy, the first one by asking it
+        await(() -> secondCache.get(REGION, key, String.class).isPresent());
+        assertEquals(Optional.of("value"), firstCache.get(REGION, key, String.class));
+
+        String local = keyOwnedBy(first);
+        secondCache.put(REGION, local, "other", TTL);
+        await(() -> firstCache.get(REGION, local, String.class).isPresent());
+        assertEquals(Optional.of("other"), secondCache.get(REGION, local, String.class));
+    }
+
+    @Test
+    void missIsEmptyOnEveryReplica() {
+        String key = keyOwnedBy(second);
+
+        assertEquals(Optional.empty(), firstCache.get(REGION, key, String.class));
+        assertEquals(Optional.empty(), secondCache.get(REGION, key, String.class));
+    }
+
+    @Test
+    void rejectsRequestsWithoutTheSecret() throws Exception {
+        String key = keyOwnedBy(second);
+        secondCache.put(REGION, key, "value", TTL);
+
+        assertEquals(403, send(second, key, "wrong-secret", HttpRequest.newBuilder().GET()));
+        assertEquals(403, send(second, key, null, HttpRequest.newBuilder().GET()));
+        assertEquals(403, send(second, key, "wrong-secret",
+                HttpRequest.newBuilder().PUT(HttpRequest.BodyPublishers.ofString("\"forged\""))));
+        assertEquals(200, send(second, key, SECRET, HttpRequest.newBuilder().GET()));
+        assertEquals(Optional.of("value"), secondCache.get(REGION, key, String.class));
+    }
+
+    @Test
+    void refusesOversizedEntries() throws Exception {
+        String key = keyOwnedBy(second);
+        byte[] oversized = new byte[MAX_BYTES + 1];
+
+        assertEquals(413, send(second, key, SECRET,
+                HttpRequest.newBuilder().PUT(HttpRequest.BodyPublishers.ofByteArray(oversized))));
+        assertEquals(Optional.empty(), secondCache.get(REGION, key, String.class));
+    }
+
+    @Test
+    void replaceEvictsTheOtherReplicaOnceTheOwnerHasTheNewValue() throws Exception {
+        String key = keyOwnedBy(second);
+        BlockingQueue<String> evicted = new LinkedBlockingQueue<>();
+        firstCache.onEviction(REGION, evicted::add);
+        secondCache.put(REGION, key, "old", TTL);
+
+        secondCache.replace(REGION, key, "new", TTL);
+
+        assertEquals(key, evicted.poll(5, TimeUnit.SECONDS));
+        assertEquals(Optional.of("new"), firstCache.get(REGION, key, String.class));
+    }
+
+    @Test
+    void invalidateRemovesTheValueEverywhere() throws Exception {
+        String key = keyOwnedBy(second);
+        BlockingQueue<String> evicted = new LinkedBlockingQueue<>();
+        secondCache.onEviction(REGION, evicted::add);
+        firstCache.put(REGION, key, "value", TTL);
+        await(() -> secondCache.get(REGION, key, String.class).isPresent());
+
+        firstCache.invalidate(REGION, key);
+
+        assertEquals(key, evicted.poll(5, TimeUnit.SECONDS));
+        assertEquals(Optional.empty(), secondCache.get(REGION, key, String.class));
+        assertEquals(Optional.empty(), firstCache.get(REGION, key, String.class));
+    }
+
+    private String keyOwnedBy(String member) {
+        HashRing ring = new HashRing(List.of(first, second), VIRTUAL_NODES);
+        for (int i = 0; ; i++) {
+            String key = Integer.toString(i);
+            if (ring.owner(REGION + '\n' + key).equals(member)) {
+                return key;
+            }
+        }
+    }
+
+    private int send(String member, String key, String secret, HttpRequest.Builder request) throws Exception {
+        request.uri(URI.create("http://" + member + PeerCache.PATH + REGION + "?key=" + key + "&ttl=60000"));
+        if (secret != null) {
+            request.header(PeerCache.SECRET_HEADER, secret);
+        }
+        return httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    private static void await(Supplier<Boolean> condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.get()) {
+            assertTrue(System.nanoTime() - deadline < 0, "condition not met within 5 s");
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new AssertionError(e);
+            }
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static PeerCache start(String self, List<String> peers) {
+        RedHatApiConfig config = stub(RedHatApiConfig.class, Map.of(
+                "cluster", stub(RedHatApiConfig.Cluster.class, Map.ofEntries(
+                        Map.entry("enabled", true),
+                        Map.entry("host", Optional.of("127.0.0.1")),
+                        Map.entry("port", Integer.parseInt(self.substring(self.indexOf(':') + 1))),
+                        Map.entry("self", Optional.of(self)),
+                        Map.entry("peers", Optional.of(new ArrayList<>(peers))),
+                        Map.entry("dns", Optional.empty()),
+                        Map.entry("refreshSeconds", 60),
+                        Map.entry("timeoutMillis", 2000),
+                        Map.entry("virtualNodes", VIRTUAL_NODES),
+                        Map.entry("maxBytes", (long) MAX_BYTES),
+                        Map.entry("secret", Optional.of(SECRET)))),
+                "cache", stub(RedHatApiConfig.Cache.class, Map.of(
+                        "search", stub(RedHatApiConfig.SearchCache.class, Map.of("ttlSeconds", 300)),
+                        "article", stub(RedHatApiConfig.ArticleCache.class, Map.of("ttlSeconds", 3600))))));
+        PeerCache cache = new PeerCache(config, new ObjectMapper(),
+                new KnowledgeBaseMetrics(new SimpleMeterRegistry()));
+        cache.start(null);
+        return cache;
+    }
+
+    /**
+     * Config interface answering each method from the map.
+     */
+    private static <T> T stub(Class<T> type, Map<String, Object> values) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> {
+                    if (!values.containsKey(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    return values.get(method.getName());
+                }));
+    }
+}
@@ -0,0 +1,187 @@
+package com.redhat.kb.infrastructure.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+class LocalSearchIndexTest {
+
+    @Test
+    void ranksTitleMatchesFirst() {
+        LocalSearchIndex index = index(100);
+        index.addAll(List.of(
+                article("1", "Pods stuck in ContainerCreating", "The etcd member reports slow fsync on the disk."),
+                article("2", "etcd slow disk warnings", "Apply request took too long."),
+                article("3", "Router timeouts", "HAProxy drops idle connections.")));
+
+        assertEquals(List.of("2", "1"), ids(index.search("etcd", 10, null, null)));
+        assertEquals(List.of("2"), ids(index.search("etcd", 1, null, null)));
+        assertEquals(List.of(), ids(index.search("kubelet", 10, null, null)));
+    }
+
+    @Test
+    void ranksArticlesMatchingMoreTermsFirst() {
+        LocalSearchIndex index = index(100);
+        index.addAll(List.of(
+                article("1", "etcd defragmentation", "Reclaim space in the etcd database."),
+                article("2", "etcd quorum lost", "The etcd cluster lost quorum after a slow disk failed."),
+                article("3", "Slow image pulls", "Registry mirrors are slow to respond.")));
+
+        assertEquals("2", ids(index.search("etcd slow quorum", 10, null, null)).get(0));
+    }
+
+    @Test
+    void filtersByProductAndDocumentKindIgnoringCase() {
+        LocalSearchIndex index = index(100);
+        index.addAll(List.of(
+                article("1", "etcd backup", "Back up etcd.", "Solution", "OpenShift Container Platform"),
+                article("2", "etcd backup", "Back up etcd.", "Article", "OpenShift Container Platform"),
+                article("3", "etcd backup", "Back up etcd.", "Solution", "Red Hat Enterprise Linux")));
+
+        assertEquals(List.of("1", "2"), sorted(index.search("etcd", 10, "openshift container platform", null)));
+        assertEquals(List.of("1", "3"), sorted(index.search("etcd", 10, null, "SOLUTION")));
+        assertEquals(List.of("1"), sorted(index.search("etcd", 10, " OpenShift Container Platform ", "Solution")));
+        assertEquals(List.of(), sorted(index.search("etcd", 10, "OpenShift", null)));
+        assertEquals(List.of("1", "2", "3"), sorted(index.search("etcd", 10, " ", "")));
+    }
+
+    @Test
+    void replacingAnArticleLeavesOneHit() {
+        LocalSearchIndex index = index(100);
+        index.addAll(List.of(article("1", "etcd leader elections", "Frequent leader changes.")));
+        index.addAll(List.of(article("1", "etcd quorum lost", "The cluster lost quorum.")));
+
+        assertEquals(1, index.size());
+        List<KnowledgeBaseArticleDto> hits = index.search("etcd", 10, null, null);
+        assertEquals(1, hits.size());
+        assertEquals("etcd quorum lost", hits.get(0).title());
+        assertEquals(List.of(), ids(index.search("leader", 10, null, null)));
+    }
+
+    @Test
+    void searchSummaryDoesNotReplaceDetailedCopyOfTheSameRevision() {
+        LocalSearchIndex index = index(100);
+        index.addAll(List.of(detailed("1", "etcd quorum lost", "Restore etcd from a snapshot.")));
+        index.addAll(List.of(article("1", "etcd quorum lost", "Summary only.")));
+
+        assertEquals(List.of("1"), ids(index.search("snapshot", 10, null, null)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void evictsOldestArticlesBeyondMaxDocuments() {
+        LocalSearchIndex index = index(3);
+        index.addAll(List.of(
+                article("1", "etcd one", "first"),
+                article("2", "etcd two", "second"),
+                article("3", "etcd three", "third")));
+        index.addAll(List.of(article("4", "etcd four", "fourth")));
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("2", "3", "4"), sorted(index.search("etcd", 10, null, null)));
+        assertEquals(List.of(), ids(index.search("first", 10, null, null)));
+        assertEquals(List.of("4"), ids(index.search("fourth", 10, null, null)));
+    }
+
+    @Test
+    void reindexedArticleIsEvictedLast() {
+        LocalSearchIndex index = index(2);
+        index.addAll(List.of(article("1", "etcd one", "first"), article("2", "etcd two", "second")));
+        index.addAll(List.of(article("1", "etcd one", "first again")));
+        index.addAll(List.of(article("3", "etcd three", "third")));
+
+        assertEquals(List.of("1", "3"), sorted(index.search("etcd", 10, null, null)));
+    }
+
+    @Test
+    void searchesCorrectlyAfterPurge() {
+        LocalSearchIndex index = index(3);
+        index.addAll(List.of(
+                article("1", "etcd one", "alpha"),
+                article("2", "etcd two", "beta"),
+                article("3", "etcd three", "gamma")));
+        // Each replacement leaves a dead document; the fourth outnumbers the live ones and triggers a purge
+        for (int revision = 0; revision < 4; revision++) {
+            index.addAll(List.of(article("2", "etcd two", "beta revision " + revision)));
+        }
+
+        assertEquals(3, index.size());
+        assertEquals(List.of("1", "2", "3"), sorted(index.search("etcd", 10, null, null)));
+        assertEquals(List.of("2"), ids(index.search("revision", 10, null, null)));
+        assertEquals(List.of("3"), ids(index.search("gamma", 10, null, null)));
+
+        // Renumbered documents keep their order, so eviction still removes the oldest
+        index.addAll(List.of(article("4", "etcd four", "delta")));
+        assertEquals(List.of("2", "3", "4"), sorted(index.search("etcd", 10, null, null)));
+        index.addAll(List.of(article("5", "etcd five", "epsilon")));
+        assertEquals(List.of("2", "4", "5"), sorted(index.search("etcd", 10, null, null)));
+        assertTrue(index.search("alpha", 10, null, null).isEmpty());
+    }
+
+    @Test
+    void tokenizesWordsIgnoringHtmlTagsAndSingleCharacters() {
+        assertEquals(List.of("run", "oc", "adm", "top", "nodes"),
+                LocalSearchIndex.tokenize("<p>Run <code>oc adm top</code> nodes: a</p>"));
+    }
+
+    private static List<String> ids(List<KnowledgeBaseArticleDto> articles) {
+        return articles.stream().map(KnowledgeBaseArticleDto::id).toList();
+    }
+
+    private static List<String> sorted(List<KnowledgeBaseArticleDto> articles) {
+        return articles.stream().map(KnowledgeBaseArticleDto::id).sorted().toList();
+    }
+
+    private static LocalSearchIndex index(int maxDocuments) {
+        RedHatApiConfig.LocalIndex localIndex = new RedHatApiConfig.LocalIndex() {
+            @Override
+            public boolean enabled() {
+                return true;
+            }
+
+            @Override
+            public int maxDocuments() {
+                return maxDocuments;
+            }
+
+            @Override
+            public int raceTimeoutMillis() {
+                return 0;
+            }
+        };
+        RedHatApiConfig config = (RedHatApiConfig) Proxy.newProxyInstance(RedHatApiConfig.class.getClassLoader(),
+                new Class<?>[] {RedHatApiConfig.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("localIndex")) {
+                        return localIndex;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new LocalSearchIndex(config, new KnowledgeBaseMetrics(new SimpleMeterRegistry()));
+    }
+
+    private static KnowledgeBaseArticleDto article(String id, String title, String abstractText) {
+        return article(id, title, abstractText, "Solution", "OpenShift Container Platform");
+    }
+
+    private static KnowledgeBaseArticleDto article(String id, String title, String abstractText,
+                                                   String documentKind, String product) {
+        return new KnowledgeBaseArticleDto(id, title, abstractText, documentKind,
+                "https://access.redhat.com/solutions/" + id, List.of(product), null, null, null, null, null,
+                "2024-05-01T00:00:00Z", null);
+    }
+
+    private static KnowledgeBaseArticleDto detailed(String id, String title, String resolution) {
+        return new KnowledgeBaseArticleDto(id, title, "Abstract of " + title, "Solution",
+                "https://access.redhat.com/solutions/" + id, List.of("OpenShift Container Platform"),
+                List.of("Issue"), null, null, List.of(resolution), null, "2024-05-01T00:00:00Z", null);
+    }
+}
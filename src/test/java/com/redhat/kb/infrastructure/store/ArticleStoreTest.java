@@ -0,0 +1,221 @@
+package com.redhat.kb.infrastructure.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.redhat.kb.infrastructure.config.RedHatApiConfig;
+import com.redhat.kb.infrastructure.dto.KnowledgeBaseArticleDto;
+import com.redhat.kb.infrastructure.metrics.KnowledgeBaseMetrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArticleStoreTest {
+
+    private static final long MAX_BYTES = 1L << 20;
+    private static final int SEGMENT_BYTES = 64 * 1024;
+
+    @TempDir
+    Path dir;
+
+    private final List<ArticleStore> opened = new ArrayList<>();
+
+    @AfterEach
+    void closeStores() {
+        opened.forEach(ArticleStore::shutdown);
+    }
+
+    @Test
+    void storesAndReadsBackArticles() {
+        ArticleStore store = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        store.put(article("1001", "first"));
+        store.put(article("1002", "second"));
+        store.put(article("1001", "first, revised"));
+
+        assertEquals("first, revised", store.get("1001").orElseThrow().article().title());
+        assertEquals("second", store.get("1002").orElseThrow().article().title());
+        assertTrue(store.get("1003").isEmpty());
+        assertEquals(2, store.entries());
+    }
+
+    @Test
+    void recoversArticlesAfterRestart() {
+        ArticleStore store = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        store.put(article("1001", "first"));
+        store.put(article("1002", "second"));
+        store.remove("1002");
+        close(store);
+
+        ArticleStore reopened = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        assertTrue(reopened.isEnabled());
+        assertEquals("first", reopened.get("1001").orElseThrow().article().title());
+        assertTrue(reopened.get("1002").isEmpty());
+        assertEquals(1, reopened.entries());
+    }
+
+    @Test
+    void treatsDamagedRecordsAsMisses() throws IOException {
+        ArticleStore store = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        store.put(article("1001", "first"));
+        close(store);
+
+        Path segment = segments().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), 20);
+        }
+
+        ArticleStore reopened = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        assertTrue(reopened.get("1001").isEmpty());
+    }
+
+    @Test
+    void deletesUnreferencedSegmentsOnOpen() throws IOException {
+        ArticleStore store = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        store.put(article("1001", "first"));
+        close(store);
+        Path orphan = dir.resolve("segment-99999999.log");
+        Files.write(orphan, new byte[] {1, 2, 3});
+        Files.write(dir.resolve("index.dat.compact"), new byte[] {1, 2, 3});
+
+        ArticleStore reopened = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        assertFalse(Files.exists(orphan));
+        assertFalse(Files.exists(dir.resolve("index.dat.compact")));
+        assertEquals("first", reopened.get("1001").orElseThrow().article().title());
+    }
+
+    @Test
+    void compactsReplacedRecords() {
+        ArticleStore store = open(MAX_BYTES, 4096, 1000);
+        for (int i = 0; i < 200; i++) {
+            store.put(article("1001", "revision " + i));
+        }
+
+        assertEquals("revision 199", store.get("1001").orElseThrow().article().title());
+        assertTrue(store.sizeBytes() < 2 * 4096, "garbage was not compacted: " + store.sizeBytes());
+    }
+
+    @Test
+    void compactionDropsOldestOverTheEntryCap() {
+        ArticleStore store = open(MAX_BYTES, SEGMENT_BYTES, 64);
+        for (int i = 0; i < 100; i++) {
+            store.put(article(String.valueOf(1000 + i), "article " + i));
+        }
+
+        int entries = store.entries();
+        assertTrue(entries <= 64);
+        assertTrue(store.get("1099").isPresent());
+        assertTrue(store.get("1000").isEmpty());
+        close(store);
+
+        ArticleStore reopened = open(MAX_BYTES, SEGMENT_BYTES, 64);
+        assertTrue(reopened.get("1099").isPresent());
+        assertEquals(entries, reopened.entries());
+    }
+
+    @Test
+    void compactionKeepsTheStoreUnderItsSizeCap() {
+        long maxBytes = 16 * 1024;
+        ArticleStore store = open(maxBytes, 4096, 1000);
+        for (int i = 0; i < 200; i++) {
+            store.put(article(String.valueOf(1000 + i), "article " + i));
+        }
+
+        assertTrue(store.sizeBytes() <= maxBytes, "store exceeds its cap: " + store.sizeBytes());
+        assertTrue(store.get("1199").isPresent());
+        assertTrue(store.get("1000").isEmpty());
+    }
+
+    @Test
+    void secondStoreOnTheSameDirectoryIsDisabled() {
+        ArticleStore first = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        first.put(article("1001", "first"));
+
+        ArticleStore second = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        assertFalse(second.isEnabled());
+        assertTrue(second.get("1001").isEmpty());
+        second.put(article("1002", "second"));
+        assertTrue(first.get("1002").isEmpty());
+
+        close(first);
+        ArticleStore third = open(MAX_BYTES, SEGMENT_BYTES, 1000);
+        assertTrue(third.isEnabled());
+        assertEquals("first", third.get("1001").orElseThrow().article().title());
+    }
+
+    private ArticleStore open(long maxBytes, int segmentBytes, int maxEntries) {
+        ArticleStore store = new ArticleStore(config(maxBytes, segmentBytes, maxEntries), new ObjectMapper(),
+                new KnowledgeBaseMetrics(new SimpleMeterRegistry()));
+        opened.add(store);
+        return store;
+    }
+
+    private void close(ArticleStore store) {
+        store.shutdown();
+        opened.remove(store);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "segment-*.log")) {
+            files.forEach(segments::add);
+        }
+        return segments;
+    }
+
+    private RedHatApiConfig config(long maxBytes, int segmentBytes, int maxEntries) {
+        RedHatApiConfig.Store store = new RedHatApiConfig.Store() {
+            @Override
+            public boolean enabled() {
+                return true;
+            }
+
+            @Override
+            public String directory() {
+                return dir.toString();
+            }
+
+            @Override
+            public long maxBytes() {
+                return maxBytes;
+            }
+
+            @Override
+            public int segmentBytes() {
+                return segmentBytes;
+            }
+
+            @Override
+            public int maxEntries() {
+                return maxEntries;
+            }
+        };
+        return (RedHatApiConfig) Proxy.newProxyInstance(RedHatApiConfig.class.getClassLoader(),
+                new Class<?>[] {RedHatApiConfig.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("store")) {
+                        return store;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private static KnowledgeBaseArticleDto article(String id, String title) {
+        return new KnowledgeBaseArticleDto(id, title, "Abstract of " + title, "Solution",
+                "https://access.redhat.com/solutions/" + id, List.of("OpenShift"), List.of("Issue"), null, null,
+                List.of("Resolution"), null, "2024-05-01T00:00:00Z", null);
+    }
+}
@@ -0,0 +1,109 @@
+package com.redhat.kb.infrastructure.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void putGetReplaceAndRemove() throws IOException {
+        try (MappedIndex index = MappedIndex.open(dir.resolve("index.dat"), 64)) {
+            assertTrue(index.put(42L, 1, 0, 100, 1000L));
+            assertEquals(new MappedIndex.Entry(42L, 1, 0, 100, 1000L), index.get(42L));
+
+            assertTrue(index.put(42L, 2, 128, 50, 2000L));
+            assertEquals(new MappedIndex.Entry(42L, 2, 128, 50, 2000L), index.get(42L));
+            assertEquals(1, index.live());
+
+            assertTrue(index.touch(42L, 3000L));
+            assertEquals(3000L, index.get(42L).storedAt());
+
+            assertEquals(2, index.remove(42L).segment());
+            assertNull(index.get(42L));
+            assertNull(index.remove(42L));
+            assertFalse(index.touch(42L, 4000L));
+            assertEquals(0, index.live());
+        }
+    }
+
+    @Test
+    void collidingHashesProbeToTheirOwnSlots() throws IOException {
+        try (MappedIndex index = MappedIndex.open(dir.resolve("index.dat"), 64)) {
+            // Same home slot: the low bits of hash ^ (hash >>> 32) are equal
+            long first = 5L;
+            long second = 5L + 64;
+            long third = 5L + 128;
+            index.put(first, 1, 0, 10, 1L);
+            index.put(second, 1, 10, 10, 2L);
+            index.put(third, 1, 20, 10, 3L);
+
+            index.remove(second);
+            assertEquals(20, index.get(third).offset());
+            // The tombstone is reused without hiding the entry behind it
+            index.put(second, 2, 0, 10, 4L);
+            assertEquals(2, index.get(second).segment());
+            assertEquals(20, index.get(third).offset());
+            assertEquals(3, index.live());
+        }
+    }
+
+    @Test
+    void reopensWithExistingEntriesAndCapacity() throws IOException {
+        Path file = dir.resolve("index.dat");
+        try (MappedIndex index = MappedIndex.open(file, 64)) {
+            index.put(1L, 1, 0, 10, 100L);
+            index.put(2L, 1, 18, 20, 200L);
+            index.remove(2L);
+        }
+
+        try (MappedIndex index = MappedIndex.open(file, 1024)) {
+            assertEquals(64, index.capacity());
+            assertEquals(1, index.live());
+            assertEquals(new MappedIndex.Entry(1L, 1, 0, 10, 100L), index.get(1L));
+            assertNull(index.get(2L));
+            List<MappedIndex.Entry> entries = new ArrayList<>();
+            index.forEach(entries::add);
+            assertEquals(List.of(new MappedIndex.Entry(1L, 1, 0, 10, 100L)), entries);
+        }
+    }
+
+    @Test
+    void replacesAnInvalidFile() throws IOException {
+        Path file = dir.resolve("index.dat");
+        Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17});
+
+        try (MappedIndex index = MappedIndex.open(file, 64)) {
+            assertEquals(64, index.capacity());
+            assertEquals(0, index.live());
+        }
+        assertEquals(16 + 64 * 32, Files.size(file));
+    }
+
+    @Test
+    void refusesNewEntriesAtTheLoadLimit() throws IOException {
+        try (MappedIndex index = MappedIndex.open(dir.resolve("index.dat"), 64)) {
+            for (long hash = 1; hash <= 48; hash++) {
+                assertTrue(index.put(hash, 1, 0, 10, hash));
+            }
+            assertTrue(index.isFull());
+            assertFalse(index.put(100L, 1, 0, 10, 100L));
+            // Existing entries can still be replaced
+            assertTrue(index.put(1L, 2, 0, 10, 1L));
+            assertEquals(48, index.live());
+        }
+    }
+}
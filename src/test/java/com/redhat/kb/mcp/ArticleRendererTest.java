@@ -0,0 +1,65 @@
+package com.redhat.kb.mcp;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.api.Test;
+
+class ArticleRendererTest {
+
+    @Test
+    void plainTextLeavesTextWithoutMarkupAlone() {
+        String text = "Restart the kubelet service.";
+        assertSame(text, ArticleRenderer.plainText(text));
+    }
+
+    @Test
+    void plainTextTurnsBlocksIntoLinesAndDropsInlineTags() {
+        assertEquals("Resolution\nRun the <b>following</b> command:\nDone.",
+                ArticleRenderer.plainText("<h2>Resolution</h2><p>Run the &lt;b&gt;following&lt;/b&gt; "
+                        + "<strong>command</strong>:</p><div>Done.</div>"));
+    }
+
+    @Test
+    void plainTextPrefixesListItems() {
+        assertEquals("Steps:\n- Drain the node\n- Reboot it",
+                ArticleRenderer.plainText("<p>Steps:</p><ul>\n  <li>Drain the node</li>\n  <li>Reboot it</li>\n</ul>"));
+    }
+
+    @Test
+    void plainTextKeepsWhitespaceInPre() {
+        assertEquals("Check:\n$ oc get nodes\n  NAME   STATUS",
+                ArticleRenderer.plainText("<p>Check:</p><pre>$ oc get nodes\n  NAME   STATUS</pre>"));
+    }
+
+    @Test
+    void plainTextCollapsesWhitespaceAndLineBreaks() {
+        assertEquals("first line\nsecond line",
+                ArticleRenderer.plainText("first \n   line<br><br><br><br>second \t  line"));
+    }
+
+    @Test
+    void plainTextDecodesEntities() {
+        assertEquals("a & b \"c\" 'd' é — &unknown; & x",
+                ArticleRenderer.plainText("a &amp; b &quot;c&quot; &#39;d&#39; &#233; &#x2014; &unknown; & x"));
+    }
+
+    @Test
+    void plainTextSeparatesTableCells() {
+        assertEquals("Name Status\netcd Degraded",
+                ArticleRenderer.plainText("<table><tr><th>Name</th><th>Status</th></tr>"
+                        + "<tr><td>etcd</td><td>Degraded</td></tr></table>"));
+    }
+
+    @Test
+    void plainTextKeepsUnclosedTag() {
+        assertEquals("a < b", ArticleRenderer.plainText("a < b"));
+    }
+
+    @Test
+    void truncateSaysHowMuchWasCut() {
+        assertEquals("abc", ArticleRenderer.truncate("abc", 0));
+        assertEquals("abc", ArticleRenderer.truncate("abc", 3));
+        assertEquals("ab... [4 more chars]", ArticleRenderer.truncate("abcdef", 2));
+    }
+}
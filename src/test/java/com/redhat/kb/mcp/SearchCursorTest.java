@@ -0,0 +1,77 @@
+package com.redhat.kb.mcp;
+
+import static com.redhat.kb.KnowledgeBaseConstants.MAX_SEARCH_OFFSET;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class SearchCursorTest {
+
+    @Test
+    void roundTripsTheOffset() {
+        String cursor = SearchCursor.encode(20, "etcd slow", "OpenShift", "Solution");
+        assertEquals(20, SearchCursor.decode(cursor, "etcd slow", "OpenShift", "Solution"));
+    }
+
+    @Test
+    void toleratesCaseAndWhitespaceChangesInTheQuery() {
+        String cursor = SearchCursor.encode(10, "etcd  slow", null, null);
+        assertEquals(10, SearchCursor.decode(cursor, " ETCD slow ", "", "  "));
+    }
+
+    @Test
+    void rejectsCursorWhenABooleanOperatorChangesCase() {
+        String cursor = SearchCursor.encode(10, "etcd NOT slow", null, null);
+
+        assertEquals(10, SearchCursor.decode(cursor, "ETCD NOT Slow", null, null));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(cursor, "etcd not slow", null, null));
+    }
+
+    @Test
+    void blankCursorStartsAtTheBeginning() {
+        assertEquals(0, SearchCursor.decode(null, "q", null, null));
+        assertEquals(0, SearchCursor.decode(" ", "q", null, null));
+    }
+
+    @Test
+    void rejectsCursorOfAnotherSearch() {
+        String cursor = SearchCursor.encode(10, "etcd slow", "OpenShift", null);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> SearchCursor.decode(cursor, "etcd slow", "RHEL", null));
+        assertTrue(e.getMessage().startsWith("cursor belongs to a different search"));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(cursor, "etcd", "OpenShift", null));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode("not base64!", "q", null, null));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(raw("abc"), "q", null, null));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(raw("x:1"), "q", null, null));
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(raw("-10:1"), "q", null, null));
+    }
+
+    @Test
+    void rejectsOffsetsPastTheLimit() {
+        String cursor = SearchCursor.encode(MAX_SEARCH_OFFSET, "q", null, null);
+        assertThrows(IllegalArgumentException.class, () -> SearchCursor.decode(cursor, "q", null, null));
+    }
+
+    @Test
+    void issuesCursorsOnlyWithinTheLimit() {
+        assertFalse(SearchCursor.canPage(0));
+        assertTrue(SearchCursor.canPage(10));
+        assertTrue(SearchCursor.canPage(MAX_SEARCH_OFFSET - 1));
+        assertFalse(SearchCursor.canPage(MAX_SEARCH_OFFSET));
+    }
+
+    private static String raw(String value) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
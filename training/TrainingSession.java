@@ -0,0 +1,134 @@
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Training session for {@code train.sh}: plays the MCP client and the Red Hat upstreams.
+ * <p>
+ * Serves stand-ins for the Hydra search ({@code /hydra/rest/search/kcs}) and SSO token ({@code /token})
+ * endpoints, waits for the server, then sends it each request of a JSON-RPC session file over
+ * streamable HTTP. Every search returns articles in the shapes the server parses, so the run
+ * loads the same classes as a session against Red Hat.
+ * <p>
+ * Run with {@code java TrainingSession.java <server MCP URL> <stub port> <session file>}.
+ */
+public final class TrainingSession {
+
+    private static final String ARTICLE = """
+            {"id":"%s","title":"Pod in CrashLoopBackOff after upgrade","abstract":"Pods restart repeatedly.",\
+            "documentKind":"Solution","view_uri":"https://access.redhat.com/solutions/%s",\
+            "product":["Red Hat OpenShift Container Platform"],"lastModifiedDate":"2024-01-01T00:00:00Z",\
+            "createdDate":"2023-01-01T00:00:00Z","issue":["<p>Pods restart with <code>CrashLoopBackOff</code>.</p>"],\
+            "solution_environment":["<ul><li>OpenShift 4</li></ul>"],\
+            "solution_rootcause":["<p>The liveness probe fails before the application starts.</p>"],\
+            "solution_resolution":["<ol><li>Increase <code>initialDelaySeconds</code>.</li></ol><pre>oc logs -p pod</pre>"],\
+            "solution_diagnosticsteps":"subscriber_only"}""";
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    private TrainingSession() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI mcp = URI.create(args[0]);
+        int port = Integer.parseInt(args[1]);
+        List<String> session = Files.readAllLines(Path.of(args[2])).stream()
+                .filter(line -> !line.isBlank())
+                .toList();
+
+        HttpServer stub = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        stub.createContext("/hydra/rest/search/kcs", TrainingSession::search);
+        stub.createContext("/token", exchange -> respond(exchange,
+                "{\"access_token\":\"training\",\"expires_in\":900,\"token_type\":\"Bearer\"}"));
+        stub.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        stub.start();
+
+        try (HttpClient client = HttpClient.newHttpClient()) {
+            String sessionId = null;
+            for (String message : session) {
+                HttpResponse<String> response = send(client, mcp, sessionId, message);
+                sessionId = response.headers().firstValue("Mcp-Session-Id").orElse(sessionId);
+                if (response.statusCode() >= 400 || response.body().contains("\"isError\":true")) {
+                    throw new IllegalStateException("Server answered " + response.statusCode() + " to " + message
+                            + ": " + response.body());
+                }
+            }
+            System.out.println("Training session sent " + session.size() + " messages");
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    /**
+     * Posts one message, retrying while the server is still starting.
+     */
+    private static HttpResponse<String> send(HttpClient client, URI mcp, String sessionId, String message)
+            throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(mcp)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json, text/event-stream")
+                .POST(HttpRequest.BodyPublishers.ofString(message));
+        if (sessionId != null) {
+            request.header("Mcp-Session-Id", sessionId);
+        }
+
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (true) {
+            try {
+                return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            } catch (ConnectException e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.sleep(200);
+            }
+        }
+    }
+
+    private static void search(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        int rows = 10;
+        int start = 0;
+        for (String param : query != null ? query.split("&") : new String[0]) {
+            String[] pair = param.split("=", 2);
+            if (pair.length == 2 && pair[0].equals("rows")) {
+                rows = Integer.parseInt(URLDecoder.decode(pair[1], StandardCharsets.UTF_8));
+            } else if (pair.length == 2 && pair[0].equals("start")) {
+                start = Integer.parseInt(URLDecoder.decode(pair[1], StandardCharsets.UTF_8));
+            }
+        }
+
+        int numFound = 42;
+        int count = Math.max(0, Math.min(rows, numFound - start));
+        StringBuilder body = new StringBuilder("{\"response\":{\"numFound\":").append(numFound).append(",\"docs\":[");
+        for (int i = 0; i < count; i++) {
+            String id = String.valueOf(5049000 + start + i);
+            body.append(i > 0 ? "," : "").append(ARTICLE.formatted(id, id));
+        }
+        respond(exchange, body.append("]}}").toString());
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+#!/usr/bin/env bash
+# =============================================================================
+# Creates a CDS archive of the classes a typical session loads: the server is
+# started with -XX:ArchiveClassesAtExit, sent session.jsonl by TrainingSession.java
+# against local Hydra and SSO stand-ins, and stopped.
+#
+# Usage:
+#   training/train.sh <archive> <runner jar> [java options...]
+#
+# Run the server with the same JDK, jar path and options:
+#   java -XX:SharedArchiveFile=<archive> [java options...] -jar <runner jar>
+# =============================================================================
+set -euo pipefail
+
+DIR=$(cd "$(dirname "$0")" && pwd)
+ARCHIVE=$1
+JAR=$2
+shift 2
+SERVER_PORT=${TRAINING_SERVER_PORT:-19089}
+STUB_PORT=${TRAINING_STUB_PORT:-18089}
+
+REDHAT_TOKEN=training-offline-token java -XX:ArchiveClassesAtExit="$ARCHIVE" -Xlog:cds=off "$@" \
+    -Dquarkus.http.port="$SERVER_PORT" \
+    -Dquarkus.http.host=127.0.0.1 \
+    -Dquarkus.log.level=WARN \
+    -Dredhat.api.hydra.search-url="http://127.0.0.1:$STUB_PORT/hydra/rest/search/kcs" \
+    -Dredhat.api.sso.token-url="http://127.0.0.1:$STUB_PORT/token" \
+    -Dredhat.api.http.warm-up.enabled=false \
+    -jar "$JAR" &
+SERVER=$!
+trap 'kill $SERVER 2>/dev/null || true' EXIT
+
+java "$DIR/TrainingSession.java" "http://127.0.0.1:$SERVER_PORT/mcp" "$STUB_PORT" "$DIR/session.jsonl"
+
+# The archive is written as the JVM exits
+kill -TERM "$SERVER"
+wait "$SERVER" || true
+trap - EXIT
+test -s "$ARCHIVE"
+echo "Created $ARCHIVE"